@@ -34,13 +34,17 @@ import com.google.common.collect.BiMap;
 import com.google.common.collect.HashBiMap;
 import ij.ImagePlus;
 import ij.measure.Calibration;
+import bdv.viewer.Source;
 import mpicbg.spim.data.sequence.VoxelDimensions;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.util.Intervals;
 import org.embl.mobie.io.ImageDataFormat;
 import org.embl.mobie.io.ImageDataOpener;
 import org.embl.mobie.io.imagedata.ImageData;
 import org.embl.mobie.io.imagedata.ImagePlusImageData;
 import org.embl.mobie.io.toml.TPosition;
 import org.embl.mobie.io.toml.ZPosition;
+import org.embl.mobie.lib.cache.BoundedCache;
 import org.embl.mobie.lib.hcs.Site;
 import org.embl.mobie.lib.hcs.VirtualStackWithFlexibleLoader;
 import org.embl.mobie.lib.image.Image;
@@ -64,8 +68,16 @@ public abstract class DataStore
 
 	private static BiMap< SourceAndConverter< ? >, Image< ? > > sourceToImage = HashBiMap.create();
 
-	// TODO: replace by some soft ref cache? How to free the memory?
-	private static Map< Object, CompletableFuture< ImageData< ? > > > imageDataCache = new ConcurrentHashMap<>();
+	// Rough estimate of the memory that an opened image loader occupies,
+	// in addition to the voxels of its coarsest resolution level
+	private static final long LOADER_BYTES = 64 * 1024;
+
+	private static final BoundedCache< Object, CompletableFuture< ImageData< ? > > > imageDataCache =
+			new BoundedCache<>(
+					256,
+					Runtime.getRuntime().maxMemory() / 4,
+					( key, future ) -> estimateBytes( future ),
+					( key, future ) -> {} ); // evicted loaders may still back displayed sources; dropping the reference lets GC free them once unused
 
 	public static BiMap< SourceAndConverter< ? >, Image< ? > > sourceToImage()
 	{
@@ -88,8 +100,8 @@ public abstract class DataStore
 		{
 			return imageDataCache
 					.computeIfAbsent( path,
-							p -> CompletableFuture.supplyAsync( ()
-							-> openImageData( (String) p, imageDataFormat, sharedQueue ) ) )
+							p -> reweighWhenDone( p, CompletableFuture.supplyAsync( ()
+							-> openImageData( (String) p, imageDataFormat, sharedQueue ) ) ) )
 					.get();
 		}
 		catch ( InterruptedException | ExecutionException e )
@@ -104,8 +116,8 @@ public abstract class DataStore
 		{
 			return imageDataCache
 					.computeIfAbsent(site,
-							s -> CompletableFuture.supplyAsync(()
-									-> addImageData( (Site) s, sharedQueue )))
+							s -> reweighWhenDone( s, CompletableFuture.supplyAsync(()
+									-> addImageData( (Site) s, sharedQueue ))))
 					.get();
 		}
 		catch ( InterruptedException | ExecutionException e )
@@ -128,7 +140,60 @@ public abstract class DataStore
 
 	public static void clearSpimDataCache( )
 	{
-		imageDataCache = new ConcurrentHashMap<>();
+		imageDataCache.invalidateAll();
+	}
+
+	/**
+	 * Limits the number of opened image loaders that are kept for reuse.
+	 *
+	 * @param maxEntries
+	 *            maximal number of cached image data
+	 * @param maxBytes
+	 *            maximal (estimated) memory of all cached image data
+	 */
+	public static void setImageDataCacheLimits( long maxEntries, long maxBytes )
+	{
+		imageDataCache.setLimits( maxEntries, maxBytes );
+	}
+
+	public static BoundedCache.Stats getImageDataCacheStats()
+	{
+		return imageDataCache.stats();
+	}
+
+	private static CompletableFuture< ImageData< ? > > reweighWhenDone( Object key, CompletableFuture< ImageData< ? > > future )
+	{
+		// the weight of an entry is only known once the image data is opened
+		future.thenRun( () -> imageDataCache.updateWeight( key ) );
+		return future;
+	}
+
+	private static long estimateBytes( CompletableFuture< ImageData< ? > > future )
+	{
+		if ( ! future.isDone() || future.isCompletedExceptionally() )
+			return LOADER_BYTES;
+
+		try
+		{
+			final ImageData< ? > imageData = future.join();
+			long bytes = 0;
+			for ( int datasetIndex = 0; datasetIndex < imageData.getNumDatasets(); datasetIndex++ )
+			{
+				final Source< ? > source = imageData.getSourcePair( datasetIndex ).getA();
+				final int coarsestLevel = source.getNumMipmapLevels() - 1;
+				final long numVoxels = Intervals.numElements( source.getSource( 0, coarsestLevel ) );
+				final Object type = source.getType();
+				final int bytesPerVoxel = type instanceof RealType
+						? Math.max( 1, ( ( RealType< ? > ) type ).getBitsPerPixel() / 8 )
+						: 4;
+				bytes += LOADER_BYTES + numVoxels * bytesPerVoxel;
+			}
+			return bytes;
+		}
+		catch ( Exception e )
+		{
+			return LOADER_BYTES;
+		}
 	}
 
 	public static void addRawData( DataSource dataSource )
@@ -158,6 +223,11 @@ public abstract class DataStore
 	}
 
 
+	public static Collection< Image< ? > > getImages()
+	{
+		return Collections.unmodifiableCollection( images.values() );
+	}
+
 	public static boolean containsImage( String name )
 	{
 		return images.containsKey( name );
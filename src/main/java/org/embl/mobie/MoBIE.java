@@ -41,6 +41,7 @@ import org.embl.mobie.io.imagedata.ImageData;
 import org.embl.mobie.io.util.IOHelper;
 import org.embl.mobie.io.util.S3Utils;
 import org.embl.mobie.lib.*;
+import org.embl.mobie.lib.bdv.AutoContrastAdjuster;
 import org.embl.mobie.lib.bdv.BdvViewingMode;
 import org.embl.mobie.lib.data.*;
 import org.embl.mobie.lib.hcs.HCSDataSetter;
@@ -50,6 +51,7 @@ import org.embl.mobie.lib.image.Image;
 import org.embl.mobie.lib.image.ImageDataImage;
 import org.embl.mobie.lib.image.SpimDataImage;
 import org.embl.mobie.lib.io.DataFormats;
+import org.embl.mobie.lib.io.RemoteMetadataCache;
 import org.embl.mobie.lib.io.StorageLocation;
 import org.embl.mobie.lib.serialize.*;
 import org.embl.mobie.lib.table.TableDataFormat;
@@ -111,6 +113,7 @@ public class MoBIE
 	public MoBIE( String uri, MoBIESettings settings ) throws IOException
 	{
 		this.settings = settings;
+		ThreadHelper.configure( settings );
 		this.projectLocation = uri;
 
 		if ( settings.values.getProjectType().equals( ProjectType.CollectionTable ) )
@@ -162,6 +165,7 @@ public class MoBIE
 	public MoBIE( String hcsDataLocation, MoBIESettings settings, double relativeWellMargin, double relativeSiteMargin, @Nullable VoxelDimensions voxelDimensions ) throws IOException
 	{
 		this.settings = settings;
+		ThreadHelper.configure( settings );
 		this.projectLocation = hcsDataLocation;
 
 		initImageJAndMoBIE();
@@ -180,6 +184,7 @@ public class MoBIE
 		IJ.log("Opening tables: " + Arrays.toString( labelTablePaths.toArray() ) );
 
 		this.settings = settings;
+		ThreadHelper.configure( settings );
 
 		final GridSourcesFromPathsCreator sourcesCreator = new GridSourcesFromPathsCreator( imagePaths, labelPaths, labelTablePaths, root, grid );
 
@@ -197,6 +202,7 @@ public class MoBIE
 		IJ.log("Opening data from table: " + tablePath );
 
 		this.settings = settings;
+		ThreadHelper.configure( settings );
 
 		// TODO: if the gridType is None we may want to rather use SourcesFromPathsCreator( )
 		//   where we prefetch the paths from the table based on the image type
@@ -228,7 +234,7 @@ public class MoBIE
 
 		setProjectImageAndTableRootLocations();
 		registerProjectPlugins( projectLocation );
-		project = new ProjectJsonParser().parseProject( combinePath( projectRoot, "project.json" ) );
+		project = new ProjectJsonParser().parseProjectJson( RemoteMetadataCache.read( combinePath( projectRoot, "project.json" ) ) );
 		if ( project.getName() == null ) project.setName( getFileName( projectLocation ) );
 		settings.addTableDataFormat( TableDataFormat.TSV );
 		openAndViewDataset();
@@ -382,7 +388,7 @@ public class MoBIE
 	{
 		projectRoot = MoBIEHelper.createPath( projectLocation, settings.values.getProjectBranch() );
 
-		if( ! org.embl.mobie.io.util.IOHelper.exists( combinePath( projectRoot, "project.json" ) ) )
+		if( ! RemoteMetadataCache.exists( combinePath( projectRoot, "project.json" ) ) )
 		{
 			projectRoot = combinePath( projectRoot, "data" );
 		}
@@ -391,7 +397,7 @@ public class MoBIE
 				settings.values.getImageDataLocation() != null ? settings.values.getImageDataLocation() : projectLocation,
 				settings.values.getImageDataBranch() );
 
-		if( ! org.embl.mobie.io.util.IOHelper.exists( combinePath( imageRoot, "project.json" ) ) )
+		if( ! RemoteMetadataCache.exists( combinePath( imageRoot, "project.json" ) ) )
 		{
 			imageRoot = combinePath( imageRoot, "data" );
 		}
@@ -400,7 +406,7 @@ public class MoBIE
 				settings.values.getTableDataLocation() != null ? settings.values.getTableDataLocation() : projectLocation,
 				settings.values.getTableDataBranch() );
 
-		if( ! org.embl.mobie.io.util.IOHelper.exists( combinePath( tableRoot, "project.json" ) ) )
+		if( ! RemoteMetadataCache.exists( combinePath( tableRoot, "project.json" ) ) )
 		{
 			tableRoot = combinePath( tableRoot, "data" );
 		}
@@ -410,7 +416,7 @@ public class MoBIE
 	{
 		IJ.log("Dataset: " + datasetName );
 		final String datasetJsonPath = combinePath( projectRoot, datasetName, "dataset.json" );
-		dataset = new DatasetJsonParser().parseDataset( datasetJsonPath );
+		dataset = new DatasetJsonParser().parseDatasetJson( RemoteMetadataCache.read( datasetJsonPath ) );
 		dataset.setName( datasetName );
 
 		// set data source names
@@ -478,6 +484,8 @@ public class MoBIE
 		try
 		{
 			IJ.log( "Closing MoBIE..." );
+			for ( PriorityExecutorService.Stats stats : ThreadHelper.stats() )
+				IJ.log( "Thread pool usage: " + stats );
 			IJ.log( "Closing I/O threads..." );
 			S3Utils.setS3AccessAndSecretKey( null );
 			ThreadHelper.resetIOThreads();
@@ -602,6 +610,8 @@ public class MoBIE
 		}
 
 		SourceAndConverterServices.getSourceAndConverterService().remove( sourceAndConverter );
+		DataStore.sourceToImage().remove( sourceAndConverter );
+		AutoContrastAdjuster.invalidate( sourceAndConverter.getSpimSource() );
 	}
 
     public synchronized String getImageLocation( ImageDataFormat imageDataFormat, StorageLocation storageLocation )
@@ -650,7 +660,7 @@ public class MoBIE
 			}
 
 			futures.add(
-				ThreadHelper.ioExecutorService.submit( () ->
+				getIoExecutorService( dataSource ).submit( () ->
 					{
 						String log = MoBIEHelper.getLog( sourceIndex, numImages, sourceLoggingModulo, lastLogMillis );
 						initDataSource( dataSource, log );
@@ -662,7 +672,51 @@ public class MoBIE
 		IJ.log( "Initialised " + dataSources.size() + " data source(s) in " + (System.currentTimeMillis() - startTime) + " ms, using up to " + ThreadHelper.getNumIoThreads() + " thread(s).");
 	}
 
+	// remote data is opened with more threads, as the requests mostly wait for the server
+	private PriorityExecutorService getIoExecutorService( DataSource dataSource )
+	{
+		if ( ! ( dataSource instanceof ImageDataSource ) )
+			return ThreadHelper.ioExecutorService;
+
+		final ImageDataSource imageSource = ( ImageDataSource ) dataSource;
+		final ImageDataFormat imageDataFormat = getImageDataFormat( imageSource );
+		final StorageLocation storageLocation = imageSource.imageData.get( imageDataFormat );
+		if ( imageDataFormat.equals( ImageDataFormat.ImageData ) || storageLocation instanceof Site )
+			return ThreadHelper.getIoExecutorService( storageLocation.absolutePath );
+
+		return ThreadHelper.getIoExecutorService( getImageLocation( imageDataFormat, storageLocation ) );
+	}
+
 	private void initDataSource( DataSource dataSource, String log )
+	{
+		if ( dataSource instanceof ImageDataSource || dataSource instanceof SpotDataSource )
+		{
+			DataStore.addImage( createImage( dataSource, dataSource.preInit() ) );
+		}
+
+		if ( dataSource instanceof RegionTableSource )
+		{
+			// Region images cannot be fully initialised
+			// here because the region annotations can refer
+			// to images that are created later by means of a
+			// transformation.
+			// However, we can already load the region table here.
+			loadRegionTable( ( RegionTableSource ) dataSource );
+		}
+
+		if ( log != null )
+			IJ.log( log + dataSource.getName() );
+	}
+
+	/**
+	 * Creates the (untransformed) image of an image or spot data source,
+	 * without adding it to the {@code DataStore}.
+	 *
+	 * @param preInit
+	 * 			whether to initialise all resolution levels
+	 * 			and to load the default table already now
+	 */
+	public Image< ? > createImage( DataSource dataSource, boolean preInit )
 	{
 		if ( dataSource instanceof ImageDataSource )
 		{
@@ -672,7 +726,7 @@ public class MoBIE
 			final StorageLocation storageLocation = imageSource.imageData.get( imageDataFormat );
 			final Image< ? > image = initImage( imageDataFormat, storageLocation, imageSource.getName() );
 
-			if ( dataSource.preInit() )
+			if ( preInit )
 			{
 				// force initialization here to save time later
 				// (i.e. help smooth rendering in BDV)
@@ -686,12 +740,12 @@ public class MoBIE
 			{
 				// label image
 				final AnnotatedLabelImageCreator labelImageCreator = new AnnotatedLabelImageCreator( this, ( SegmentationDataSource ) dataSource, image );
-				DataStore.addImage( labelImageCreator.create() );
+				return labelImageCreator.create();
 			}
 			else
 			{
 				// intensity image
-				DataStore.addImage( image );
+				return image;
 			}
 		}
 
@@ -699,28 +753,28 @@ public class MoBIE
 		{
 			// build spots image from spots table
 			final SpotImageCreator spotImageCreator = new SpotImageCreator( ( SpotDataSource ) dataSource, this );
-			DataStore.addImage( spotImageCreator.create() );
+			return spotImageCreator.create();
 		}
 
-		if ( dataSource instanceof RegionTableSource )
+		throw new UnsupportedOperationException( "Cannot create an image from a " + dataSource.getClass().getSimpleName() );
+	}
+
+	public void loadRegionTable( RegionTableSource regionTableSource )
+	{
+		synchronized ( regionTableSource )
 		{
-			// Region images cannot be fully initialised
-			// here because the region annotations can refer
-			// to images that are created later by means of a
-			// transformation.
-			// However, we can already load the region table here.
-			final RegionTableSource regionTableSource = ( RegionTableSource ) dataSource;
-			final StorageLocation tableLocation = getTableLocation( regionTableSource.tableData );
-			final TableDataFormat tableFormat = getTableDataFormat( regionTableSource.tableData );
-			regionTableSource.table = TableOpener.open( tableLocation, tableFormat );
-			DataStore.addRawData( regionTableSource );
+			// the table may already have been loaded,
+			// e.g. by the {@code ViewPrefetcher}
+			if ( regionTableSource.table == null )
+			{
+				final StorageLocation tableLocation = getTableLocation( regionTableSource.tableData );
+				final TableDataFormat tableFormat = getTableDataFormat( regionTableSource.tableData );
+				regionTableSource.table = TableOpener.open( tableLocation, tableFormat );
+			}
 		}
-
-		if ( log != null )
-			IJ.log( log + dataSource.getName() );
+		DataStore.addRawData( regionTableSource );
 	}
 
-
 	private Image< ? > initImage( ImageDataFormat imageDataFormat, StorageLocation storageLocation, String name )
 	{
 		if ( imageDataFormat.equals( ImageDataFormat.ImageData ) )
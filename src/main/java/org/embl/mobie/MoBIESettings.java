@@ -133,6 +133,30 @@ public class MoBIESettings
 		return this;
 	}
 
+	public MoBIESettings numIoThreads( int numIoThreads )
+	{
+		this.values.numIoThreads = numIoThreads;
+		return this;
+	}
+
+	public MoBIESettings numRemoteIoThreads( int numRemoteIoThreads )
+	{
+		this.values.numRemoteIoThreads = numRemoteIoThreads;
+		return this;
+	}
+
+	public MoBIESettings numThreads( int numThreads )
+	{
+		this.values.numThreads = numThreads;
+		return this;
+	}
+
+	public MoBIESettings prefetchMemory( long prefetchMemory )
+	{
+		this.values.prefetchMemory = prefetchMemory;
+		return this;
+	}
+
 	public static class Values
 	{
 		private String[] s3AccessAndSecretKey;
@@ -150,6 +174,10 @@ public class MoBIESettings
 		private String dataRoot = null;
 
 		private BdvViewingMode bdvViewingMode = BdvViewingMode.ThreeDimensional;
+		private Integer numIoThreads = null; // null: keep the current number of threads
+		private Integer numRemoteIoThreads = null;
+		private Integer numThreads = null;
+		private long prefetchMemory = Runtime.getRuntime().maxMemory() / 8; // bytes for opening likely next views in the background, 0 disables it
 
 		public String getDataRoot()
 		{
@@ -225,5 +253,25 @@ public class MoBIESettings
 		{
 			return bdvViewingMode;
 		}
+
+		public Integer getNumIoThreads()
+		{
+			return numIoThreads;
+		}
+
+		public Integer getNumRemoteIoThreads()
+		{
+			return numRemoteIoThreads;
+		}
+
+		public Integer getNumThreads()
+		{
+			return numThreads;
+		}
+
+		public long getPrefetchMemory()
+		{
+			return prefetchMemory;
+		}
 	}
 }
@@ -73,8 +73,18 @@ public class ScreenShotMakerCommand extends DynamicCommand implements BdvPlaygro
 
         ScreenShotMaker screenShotMaker = new ScreenShotMaker( bdvHandle, pixelUnit );
         screenShotMaker.run( targetSamplingInXY );
-        screenShotMaker.getRGBImagePlus().show();
-        screenShotMaker.getCompositeImagePlus().show();
+
+        if ( screenShotMaker.getOutputFile() != null )
+        {
+            IJ.showMessage( "The screenshot is too large to be shown and has been saved as OME-Zarr to:\n" + screenShotMaker.getOutputFile() );
+            return;
+        }
+
+        if ( screenShotMaker.getRGBImagePlus() != null )
+            screenShotMaker.getRGBImagePlus().show();
+
+        if ( screenShotMaker.getCompositeImagePlus() != null )
+            screenShotMaker.getCompositeImagePlus().show();
     }
 
     @Override
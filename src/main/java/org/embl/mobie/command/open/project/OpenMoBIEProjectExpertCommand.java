@@ -30,7 +30,6 @@ package org.embl.mobie.command.open.project;
 
 import org.embl.mobie.command.CommandConstants;
 import org.embl.mobie.lib.MoBIEHelper;
-import org.embl.mobie.lib.ThreadHelper;
 import org.embl.mobie.lib.bdv.view.SliceViewer;
 import org.scijava.command.Command;
 import org.scijava.plugin.Parameter;
@@ -60,9 +59,8 @@ public class OpenMoBIEProjectExpertCommand extends OpenMoBIEProjectBranchCommand
 	public void run()
 	{
 		SliceViewer.tileRenderOverlay = tileRenderOverlay;
-		ThreadHelper.setNumIoThreads( numThreads );
-
-		settings.gitProjectBranch( projectBranch )
+		settings.numIoThreads( numThreads )
+				.gitProjectBranch( projectBranch )
 				.imageDataLocation( MoBIEHelper.toURI( imageDataLocation ) )
 				.tableDataLocation( MoBIEHelper.toURI( tableDataLocation ) )
 				.gitTablesBranch( tableDataBranch );
@@ -44,8 +44,11 @@ import sc.fiji.bdvpg.scijava.services.SourceAndConverterBdvDisplayService;
 import sc.fiji.bdvpg.services.SourceAndConverterServices;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.DecimalFormat;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -381,4 +384,24 @@ public abstract class MoBIEHelper
 	{
 		return string != null && !string.isEmpty();
 	}
+
+	/**
+	 * @return the first 16 hex digits of the SHA-1 hash of the string,
+	 * 			e.g. to derive a file name from a path or content
+	 */
+	public static String shortHash( final String string )
+	{
+		try
+		{
+			final byte[] digest = MessageDigest.getInstance( "SHA-1" ).digest( string.getBytes( StandardCharsets.UTF_8 ) );
+			final StringBuilder hex = new StringBuilder();
+			for ( int i = 0; i < 8; i++ )
+				hex.append( String.format( "%02x", digest[ i ] ) );
+			return hex.toString();
+		}
+		catch ( NoSuchAlgorithmException e )
+		{
+			throw new RuntimeException( e );
+		}
+	}
 }
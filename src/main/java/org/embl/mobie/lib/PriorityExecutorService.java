@@ -0,0 +1,244 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A named thread pool that serves queued tasks by priority
+ * and, within the same priority, in the order of submission.
+ *
+ * Tasks that are submitted without a priority, e.g. via
+ * {@code submit( Runnable )}, have {@code Priority.Normal}.
+ *
+ * In contrast to {@code Executors.newFixedThreadPool}, the number
+ * of threads can be changed without creating a new pool, and idle
+ * threads are released after a while.
+ */
+public class PriorityExecutorService extends ThreadPoolExecutor
+{
+	public enum Priority
+	{
+		Interactive, // the user waits for the result
+		Normal,
+		Background // e.g. prefetching
+	}
+
+	private final String name;
+	private final AtomicLong sequence = new AtomicLong();
+	private final AtomicLong numCompleted = new AtomicLong();
+	private final AtomicLong totalWaitNanos = new AtomicLong();
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+
+	public static class Stats
+	{
+		public final String name;
+		public final int numThreads;
+		public final int numActive;
+		public final int queueSize;
+		public final long numCompleted;
+		public final double meanWaitMillis;
+		public final double maxWaitMillis;
+
+		public Stats( String name, int numThreads, int numActive, int queueSize, long numCompleted, double meanWaitMillis, double maxWaitMillis )
+		{
+			this.name = name;
+			this.numThreads = numThreads;
+			this.numActive = numActive;
+			this.queueSize = queueSize;
+			this.numCompleted = numCompleted;
+			this.meanWaitMillis = meanWaitMillis;
+			this.maxWaitMillis = maxWaitMillis;
+		}
+
+		@Override
+		public String toString()
+		{
+			return name + ": threads=" + numThreads + ", active=" + numActive + ", queued=" + queueSize
+					+ ", completed=" + numCompleted
+					+ ", meanWait=" + String.format( "%.1f", meanWaitMillis ) + " ms"
+					+ ", maxWait=" + String.format( "%.1f", maxWaitMillis ) + " ms";
+		}
+	}
+
+	public PriorityExecutorService( String name, int numThreads )
+	{
+		super( Math.max( 1, numThreads ), Math.max( 1, numThreads ), 60, TimeUnit.SECONDS, new PriorityBlockingQueue<>(), createThreadFactory( name ) );
+		this.name = name;
+		allowCoreThreadTimeOut( true );
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	public Future< ? > submit( Runnable task, Priority priority )
+	{
+		final Task< Object > future = new Task<>( task, null, priority );
+		execute( future );
+		return future;
+	}
+
+	public < T > Future< T > submit( Callable< T > task, Priority priority )
+	{
+		final Task< T > future = new Task<>( task, priority );
+		execute( future );
+		return future;
+	}
+
+	@Override
+	public void execute( Runnable command )
+	{
+		// the queue can only order tasks that know their priority
+		super.execute( command instanceof Task ? command : new Task<>( command, null, Priority.Normal ) );
+	}
+
+	/**
+	 * Changes the number of threads of this pool;
+	 * already submitted tasks are not affected.
+	 */
+	public synchronized void setNumThreads( int numThreads )
+	{
+		numThreads = Math.max( 1, numThreads );
+		if ( numThreads > getMaximumPoolSize() )
+		{
+			setMaximumPoolSize( numThreads );
+			setCorePoolSize( numThreads );
+		}
+		else
+		{
+			setCorePoolSize( numThreads );
+			setMaximumPoolSize( numThreads );
+		}
+	}
+
+	public int getNumThreads()
+	{
+		return getCorePoolSize();
+	}
+
+	/**
+	 * Cancels all tasks that did not start yet;
+	 * running tasks are not interrupted.
+	 *
+	 * @return the number of cancelled tasks
+	 */
+	public int cancelQueued()
+	{
+		final List< Runnable > queued = new ArrayList<>();
+		getQueue().drainTo( queued );
+		for ( Runnable runnable : queued )
+			( ( Future< ? > ) runnable ).cancel( false );
+		return queued.size();
+	}
+
+	public Stats stats()
+	{
+		final long completed = numCompleted.get();
+		final double meanWaitMillis = completed == 0 ? 0 : totalWaitNanos.get() / 1000_000.0 / completed;
+		return new Stats( name, getNumThreads(), getActiveCount(), getQueue().size(), completed, meanWaitMillis, maxWaitNanos.get() / 1000_000.0 );
+	}
+
+	@Override
+	protected < T > RunnableFuture< T > newTaskFor( Runnable runnable, T value )
+	{
+		return new Task<>( runnable, value, Priority.Normal );
+	}
+
+	@Override
+	protected < T > RunnableFuture< T > newTaskFor( Callable< T > callable )
+	{
+		return new Task<>( callable, Priority.Normal );
+	}
+
+	@Override
+	protected void beforeExecute( Thread thread, Runnable runnable )
+	{
+		super.beforeExecute( thread, runnable );
+		final long waitNanos = System.nanoTime() - ( ( Task< ? > ) runnable ).submissionNanos;
+		totalWaitNanos.addAndGet( waitNanos );
+		maxWaitNanos.accumulateAndGet( waitNanos, Math::max );
+	}
+
+	@Override
+	protected void afterExecute( Runnable runnable, Throwable throwable )
+	{
+		super.afterExecute( runnable, throwable );
+		numCompleted.incrementAndGet();
+	}
+
+	private static ThreadFactory createThreadFactory( String name )
+	{
+		final AtomicInteger threadIndex = new AtomicInteger();
+		return runnable ->
+		{
+			final Thread thread = new Thread( runnable, name + " " + threadIndex.getAndIncrement() );
+			thread.setDaemon( true );
+			return thread;
+		};
+	}
+
+	private class Task< T > extends FutureTask< T > implements Comparable< Task< ? > >
+	{
+		private final Priority priority;
+		private final long index = sequence.getAndIncrement();
+		private final long submissionNanos = System.nanoTime();
+
+		Task( Runnable runnable, T value, Priority priority )
+		{
+			super( runnable, value );
+			this.priority = priority;
+		}
+
+		Task( Callable< T > callable, Priority priority )
+		{
+			super( callable );
+			this.priority = priority;
+		}
+
+		@Override
+		public int compareTo( Task< ? > other )
+		{
+			final int byPriority = priority.compareTo( other.priority );
+			return byPriority != 0 ? byPriority : Long.compare( index, other.index );
+		}
+	}
+}
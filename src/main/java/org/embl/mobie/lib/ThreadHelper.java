@@ -29,60 +29,103 @@
 package org.embl.mobie.lib;
 
 import bdv.cache.SharedQueue;
+import org.embl.mobie.MoBIESettings;
+import org.embl.mobie.io.util.IOHelper;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.RejectedExecutionHandler;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 
 public class ThreadHelper
 {
 	static { net.imagej.patcher.LegacyInjector.preinit(); }
 
-	private static int N_IO_THREADS = Runtime.getRuntime().availableProcessors() - 1;
+	private static int N_IO_THREADS = Math.max( 1, Runtime.getRuntime().availableProcessors() - 1 );
 
-	private static final int N_THREADS = Runtime.getRuntime().availableProcessors() - 1;
+	// remote requests have a high latency, thus more of them should be in flight
+	private static int N_REMOTE_IO_THREADS = Math.max( 16, N_IO_THREADS );
 
-	public static ExecutorService ioExecutorService = Executors.newFixedThreadPool( N_IO_THREADS );
+	private static int N_THREADS = Math.max( 1, Runtime.getRuntime().availableProcessors() - 1 );
+
+	// Reading from the local file system
+	public static final PriorityExecutorService ioExecutorService = new PriorityExecutorService( "MoBIE IO", N_IO_THREADS );
+
+	// Reading from object stores and web servers
+	public static final PriorityExecutorService remoteIoExecutorService = new PriorityExecutorService( "MoBIE remote IO", N_REMOTE_IO_THREADS );
+
+	// Computations
+	public static final PriorityExecutorService executorService = new PriorityExecutorService( "MoBIE compute", N_THREADS );
+
+	// Short tasks that the user is waiting for, e.g. computing the auto contrast,
+	// such that they do not queue up behind bulk work in the other pools
+	public static final PriorityExecutorService interactiveExecutorService = new PriorityExecutorService( "MoBIE interactive", N_THREADS );
 
 	public static final int NUM_PRIORITIES = 6; // https://imagesc.zulipchat.com/#narrow/stream/327326-BigDataViewer/topic/SharedQueue
 
-	public static final SharedQueue sharedQueue = new SharedQueue( N_IO_THREADS, NUM_PRIORITIES );
-
-	public static ExecutorService executorService = Executors.newFixedThreadPool( N_THREADS );
-
-	public static ExecutorService stitchedImageExecutorService;
-	static {
-		// queue that only keep the latest requests.
-		// use case: if a user zooms into a stitched image or adds a new channel
-		// we don't want to wait until all the "old" cells are loaded that
-		// have been requested already, but rather present the user with
-		// the newly requested data.
-		// idea taken from: https://stackoverflow.com/questions/53236911/executor-thread-pool-limit-queue-size-and-dequeue-oldest
-		// fixes: https://github.com/mobie/mobie-viewer-fiji/issues/901
-		RejectedExecutionHandler handler = new ThreadPoolExecutor.DiscardOldestPolicy();
-		final int poolSize = ThreadHelper.getNumIoThreads();
-		final LinkedBlockingQueue< Runnable > workQueue = new LinkedBlockingQueue<>( 2 * poolSize );
-		stitchedImageExecutorService = new ThreadPoolExecutor(poolSize, poolSize,
-				0L, TimeUnit.MILLISECONDS, workQueue, handler );
+	// Loads the voxel data that BDV renders
+	public static volatile SharedQueue sharedQueue = new SharedQueue( N_IO_THREADS, NUM_PRIORITIES );
+
+	// Opens the tiles of stitched images, coarse resolutions and tiles
+	// close to the viewer centre first; uses as many threads as the IO pool.
+	// Tiles that are not requested anymore by the viewer,
+	// e.g. because the user zoomed or panned, are dropped.
+	// see: https://github.com/mobie/mobie-viewer-fiji/issues/901
+	public static final TileOpeningScheduler tileOpeningScheduler = new TileOpeningScheduler( getNumIoThreads(), 2000 );
+
+	/**
+	 * Applies the thread numbers that are specified in the settings.
+	 */
+	public static void configure( MoBIESettings settings )
+	{
+		final Integer numIoThreads = settings.values.getNumIoThreads();
+		if ( numIoThreads != null )
+			setNumIoThreads( numIoThreads );
+
+		final Integer numRemoteIoThreads = settings.values.getNumRemoteIoThreads();
+		if ( numRemoteIoThreads != null )
+			setNumRemoteIoThreads( numRemoteIoThreads );
+
+		final Integer numThreads = settings.values.getNumThreads();
+		if ( numThreads != null )
+			setNumThreads( numThreads );
 	}
 
+	/**
+	 * Cancels all IO tasks that did not start yet.
+	 */
 	public static void resetIOThreads()
 	{
-		ioExecutorService.shutdownNow();
-		ioExecutorService = Executors.newFixedThreadPool( N_IO_THREADS );
+		ioExecutorService.cancelQueued();
+		remoteIoExecutorService.cancelQueued();
 	}
 
-	public static void setNumIoThreads( int numIoThreads )
+	public static synchronized void setNumIoThreads( int numIoThreads )
 	{
+		numIoThreads = Math.max( 1, numIoThreads );
+		if ( numIoThreads == N_IO_THREADS ) return;
+
 		N_IO_THREADS = numIoThreads;
-		ioExecutorService = Executors.newFixedThreadPool( N_IO_THREADS );
+		ioExecutorService.setNumThreads( N_IO_THREADS );
+		tileOpeningScheduler.setNumThreads( N_IO_THREADS );
+
+		// A SharedQueue cannot be resized; images that
+		// are opened from now on will use the new one.
+		sharedQueue = new SharedQueue( N_IO_THREADS, NUM_PRIORITIES );
+	}
+
+	public static synchronized void setNumRemoteIoThreads( int numRemoteIoThreads )
+	{
+		N_REMOTE_IO_THREADS = Math.max( 1, numRemoteIoThreads );
+		remoteIoExecutorService.setNumThreads( N_REMOTE_IO_THREADS );
+	}
+
+	public static synchronized void setNumThreads( int numThreads )
+	{
+		N_THREADS = Math.max( 1, numThreads );
+		executorService.setNumThreads( N_THREADS );
+		interactiveExecutorService.setNumThreads( N_THREADS );
 	}
 
 	public static int getNumIoThreads()
@@ -90,11 +133,39 @@ public class ThreadHelper
 		return N_IO_THREADS;
 	}
 
+	public static int getNumRemoteIoThreads()
+	{
+		return N_REMOTE_IO_THREADS;
+	}
+
 	public static int getNumThreads()
 	{
 		return N_THREADS;
 	}
 
+	/**
+	 * @return the pool for reading from the given location,
+	 * 			depending on whether it is remote or local
+	 */
+	public static PriorityExecutorService getIoExecutorService( String uri )
+	{
+		if ( uri == null ) return ioExecutorService;
+
+		final IOHelper.ResourceType type = IOHelper.getType( uri );
+		if ( type.equals( IOHelper.ResourceType.S3 ) || type.equals( IOHelper.ResourceType.HTTP ) )
+			return remoteIoExecutorService;
+
+		return ioExecutorService;
+	}
+
+	public static List< PriorityExecutorService.Stats > stats()
+	{
+		final List< PriorityExecutorService.Stats > stats = new ArrayList<>();
+		for ( PriorityExecutorService executor : Arrays.asList( ioExecutorService, remoteIoExecutorService, executorService, interactiveExecutorService ) )
+			stats.add( executor.stats() );
+		return stats;
+	}
+
 	public static void waitUntilFinished( List< Future< ? > > futures )
 	{
 		for ( Future< ? > future : futures )
@@ -0,0 +1,322 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opens image tiles (e.g. of a {@code StitchedImage}) in the background.
+ *
+ * In contrast to a plain executor, the requests are not served in the
+ * order of submission: coarser resolution levels are opened first and,
+ * within a level, the tiles closest to the current focus (typically
+ * the centre of the viewer window) are opened first.
+ *
+ * Requesting a tile that is already queued only refreshes the request.
+ * Renderers re-request the tiles that they still need on every repaint,
+ * thus a queued request that has not been refreshed for
+ * {@code expiryMillis} is dropped, because the tile most likely
+ * left the viewport.
+ */
+public class TileOpeningScheduler
+{
+	private final List< Request > queue = new ArrayList<>();
+	private final long expiryNanos;
+	private volatile double[] focus;
+
+	// guarded by the lock on the queue
+	private int numThreads;
+	private int numWorkers;
+	private int workerIndex;
+
+	private long numOpened;
+	private long numExpired;
+	private long totalLatencyNanos;
+	private long maxLatencyNanos;
+
+	/**
+	 * The request to open one tile.
+	 * Create one instance per tile and re-use it for all requests of that tile.
+	 */
+	public static class Request
+	{
+		private final Runnable opener;
+		private final int level;
+		private final double[] position = new double[ 3 ];
+		private long lastRequestNanos;
+		private long queuedNanos;
+		private boolean isQueued;
+
+		/**
+		 * @param opener
+		 * 				opens the tile
+		 * @param level
+		 * 				the resolution level of the tile; higher levels are coarser
+		 */
+		public Request( Runnable opener, int level )
+		{
+			this.opener = opener;
+			this.level = level;
+		}
+	}
+
+	public static class Stats
+	{
+		public final int queueSize;
+		public final long numOpened;
+		public final long numExpired;
+		public final double meanLatencyMillis;
+		public final double maxLatencyMillis;
+
+		public Stats( int queueSize, long numOpened, long numExpired, double meanLatencyMillis, double maxLatencyMillis )
+		{
+			this.queueSize = queueSize;
+			this.numOpened = numOpened;
+			this.numExpired = numExpired;
+			this.meanLatencyMillis = meanLatencyMillis;
+			this.maxLatencyMillis = maxLatencyMillis;
+		}
+
+		@Override
+		public String toString()
+		{
+			return "queued=" + queueSize + ", opened=" + numOpened + ", expired=" + numExpired
+					+ ", meanLatency=" + String.format( "%.1f", meanLatencyMillis ) + " ms"
+					+ ", maxLatency=" + String.format( "%.1f", maxLatencyMillis ) + " ms";
+		}
+	}
+
+	public TileOpeningScheduler( int numThreads, long expiryMillis )
+	{
+		this.expiryNanos = expiryMillis * 1000_000L;
+		setNumThreads( numThreads );
+	}
+
+	/**
+	 * Changes the number of threads that open tiles.
+	 * Surplus threads stop once they finished opening their current tile.
+	 */
+	public void setNumThreads( int numThreads )
+	{
+		synchronized ( queue )
+		{
+			this.numThreads = Math.max( 1, numThreads );
+
+			while ( numWorkers < this.numThreads )
+			{
+				final Thread thread = new Thread( this::work, "MoBIE tile opener " + workerIndex++ );
+				thread.setDaemon( true );
+				thread.start();
+				numWorkers++;
+			}
+
+			// wakes up idle surplus threads
+			queue.notifyAll();
+		}
+	}
+
+	public int getNumThreads()
+	{
+		synchronized ( queue )
+		{
+			return numThreads;
+		}
+	}
+
+	/**
+	 * Queues the request, or refreshes it if it is queued already.
+	 *
+	 * @param request
+	 * 				the request of the tile
+	 * @param position
+	 * 				the global position of the tile's centre
+	 */
+	public void request( Request request, double[] position )
+	{
+		synchronized ( queue )
+		{
+			final long now = System.nanoTime();
+			request.lastRequestNanos = now;
+			System.arraycopy( position, 0, request.position, 0, Math.min( position.length, 3 ) );
+
+			if ( request.isQueued ) return;
+
+			request.isQueued = true;
+			request.queuedNanos = now;
+			queue.add( request );
+			queue.notify();
+		}
+	}
+
+	/**
+	 * @param position
+	 * 				the global position around which the tiles should be opened first
+	 */
+	public void setFocus( double[] position )
+	{
+		focus = position;
+	}
+
+	public int getQueueSize()
+	{
+		synchronized ( queue )
+		{
+			return queue.size();
+		}
+	}
+
+	public Stats stats()
+	{
+		synchronized ( queue )
+		{
+			final double meanLatency = numOpened == 0 ? 0 : totalLatencyNanos / 1000_000.0 / numOpened;
+			return new Stats( queue.size(), numOpened, numExpired, meanLatency, maxLatencyNanos / 1000_000.0 );
+		}
+	}
+
+	private void work()
+	{
+		while ( true )
+		{
+			final Request request;
+			try
+			{
+				request = take();
+			}
+			catch ( InterruptedException e )
+			{
+				synchronized ( queue )
+				{
+					numWorkers--;
+				}
+				return;
+			}
+
+			if ( request == null ) return; // surplus thread
+
+			try
+			{
+				request.opener.run();
+			}
+			catch ( Exception e )
+			{
+				e.printStackTrace();
+			}
+
+			synchronized ( queue )
+			{
+				final long latency = System.nanoTime() - request.queuedNanos;
+				numOpened++;
+				totalLatencyNanos += latency;
+				maxLatencyNanos = Math.max( maxLatencyNanos, latency );
+			}
+		}
+	}
+
+	/**
+	 * @return the next request, or null if the calling thread should stop
+	 */
+	private Request take() throws InterruptedException
+	{
+		synchronized ( queue )
+		{
+			while ( true )
+			{
+				if ( numWorkers > numThreads )
+				{
+					numWorkers--;
+					return null;
+				}
+
+				final Request request = removeBest();
+				if ( request != null ) return request;
+				queue.wait();
+			}
+		}
+	}
+
+	// must be called while holding the lock on the queue
+	private Request removeBest()
+	{
+		final long now = System.nanoTime();
+		final double[] focus = this.focus;
+
+		int bestIndex = -1;
+		double bestDistance = Double.MAX_VALUE;
+		for ( int i = queue.size() - 1; i >= 0; i-- )
+		{
+			final Request request = queue.get( i );
+
+			if ( now - request.lastRequestNanos > expiryNanos )
+			{
+				remove( i );
+				request.isQueued = false;
+				numExpired++;
+				if ( bestIndex == queue.size() ) bestIndex = i; // was moved to i by remove( i )
+				continue;
+			}
+
+			final double distance = distance( request.position, focus );
+			if ( bestIndex < 0
+					|| request.level > queue.get( bestIndex ).level
+					|| request.level == queue.get( bestIndex ).level && distance < bestDistance )
+			{
+				bestIndex = i;
+				bestDistance = distance;
+			}
+		}
+
+		if ( bestIndex < 0 ) return null;
+
+		final Request best = queue.get( bestIndex );
+		remove( bestIndex );
+		best.isQueued = false;
+		return best;
+	}
+
+	// O(1) removal, the order of the queue does not matter
+	private void remove( int index )
+	{
+		final int last = queue.size() - 1;
+		queue.set( index, queue.get( last ) );
+		queue.remove( last );
+	}
+
+	private static double distance( double[] position, double[] focus )
+	{
+		if ( focus == null ) return 0;
+
+		double squaredDistance = 0;
+		for ( int d = 0; d < Math.min( position.length, focus.length ); d++ )
+			squaredDistance += ( position[ d ] - focus[ d ] ) * ( position[ d ] - focus[ d ] );
+
+		return squaredDistance;
+	}
+}
@@ -28,11 +28,12 @@
  */
 package org.embl.mobie.lib.annotation;
 
+import gnu.trove.map.hash.TLongObjectHashMap;
 import org.embl.mobie.lib.table.AnnData;
 
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class DefaultAnnotationAdapter< A extends Annotation > implements AnnotationAdapter< A >
@@ -41,7 +42,9 @@ public class DefaultAnnotationAdapter< A extends Annotation > implements Annotat
 	private final AnnData< A > annData;
 	private final String source;
 	private final A annotation;
-	private Map< String, A > stlToAnnotation; // source, timepoint, label
+	// source => packed ( timepoint, label ) => annotation
+	// the maps are only read after init(), thus no locking is needed
+	private volatile Map< String, TLongObjectHashMap< A > > sourceToAnnotations;
 
 	public DefaultAnnotationAdapter( AnnData< A > annData )
 	{
@@ -75,7 +78,7 @@ public class DefaultAnnotationAdapter< A extends Annotation > implements Annotat
 	// {@code AnnotatedLabelSource}
 	// to the corresponding annotation.
 	@Override
-	public synchronized A getAnnotation( String source, final int timePoint, final int label )
+	public A getAnnotation( String source, final int timePoint, final int label )
 	{
 		if ( label == 0 )
 		{
@@ -91,8 +94,8 @@ public class DefaultAnnotationAdapter< A extends Annotation > implements Annotat
 			source = this.source;
 		}
 
-		final String stl = createKey( source, timePoint, label );
-		final A annotation = stlToAnnotation.get( stl );
+		final TLongObjectHashMap< A > tlToAnnotation = sourceToAnnotations.get( source );
+		final A annotation = tlToAnnotation == null ? null : tlToAnnotation.get( createKey( timePoint, label ) );
 
 		if ( annotation == null )
 		{
@@ -112,17 +115,20 @@ public class DefaultAnnotationAdapter< A extends Annotation > implements Annotat
 	@Override
 	public void init()
 	{
-		stlToAnnotation = new ConcurrentHashMap<>();
+		final Map< String, TLongObjectHashMap< A > > sourceToAnnotations = new HashMap<>();
 		final Iterator< A > iterator = annData.getTable().annotations().iterator();
 		while( iterator.hasNext() )
 		{
 			A annotation = iterator.next();
-			stlToAnnotation.put( createKey( annotation.source(), annotation.timePoint(), annotation.label() ), annotation );
+			sourceToAnnotations
+					.computeIfAbsent( annotation.source(), s -> new TLongObjectHashMap<>() )
+					.put( createKey( annotation.timePoint(), annotation.label() ), annotation );
 		}
+		this.sourceToAnnotations = sourceToAnnotations;
 	}
 
-	private String createKey( String source, int timePoint, int label )
+	private static long createKey( int timePoint, int label )
 	{
-		return source + ";" + timePoint + ";" + label;
+		return ( ( long ) timePoint << 32 ) | ( label & 0xFFFFFFFFL );
 	}
 }
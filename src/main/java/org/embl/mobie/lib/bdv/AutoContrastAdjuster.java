@@ -1,38 +1,263 @@
 package org.embl.mobie.lib.bdv;
 
 import bdv.util.BdvHandle;
+import bdv.viewer.Source;
 import bdv.viewer.SourceAndConverter;
 import ij.IJ;
 import ij.ImagePlus;
 import ij.gui.Roi;
+import net.imglib2.Cursor;
+import net.imglib2.FinalInterval;
+import net.imglib2.FinalRealInterval;
+import net.imglib2.Interval;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.realtransform.AffineTransform3D;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.util.Intervals;
+import net.imglib2.view.Views;
+import org.embl.mobie.lib.ThreadHelper;
+import org.embl.mobie.lib.cache.BoundedCache;
 import sc.fiji.bdvpg.bdv.BdvHandleHelper;
+import sc.fiji.bdvpg.services.SourceAndConverterServices;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.Future;
+
+import static sc.fiji.bdvpg.bdv.BdvHandleHelper.getLevel;
 
 public class AutoContrastAdjuster
 {
-    private final BdvHandle bdvHandle;
-    private final SourceAndConverter< ? > sourceAndConverter;
-
-
-    public AutoContrastAdjuster( BdvHandle bdvHandle, SourceAndConverter< ? > sourceAndConverter )
-    {
-        this.bdvHandle = bdvHandle;
-        this.sourceAndConverter = sourceAndConverter;
-    }
-
-    public double[] computeMinMax()
-    {
-        double viewerVoxelSpacing = BdvHandleHelper.getViewerVoxelSpacing( bdvHandle );
-        ScreenShotMaker screenShotMaker = new ScreenShotMaker( bdvHandle, "" );
-        screenShotMaker.run( Collections.singletonList( sourceAndConverter ), 4 * viewerVoxelSpacing );
-        ImagePlus imagePlus = screenShotMaker.getCompositeImagePlus();
-        Roi[] rois = screenShotMaker.getMasks();
-        if ( rois != null && rois.length > 0 )
-            imagePlus.setRoi( rois[ 0 ] );
-        IJ.run( imagePlus, "Enhance Contrast", "saturated=0.35" );
-        // imagePlus.show();
-        double[] minMax = { imagePlus.getDisplayRangeMin(), imagePlus.getDisplayRangeMax() };
-        return minMax;
-    }
+	private static final double SATURATED_PERCENT = 0.35;
+
+	// the histograms are computed in chunks of this size (in voxels),
+	// such that they can be cached and reused when the view changes
+	private static final long[] CHUNK_SIZE = { 128, 128, 1 };
+	private static final int NUM_CHUNK_BINS = 1024;
+	private static final int NUM_BINS = 4096;
+
+	// use a coarser resolution level if the visible region has more voxels
+	private static final long MAX_NUM_VOXELS = 4 * 1024 * 1024;
+
+	private static final BoundedCache< ChunkKey, ValueHistogram > chunkHistograms = new BoundedCache<>(
+			100000,
+			Runtime.getRuntime().maxMemory() / 50,
+			( key, histogram ) -> 8L * histogram.getNumBins() + 64,
+			( key, histogram ) -> {} );
+
+	// the chunk keys refer to the sources by these tokens,
+	// such that the cache does not keep closed sources alive
+	private static final Map< Source< ? >, Object > sourceTokens = Collections.synchronizedMap( new WeakHashMap<>() );
+
+	private final BdvHandle bdvHandle;
+	private final SourceAndConverter< ? > sourceAndConverter;
+
+
+	public AutoContrastAdjuster( BdvHandle bdvHandle, SourceAndConverter< ? > sourceAndConverter )
+	{
+		this.bdvHandle = bdvHandle;
+		this.sourceAndConverter = sourceAndConverter;
+	}
+
+	/**
+	 * Removes the cached histograms of the source, e.g. when it is closed.
+	 */
+	public static void invalidate( Source< ? > source )
+	{
+		final Object token = sourceTokens.remove( source );
+		if ( token != null )
+			chunkHistograms.invalidateIf( key -> key.sourceToken == token );
+	}
+
+	public double[] computeMinMax()
+	{
+		final Source< ? > source = sourceAndConverter.getSpimSource();
+
+		if ( ! ( source.getType() instanceof RealType ) )
+			return computeMinMaxFromScreenShot();
+
+		final ValueHistogram histogram = computeHistogram( ( Source< ? extends RealType< ? > > ) source );
+		final double[] minMax = histogram.saturatedLimits( SATURATED_PERCENT );
+		if ( minMax == null )
+		{
+			// nothing of the image is visible
+			return BdvHandleHelper.getDisplayRange( SourceAndConverterServices.getSourceAndConverterService().getConverterSetup( sourceAndConverter ) );
+		}
+
+		return minMax;
+	}
+
+	private ValueHistogram computeHistogram( Source< ? extends RealType< ? > > source )
+	{
+		final int t = bdvHandle.getViewerPanel().state().getCurrentTimepoint();
+		final double viewerVoxelSpacing = BdvHandleHelper.getViewerVoxelSpacing( bdvHandle );
+
+		int level = getLevel( source, 4 * viewerVoxelSpacing );
+		Interval visibleVoxels = getVisibleVoxels( source, t, level );
+		while ( visibleVoxels != null
+				&& Intervals.numElements( visibleVoxels ) > MAX_NUM_VOXELS
+				&& level < source.getNumMipmapLevels() - 1 )
+		{
+			level++;
+			visibleVoxels = getVisibleVoxels( source, t, level );
+		}
+
+		if ( visibleVoxels == null )
+			return ValueHistogram.merge( Collections.emptyList(), NUM_BINS );
+
+		final RandomAccessibleInterval< ? extends RealType< ? > > rai = source.getSource( t, level );
+		final List< ChunkKey > chunkKeys = getChunkKeys( source, t, level, rai, visibleVoxels );
+
+		final List< ValueHistogram > histograms = Collections.synchronizedList( new ArrayList<>() );
+		final ArrayList< Future< ? > > futures = ThreadHelper.getFutures();
+		for ( ChunkKey key : chunkKeys )
+		{
+			final ValueHistogram cached = chunkHistograms.get( key );
+			if ( cached != null )
+			{
+				histograms.add( cached );
+				continue;
+			}
+
+			futures.add( ThreadHelper.interactiveExecutorService.submit( () ->
+			{
+				final ValueHistogram histogram = computeChunkHistogram( rai, key.chunkInterval( rai ) );
+				chunkHistograms.put( key, histogram );
+				histograms.add( histogram );
+			} ) );
+		}
+		ThreadHelper.waitUntilFinished( futures );
+
+		return ValueHistogram.merge( histograms, NUM_BINS );
+	}
+
+	private static ValueHistogram computeChunkHistogram( RandomAccessibleInterval< ? extends RealType< ? > > rai, Interval chunk )
+	{
+		final float[] values = new float[ ( int ) Intervals.numElements( chunk ) ];
+		final Cursor< ? extends RealType< ? > > cursor = Views.flatIterable( Views.interval( rai, chunk ) ).cursor();
+		int i = 0;
+		while ( cursor.hasNext() )
+			values[ i++ ] = cursor.next().getRealFloat();
+
+		return ValueHistogram.of( values, i, NUM_CHUNK_BINS );
+	}
+
+	/**
+	 * @return the voxels of the source at the given level
+	 * 			that are visible in the current viewer plane,
+	 * 			or null if none are visible
+	 */
+	private Interval getVisibleVoxels( Source< ? > source, int t, int level )
+	{
+		final AffineTransform3D viewerToSource = new AffineTransform3D();
+		bdvHandle.getViewerPanel().state().getViewerTransform( viewerToSource );
+		final AffineTransform3D sourceTransform = new AffineTransform3D();
+		source.getSourceTransform( t, level, sourceTransform );
+		viewerToSource.concatenate( sourceTransform );
+		final AffineTransform3D inverse = viewerToSource.inverse();
+
+		final int width = bdvHandle.getViewerPanel().getWidth();
+		final int height = bdvHandle.getViewerPanel().getHeight();
+		final FinalRealInterval viewerCanvas = new FinalRealInterval(
+				new double[]{ 0, 0, 0 },
+				new double[]{ width, height, 0 } );
+
+		final Interval voxels = Intervals.smallestContainingInterval( inverse.estimateBounds( viewerCanvas ) );
+		final FinalInterval visibleVoxels = Intervals.intersect( source.getSource( t, level ), voxels );
+		if ( Intervals.isEmpty( visibleVoxels ) )
+			return null;
+
+		return visibleVoxels;
+	}
+
+	private static List< ChunkKey > getChunkKeys( Source< ? > source, int t, int level, Interval rai, Interval visibleVoxels )
+	{
+		// the chunk grid is anchored at the image origin,
+		// such that the chunks do not depend on the current view
+		final long[] minChunk = new long[ 3 ];
+		final long[] maxChunk = new long[ 3 ];
+		for ( int d = 0; d < 3; d++ )
+		{
+			minChunk[ d ] = ( visibleVoxels.min( d ) - rai.min( d ) ) / CHUNK_SIZE[ d ];
+			maxChunk[ d ] = ( visibleVoxels.max( d ) - rai.min( d ) ) / CHUNK_SIZE[ d ];
+		}
+
+		final Object sourceToken = sourceTokens.computeIfAbsent( source, s -> new Object() );
+		final ArrayList< ChunkKey > keys = new ArrayList<>();
+		for ( long z = minChunk[ 2 ]; z <= maxChunk[ 2 ]; z++ )
+			for ( long y = minChunk[ 1 ]; y <= maxChunk[ 1 ]; y++ )
+				for ( long x = minChunk[ 0 ]; x <= maxChunk[ 0 ]; x++ )
+					keys.add( new ChunkKey( sourceToken, t, level, new long[]{ x, y, z } ) );
+
+		return keys;
+	}
+
+	private double[] computeMinMaxFromScreenShot()
+	{
+		double viewerVoxelSpacing = BdvHandleHelper.getViewerVoxelSpacing( bdvHandle );
+		ScreenShotMaker screenShotMaker = new ScreenShotMaker( bdvHandle, "" );
+		screenShotMaker.run( Collections.singletonList( sourceAndConverter ), 4 * viewerVoxelSpacing );
+		ImagePlus imagePlus = screenShotMaker.getCompositeImagePlus();
+		if ( imagePlus == null )
+			return BdvHandleHelper.getDisplayRange( SourceAndConverterServices.getSourceAndConverterService().getConverterSetup( sourceAndConverter ) );
+
+		Roi[] rois = screenShotMaker.getMasks();
+		if ( rois != null && rois.length > 0 )
+			imagePlus.setRoi( rois[ 0 ] );
+		IJ.run( imagePlus, "Enhance Contrast", "saturated=" + SATURATED_PERCENT );
+		double[] minMax = { imagePlus.getDisplayRangeMin(), imagePlus.getDisplayRangeMax() };
+		return minMax;
+	}
+
+	private static class ChunkKey
+	{
+		private final Object sourceToken;
+		private final int t;
+		private final int level;
+		private final long[] chunk;
+
+		ChunkKey( Object sourceToken, int t, int level, long[] chunk )
+		{
+			this.sourceToken = sourceToken;
+			this.t = t;
+			this.level = level;
+			this.chunk = chunk;
+		}
+
+		Interval chunkInterval( Interval rai )
+		{
+			final long[] min = new long[ 3 ];
+			final long[] max = new long[ 3 ];
+			for ( int d = 0; d < 3; d++ )
+			{
+				min[ d ] = rai.min( d ) + chunk[ d ] * CHUNK_SIZE[ d ];
+				max[ d ] = Math.min( rai.max( d ), min[ d ] + CHUNK_SIZE[ d ] - 1 );
+			}
+			return new FinalInterval( min, max );
+		}
+
+		@Override
+		public boolean equals( Object o )
+		{
+			if ( this == o ) return true;
+			if ( ! ( o instanceof ChunkKey ) ) return false;
+			final ChunkKey that = ( ChunkKey ) o;
+			return sourceToken == that.sourceToken
+					&& t == that.t
+					&& level == that.level
+					&& chunk[ 0 ] == that.chunk[ 0 ]
+					&& chunk[ 1 ] == that.chunk[ 1 ]
+					&& chunk[ 2 ] == that.chunk[ 2 ];
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash( System.identityHashCode( sourceToken ), t, level, chunk[ 0 ], chunk[ 1 ], chunk[ 2 ] );
+		}
+	}
 }
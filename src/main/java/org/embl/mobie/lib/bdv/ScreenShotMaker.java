@@ -32,7 +32,6 @@ import bdv.util.BdvHandle;
 import bdv.viewer.Interpolation;
 import bdv.viewer.Source;
 import bdv.viewer.SourceAndConverter;
-import edu.mines.jtk.util.AtomicDouble;
 import ij.CompositeImage;
 import ij.IJ;
 import ij.ImagePlus;
@@ -44,32 +43,47 @@ import ij.process.LUT;
 import net.imglib2.*;
 import net.imglib2.Cursor;
 import net.imglib2.roi.geom.real.WritableBox;
+import net.imglib2.cache.img.DiskCachedCellImgFactory;
+import net.imglib2.cache.img.DiskCachedCellImgOptions;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgFactory;
+import net.imglib2.type.NativeType;
 import net.imglib2.type.Type;
 import net.imglib2.type.logic.BitType;
 import net.imglib2.type.numeric.real.FloatType;
 import org.embl.mobie.lib.MoBIEHelper;
+import org.embl.mobie.lib.PriorityExecutorService;
 import org.embl.mobie.lib.ThreadHelper;
 import org.embl.mobie.lib.annotation.Annotation;
 import org.embl.mobie.lib.bdv.blend.AccumulateAlphaBlendingProjectorARGB;
 import net.imglib2.algorithm.util.Grids;
 import net.imglib2.converter.Converter;
-import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.converter.Converters;
 import net.imglib2.img.display.imagej.ImageJFunctions;
 import net.imglib2.realtransform.AffineTransform3D;
 import net.imglib2.type.numeric.ARGBType;
 import net.imglib2.type.numeric.RealType;
-import net.imglib2.view.IntervalView;
 import net.imglib2.view.Views;
 import org.embl.mobie.lib.source.AnnotatedLabelSource;
 import org.embl.mobie.lib.source.AnnotationType;
 import org.embl.mobie.lib.source.SourceHelper;
+import org.janelia.saalfeldlab.n5.GzipCompression;
+import org.janelia.saalfeldlab.n5.imglib2.N5Utils;
+import org.janelia.saalfeldlab.n5.zarr.N5ZarrWriter;
 import sc.fiji.bdvpg.bdv.BdvHandleHelper;
 import sc.fiji.bdvpg.services.SourceAndConverterServices;
 
 import java.awt.*;
+import java.io.File;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -86,6 +100,17 @@ public class ScreenShotMaker
     private CompositeImage compositeImagePlus = null;
     private long[] screenshotDimensions = new long[2];
     private AffineTransform3D canvasToGlobalTransform;
+    private boolean useDiskCache;
+    private ArrayList< RandomAccessibleInterval< FloatType > > floatCaptures;
+    private ArrayList< RandomAccessibleInterval< BitType > > maskCaptures;
+    private ArrayList< RandomAccessibleInterval< ARGBType > > argbCaptures;
+    private RandomAccessibleInterval< ARGBType > argbProjection;
+    private File outputDirectory = new File( System.getProperty( "user.home" ), "MoBIE-screenshots" );
+    private File outputFile = null;
+
+    // the capture is computed in blocks of this size,
+    // which are also the cells of the disk cache
+    private static final int BLOCK_SIZE = 512;
 
     public ScreenShotMaker( BdvHandle bdvHandle, String voxelUnit ) {
         this.bdvHandle = bdvHandle;
@@ -102,11 +127,37 @@ public class ScreenShotMaker
         return compositeImagePlus;
     }
 
+    /**
+     * @return the data masks of the images;
+     * 			this is empty for disk cached captures
+     */
     public Roi[] getMasks()
     {
+        if ( compositeImagePlus == null || compositeImagePlus.getOverlay() == null )
+            return new Roi[ 0 ];
+
         return compositeImagePlus.getOverlay().toArray();
     }
 
+    /**
+     * @return the OME-Zarr to which a capture that is too large
+     * 			for ImageJ has been saved, or null
+     */
+    public File getOutputFile()
+    {
+        return outputFile;
+    }
+
+    /**
+     * @param outputDirectory
+     * 			the directory to which captures that are too large
+     * 			for ImageJ are saved as OME-Zarr
+     */
+    public void setOutputDirectory( File outputDirectory )
+    {
+        this.outputDirectory = outputDirectory;
+    }
+
     public void run( Double targetSamplingInXY )
     {
         List< SourceAndConverter< ? > > sacs = MoBIEHelper.getVisibleSacsInCurrentView( bdvHandle );
@@ -137,31 +188,30 @@ public class ScreenShotMaker
 
         IJ.log( "Fetching data from " + sacs.size() + " image(s)..."  );
 
-        final ArrayList< RandomAccessibleInterval< FloatType > > floatCaptures = new ArrayList<>();
-        final ArrayList< RandomAccessibleInterval< BitType > > maskCaptures = new ArrayList<>();
-        final ArrayList< RandomAccessibleInterval< ARGBType > > argbCaptures = new ArrayList<>();
+        rgbImagePlus = null;
+        compositeImagePlus = null;
+        outputFile = null;
+        floatCaptures = new ArrayList<>();
+        maskCaptures = new ArrayList<>();
+        argbCaptures = new ArrayList<>();
 
         final ArrayList< double[] > displayRanges = new ArrayList<>();
 
         screenshotDimensions = getCaptureImageSizeInPixels( bdvHandle, targetVoxelSpacing );
-        final long numPixels = screenshotDimensions[ 0 ] * screenshotDimensions[ 1 ];
-        long pixelsPerThread = numPixels / ThreadHelper.getNumIoThreads();
-        int dimensionsPerThread = (int) Math.sqrt( pixelsPerThread );
-        int[] blockSize = { dimensionsPerThread, dimensionsPerThread };
-        List< Interval > intervals = Grids.collectAllContainedIntervals(
+        useDiskCache = needsDiskCache( screenshotDimensions, sacs.size() );
+        if ( useDiskCache )
+            IJ.log( "Capturing " + Arrays.toString( screenshotDimensions ) + " pixels into a disk cache..." );
+
+        List< Interval > blocks = Grids.collectAllContainedIntervals(
                 screenshotDimensions,
-                blockSize );
+                new int[]{ BLOCK_SIZE, BLOCK_SIZE } );
 
-        // IJ.log( ThreadHelper.getNumIoThreads() + " threads working on blocks of " + Arrays.toString( blockSize ) );
         final long currentTimeMillis = System.currentTimeMillis();
         for ( SourceAndConverter< ?  > sac : sacs )
         {
-            final RandomAccessibleInterval< FloatType > floatCapture
-                    = ArrayImgs.floats( screenshotDimensions[ 0 ], screenshotDimensions[ 1 ] );
-            final RandomAccessibleInterval< BitType > maskCapture
-                    = ArrayImgs.bits( screenshotDimensions[ 0 ], screenshotDimensions[ 1 ] );
-            final RandomAccessibleInterval< ARGBType > argbCapture
-                    = ArrayImgs.argbs( screenshotDimensions[ 0 ], screenshotDimensions[ 1 ]  );
+            final RandomAccessibleInterval< FloatType > floatCapture = createCapture( new FloatType() );
+            final RandomAccessibleInterval< BitType > maskCapture = createCapture( new BitType() );
+            final RandomAccessibleInterval< ARGBType > argbCapture = createCapture( new ARGBType() );
 
             Source< ? > source = sac.getSpimSource();
             final Converter< ?, ? > converter = sac.getConverter();
@@ -176,78 +226,61 @@ public class ScreenShotMaker
 
             boolean interpolate = ! ( source.getType() instanceof AnnotationType );
 
-            final AtomicInteger pixelCount = new AtomicInteger();
-            final AtomicDouble fractionDone = new AtomicDouble( 0.2 );
+            final AtomicInteger numBlocksDone = new AtomicInteger();
             ArrayList< Future< ? > > futures = ThreadHelper.getFutures();
-            for ( Interval interval : intervals )
+            for ( Interval block : blocks )
             {
                 futures.add
                 (
+                    // the user waits for the screenshot, thus the blocks
+                    // are read ahead of other queued IO tasks
                     ThreadHelper.ioExecutorService.submit( () ->
                     {
                         RealRandomAccess< ? extends Type< ? > > sourceAccess = getRealRandomAccess( ( Source< Type< ? > > ) source, currentTimepoint, level, interpolate );
                         WritableBox sourceMask = SourceHelper.estimateDataMask( source, currentTimepoint, level, true );
-                        //RandomAccessibleInterval< ? > sourceInterval = source.getSource( currentTimepoint, level );
-
-                        // to collect raw data
-                        final IntervalView< FloatType > floatCrop = Views.interval( floatCapture, interval );
-                        final Cursor< FloatType > floatCursor = Views.iterable( floatCrop ).localizingCursor();
-                        final RandomAccess< FloatType > floatAccess = floatCrop.randomAccess();
 
-                        // to collect masks
-                        final RandomAccess< BitType > maskAccess = Views.interval( maskCapture, interval ).randomAccess();
-
-                        // to collect colored data
-                        final RandomAccess< ARGBType > argbAccess = Views.interval( argbCapture, interval ).randomAccess();
+                        final RandomAccess< FloatType > floatAccess = floatCapture.randomAccess( block );
+                        final RandomAccess< BitType > maskAccess = maskCapture.randomAccess( block );
+                        final RandomAccess< ARGBType > argbAccess = argbCapture.randomAccess( block );
 
                         final double[] canvasPosition = new double[ 3 ];
                         final double[] sourceRealPosition = new double[ 3 ];
-
+                        final RealPoint sourcePoint = new RealPoint( 3 );
                         final ARGBType argbType = new ARGBType();
 
                         // iterate through the target image in pixel units
-                        while ( floatCursor.hasNext() )
+                        for ( long y = block.min( 1 ); y <= block.max( 1 ); y++ )
                         {
-                            // set the positions
-                            floatCursor.fwd();
-                            floatCursor.localize( canvasPosition );
-                            floatAccess.setPosition( floatCursor );
-                            maskAccess.setPosition( floatCursor );
-                            argbAccess.setPosition( floatCursor );
-                            targetCanvasToSourceTransform.apply( canvasPosition, sourceRealPosition );
-                            sourceAccess.setPosition( sourceRealPosition );
-
-                            // set the pixel and mask values depending on whether the
-                            // pixel is within the source data
-                            if ( sourceMask.test( new RealPoint( sourceRealPosition ) ) )
+                            canvasPosition[ 1 ] = y;
+                            for ( long x = block.min( 0 ); x <= block.max( 0 ); x++ )
                             {
-                                maskAccess.get().set( true );
-                                setFloatPixelValue( sourceAccess, floatAccess );
-                                setArgbPixelValue( converter, sourceAccess, argbAccess, argbType );
-                            }
-                            else
-                            {
-                                maskAccess.get().set( false );
-                            }
-
-                            // log progress
-                            pixelCount.incrementAndGet();
-                            final double currentFractionDone = 1.0 * pixelCount.get() / numPixels;
-                            if ( currentFractionDone >= fractionDone.get() )
-                            {
-                                synchronized ( fractionDone )
+                                canvasPosition[ 0 ] = x;
+                                targetCanvasToSourceTransform.apply( canvasPosition, sourceRealPosition );
+                                sourcePoint.setPosition( sourceRealPosition );
+
+                                floatAccess.setPosition( x, 0 );
+                                floatAccess.setPosition( y, 1 );
+                                maskAccess.setPosition( floatAccess );
+                                argbAccess.setPosition( floatAccess );
+
+                                // set the pixel and mask values depending on whether the
+                                // pixel is within the source data
+                                if ( sourceMask.test( sourcePoint ) )
                                 {
-                                    // check again, because meanwhile another thread might have
-                                    // incremented fractionDone
-                                    if ( currentFractionDone >= fractionDone.get() )
-                                    {
-                                        IJ.log(sac.getSpimSource().getName() + ": " + ( Math.round( 100 * fractionDone.get() ) + "%" ) );
-                                        fractionDone.addAndGet( 0.2 );
-                                    }
+                                    sourceAccess.setPosition( sourceRealPosition );
+                                    maskAccess.get().set( true );
+                                    setFloatPixelValue( sourceAccess, floatAccess );
+                                    setArgbPixelValue( converter, sourceAccess, argbAccess, argbType );
+                                }
+                                else
+                                {
+                                    maskAccess.get().set( false );
                                 }
                             }
                         }
-                    } )
+
+                        logProgress( sac.getSpimSource().getName(), numBlocksDone.incrementAndGet(), blocks.size() );
+                    }, PriorityExecutorService.Priority.Interactive )
                 );
             }
 
@@ -266,14 +299,156 @@ public class ScreenShotMaker
 
         if ( ! floatCaptures.isEmpty() )
         {
-            rgbImagePlus = createRGBImagePlus( voxelUnit, argbCaptures, voxelSpacing, sacs );
+            argbProjection = createCapture( new ARGBType() );
+            createARGBprojection( argbCaptures, argbProjection, sacs, blocks );
+
+            if ( screenshotDimensions[ 0 ] * screenshotDimensions[ 1 ] > Integer.MAX_VALUE )
+            {
+                IJ.log( "The capture is too large to be shown as an ImageJ image." );
+                outputFile = saveAsOMEZarr( targetVoxelSpacing, sacs );
+                return;
+            }
+
+            rgbImagePlus = asImagePlus( argbProjection, voxelUnit, voxelSpacing );
             compositeImagePlus = createCompositeImagePlus(
                     voxelSpacing,
                     voxelUnit,
                     floatCaptures,
                     maskCaptures,
-                    displayRanges );
+                    displayRanges,
+                    ! useDiskCache );
+        }
+    }
+
+    /**
+     * @return the blended ARGB capture of all images;
+     * 			this may be backed by a disk cache for large captures
+     */
+    public RandomAccessibleInterval< ARGBType > getArgbCapture()
+    {
+        return argbProjection;
+    }
+
+    /**
+     * @return the raw values of each captured image;
+     * 			these may be backed by a disk cache for large captures
+     */
+    public List< RandomAccessibleInterval< FloatType > > getFloatCaptures()
+    {
+        return floatCaptures;
+    }
+
+    /**
+     * @return for each captured image, whether a pixel is within the image data
+     */
+    public List< RandomAccessibleInterval< BitType > > getMaskCaptures()
+    {
+        return maskCaptures;
+    }
+
+    private File saveAsOMEZarr( double voxelSpacing, List< SourceAndConverter< ? > > sacs )
+    {
+        final String name = "screenshot-" + new SimpleDateFormat( "yyyyMMdd-HHmmss" ).format( new Date() );
+        final File file = new File( outputDirectory, name + ".ome.zarr" );
+        IJ.log( "Saving the capture to " + file + " ..." );
+
+        final long start = System.currentTimeMillis();
+        final N5ZarrWriter writer = new N5ZarrWriter( file.getAbsolutePath() );
+        final List< String > channelNames = new ArrayList<>();
+        for ( SourceAndConverter< ? > sac : sacs )
+            channelNames.add( sac.getSpimSource().getName() );
+
+        // the blocks are streamed from the (disk cached) captures
+        saveImage( writer, "rgb", Converters.argbChannels( argbProjection, 1, 2, 3 ), Arrays.asList( "red", "green", "blue" ), voxelSpacing );
+        saveImage( writer, "images", Views.stack( floatCaptures ), channelNames, voxelSpacing );
+
+        IJ.log( "Saved the capture in " + ( System.currentTimeMillis() - start ) + " ms." );
+        return file;
+    }
+
+    /**
+     * Saves the (x,y,c) image as a single resolution OME-Zarr image.
+     */
+    private < T extends NativeType< T > > void saveImage( N5ZarrWriter writer, String group, RandomAccessibleInterval< T > image, List< String > channelNames, double voxelSpacing )
+    {
+        final String dataset = group + "/s0";
+        try
+        {
+            N5Utils.save( image, writer, dataset, new int[]{ BLOCK_SIZE, BLOCK_SIZE, 1 }, new GzipCompression(), ThreadHelper.ioExecutorService );
+        }
+        catch ( InterruptedException | ExecutionException e )
+        {
+            throw new RuntimeException( "Could not save " + dataset + " of the capture.", e );
         }
+
+        // OME-Zarr axes are ordered c,y,x
+        final List< Map< String, String > > axes = new ArrayList<>();
+        axes.add( axis( "c", "channel", null ) );
+        axes.add( axis( "y", "space", voxelUnit ) );
+        axes.add( axis( "x", "space", voxelUnit ) );
+
+        final Map< String, Object > scale = new LinkedHashMap<>();
+        scale.put( "type", "scale" );
+        scale.put( "scale", new double[]{ 1.0, voxelSpacing, voxelSpacing } );
+
+        final Map< String, Object > datasetMetadata = new LinkedHashMap<>();
+        datasetMetadata.put( "path", "s0" );
+        datasetMetadata.put( "coordinateTransformations", Collections.singletonList( scale ) );
+
+        final Map< String, Object > multiscale = new LinkedHashMap<>();
+        multiscale.put( "version", "0.4" );
+        multiscale.put( "name", group );
+        multiscale.put( "axes", axes );
+        multiscale.put( "datasets", Collections.singletonList( datasetMetadata ) );
+
+        final List< Map< String, String > > channels = new ArrayList<>();
+        for ( String channelName : channelNames )
+            channels.add( Collections.singletonMap( "label", channelName ) );
+
+        writer.setAttribute( group, "multiscales", Collections.singletonList( multiscale ) );
+        writer.setAttribute( group, "omero", Collections.singletonMap( "channels", channels ) );
+    }
+
+    private static Map< String, String > axis( String name, String type, String unit )
+    {
+        final Map< String, String > axis = new LinkedHashMap<>();
+        axis.put( "name", name );
+        axis.put( "type", type );
+        if ( unit != null )
+            axis.put( "unit", unit );
+        return axis;
+    }
+
+    private static boolean needsDiskCache( long[] dimensions, int numImages )
+    {
+        final long numPixels = dimensions[ 0 ] * dimensions[ 1 ];
+
+        // ArrayImgs are limited to 2^31 pixels
+        if ( numPixels >= Integer.MAX_VALUE ) return true;
+
+        // float, bit and argb per image, plus the argb projection
+        final double numBytes = numPixels * ( numImages * ( 4 + 4 + 1.0 / 8 ) + 4 );
+        return numBytes > Runtime.getRuntime().maxMemory() / 2;
+    }
+
+    private < T extends NativeType< T > > Img< T > createCapture( T type )
+    {
+        if ( useDiskCache )
+        {
+            final DiskCachedCellImgOptions options = DiskCachedCellImgOptions.options().cellDimensions( BLOCK_SIZE, BLOCK_SIZE );
+            return new DiskCachedCellImgFactory<>( type, options ).create( screenshotDimensions );
+        }
+        else
+        {
+            return new ArrayImgFactory<>( type ).create( screenshotDimensions );
+        }
+    }
+
+    private static void logProgress( String name, int numBlocksDone, int numBlocks )
+    {
+        // log in steps of 20%
+        if ( numBlocksDone * 5 / numBlocks > ( numBlocksDone - 1 ) * 5 / numBlocks )
+            IJ.log( name + ": " + ( 100 * numBlocksDone / numBlocks ) + "%" );
     }
 
     public AffineTransform3D getCanvasToGlobalTransform()
@@ -333,40 +508,39 @@ public class ScreenShotMaker
         }
     }
 
-    private ImagePlus createRGBImagePlus(
-            String physicalUnit,
-            ArrayList< RandomAccessibleInterval< ARGBType > > argbSources,
-            double[] voxelSpacing,
-            List< SourceAndConverter< ? > > sacs )
+    private void createARGBprojection( List< RandomAccessibleInterval< ARGBType > > argbSources, RandomAccessibleInterval< ARGBType > argbTarget, List< SourceAndConverter< ? > > sacs, List< Interval > blocks )
     {
-        final RandomAccessibleInterval< ARGBType > argbTarget = ArrayImgs.argbs( screenshotDimensions[ 0 ], screenshotDimensions[ 1 ]  );
-        createARGBprojection( argbSources, argbTarget, sacs );
-        return asImagePlus( argbTarget, physicalUnit, voxelSpacing );
-    }
-
-    private void createARGBprojection( ArrayList< RandomAccessibleInterval< ARGBType > > argbSources, RandomAccessibleInterval< ARGBType > argbTarget, List< SourceAndConverter< ? > > sacs )
-    {
-        final Cursor< ARGBType > argbCursor = Views.iterable( argbTarget ).localizingCursor();
         final int numVisibleSources = argbSources.size();
-        Cursor< ARGBType >[] cursors = getCursors( argbSources, numVisibleSources );
         final boolean[] occlusions = AccumulateAlphaBlendingProjectorARGB.getAlphaBlending( sacs );
         final int[] order = AccumulateAlphaBlendingProjectorARGB.getOrder( sacs );
 
-        while ( argbCursor.hasNext() )
+        ArrayList< Future< ? > > futures = ThreadHelper.getFutures();
+        for ( Interval block : blocks )
         {
-            try
+            futures.add( ThreadHelper.executorService.submit( () ->
             {
-                argbCursor.fwd();
-                for ( int i = 0; i < numVisibleSources; i++ )
-                    cursors[ i ].fwd();
-                final int argbIndex = AccumulateAlphaBlendingProjectorARGB.getArgbIndex( cursors, occlusions, order );
-                argbCursor.get().set( argbIndex );
-            }
-            catch ( Exception e )
-            {
-                e.printStackTrace();
-            }
+                final Cursor< ARGBType > argbCursor = Views.flatIterable( Views.interval( argbTarget, block ) ).cursor();
+                final Cursor< ARGBType >[] cursors = getCursors( argbSources, numVisibleSources, block );
+
+                while ( argbCursor.hasNext() )
+                {
+                    try
+                    {
+                        argbCursor.fwd();
+                        for ( int i = 0; i < numVisibleSources; i++ )
+                            cursors[ i ].fwd();
+                        final int argbIndex = AccumulateAlphaBlendingProjectorARGB.getArgbIndex( cursors, occlusions, order );
+                        argbCursor.get().set( argbIndex );
+                    }
+                    catch ( Exception e )
+                    {
+                        e.printStackTrace();
+                    }
+                }
+            }, PriorityExecutorService.Priority.Interactive ) );
         }
+
+        ThreadHelper.waitUntilFinished( futures );
     }
 
     public static long[] getCaptureImageSizeInPixels( BdvHandle bdvHandle, double samplingXY )
@@ -394,11 +568,11 @@ public class ScreenShotMaker
         return bdvWindowPhysicalSize;
     }
 
-    private static Cursor< ARGBType >[] getCursors( ArrayList< RandomAccessibleInterval< ARGBType > > argbCaptures, int numVisibleSources )
+    private static Cursor< ARGBType >[] getCursors( List< RandomAccessibleInterval< ARGBType > > argbCaptures, int numVisibleSources, Interval block )
     {
         Cursor[] cursors = new Cursor[ numVisibleSources ];
         for ( int i = 0; i < numVisibleSources; i++ )
-            cursors[ i ] = Views.iterable( argbCaptures.get( i ) ).cursor();
+            cursors[ i ] = Views.flatIterable( Views.interval( argbCaptures.get( i ), block ) ).cursor();
         return cursors;
     }
 
@@ -421,13 +595,15 @@ public class ScreenShotMaker
             String voxelUnit,
             ArrayList< RandomAccessibleInterval< FloatType > > floatCaptures,
             ArrayList< RandomAccessibleInterval< BitType > > maskCaptures,
-            ArrayList< double[] > displayRanges )
+            ArrayList< double[] > displayRanges,
+            boolean inMemory )
     {
         final ImagePlus imp = ImageJFunctions.wrap( Views.stack( floatCaptures ), "Floats" );
         final ImagePlus mask = ImageJFunctions.wrap( Views.stack( maskCaptures ), "Masks" );
 
-        // duplicate: otherwise it is virtual and cannot be modified
-        final ImagePlus dup = new Duplicator().run( imp );
+        // duplicate: otherwise it is virtual and cannot be modified;
+        // disk cached captures stay virtual, as they may not fit into memory
+        final ImagePlus dup = inMemory ? new Duplicator().run( imp ) : imp;
 
         IJ.run( dup,
                 "Properties...",
@@ -447,6 +623,10 @@ public class ScreenShotMaker
             compositeImage.setChannelLut( lut );
             final double[] range = displayRanges.get( channel - 1 );
             compositeImage.setDisplayRange( range[ 0 ], range[ 1 ] );
+
+            // tracing the mask outlines would read the whole capture into memory
+            if ( ! inMemory ) continue;
+
             mask.setPosition( channel );
             mask.getProcessor().setThreshold( 1.0, 255 );
             Roi roi = new ThresholdToSelection().convert( mask.getProcessor() );
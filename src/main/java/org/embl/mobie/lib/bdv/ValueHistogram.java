@@ -0,0 +1,190 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.bdv;
+
+import java.util.Collection;
+
+/**
+ * A histogram of real pixel values with equally spaced bins
+ * between the minimum and maximum value.
+ *
+ * Histograms of different image chunks can be merged,
+ * such that the histograms of chunks can be cached and combined
+ * for different regions of an image.
+ */
+public class ValueHistogram
+{
+	private final double min;
+	private final double max;
+	private final long[] counts;
+	private final long count;
+
+	private ValueHistogram( double min, double max, long[] counts, long count )
+	{
+		this.min = min;
+		this.max = max;
+		this.counts = counts;
+		this.count = count;
+	}
+
+	/**
+	 * Creates the histogram of the first n values;
+	 * NaN values are ignored.
+	 */
+	public static ValueHistogram of( float[] values, int n, int numBins )
+	{
+		double min = Double.MAX_VALUE;
+		double max = -Double.MAX_VALUE;
+		long count = 0;
+		for ( int i = 0; i < n; i++ )
+		{
+			final float value = values[ i ];
+			if ( Float.isNaN( value ) ) continue;
+			if ( value < min ) min = value;
+			if ( value > max ) max = value;
+			count++;
+		}
+
+		final long[] counts = new long[ numBins ];
+		if ( count == 0 )
+			return new ValueHistogram( 0, 0, counts, 0 );
+
+		final double scale = binScale( min, max, numBins );
+		for ( int i = 0; i < n; i++ )
+		{
+			final float value = values[ i ];
+			if ( Float.isNaN( value ) ) continue;
+			counts[ bin( value, min, scale, numBins ) ]++;
+		}
+
+		return new ValueHistogram( min, max, counts, count );
+	}
+
+	/**
+	 * Merges the histograms into one histogram that spans all their values.
+	 *
+	 * The counts of each bin are moved into the bin that contains the
+	 * centre of the original bin.
+	 */
+	public static ValueHistogram merge( Collection< ValueHistogram > histograms, int numBins )
+	{
+		double min = Double.MAX_VALUE;
+		double max = -Double.MAX_VALUE;
+		long count = 0;
+		for ( ValueHistogram histogram : histograms )
+		{
+			if ( histogram.count == 0 ) continue;
+			min = Math.min( min, histogram.min );
+			max = Math.max( max, histogram.max );
+			count += histogram.count;
+		}
+
+		final long[] counts = new long[ numBins ];
+		if ( count == 0 )
+			return new ValueHistogram( 0, 0, counts, 0 );
+
+		final double scale = binScale( min, max, numBins );
+		for ( ValueHistogram histogram : histograms )
+		{
+			if ( histogram.count == 0 ) continue;
+			final int numSourceBins = histogram.counts.length;
+			final double binWidth = ( histogram.max - histogram.min ) / numSourceBins;
+			for ( int i = 0; i < numSourceBins; i++ )
+			{
+				if ( histogram.counts[ i ] == 0 ) continue;
+				final double centre = histogram.min + ( i + 0.5 ) * binWidth;
+				counts[ bin( centre, min, scale, numBins ) ] += histogram.counts[ i ];
+			}
+		}
+
+		return new ValueHistogram( min, max, counts, count );
+	}
+
+	/**
+	 * Computes contrast limits such that the given percentage of the values
+	 * is saturated, half of it at each end, like ImageJ's "Enhance Contrast".
+	 *
+	 * @return { min, max } or null if there are no values
+	 */
+	public double[] saturatedLimits( double saturatedPercent )
+	{
+		if ( count == 0 ) return null;
+
+		final double tail = count * saturatedPercent / 200.0;
+		return new double[]{ valueAtRank( tail ), valueAtRank( count - tail ) };
+	}
+
+	public long getCount()
+	{
+		return count;
+	}
+
+	public double getMin()
+	{
+		return min;
+	}
+
+	public double getMax()
+	{
+		return max;
+	}
+
+	public int getNumBins()
+	{
+		return counts.length;
+	}
+
+	private double valueAtRank( double rank )
+	{
+		final double binWidth = ( max - min ) / counts.length;
+		long cumulative = 0;
+		for ( int i = 0; i < counts.length; i++ )
+		{
+			if ( cumulative + counts[ i ] >= rank && counts[ i ] > 0 )
+			{
+				// interpolate linearly within the bin
+				final double fraction = ( rank - cumulative ) / counts[ i ];
+				return min + ( i + fraction ) * binWidth;
+			}
+			cumulative += counts[ i ];
+		}
+		return max;
+	}
+
+	private static double binScale( double min, double max, int numBins )
+	{
+		return max > min ? numBins / ( max - min ) : 0;
+	}
+
+	private static int bin( double value, double min, double scale, int numBins )
+	{
+		final int bin = ( int ) ( ( value - min ) * scale );
+		return Math.max( 0, Math.min( numBins - 1, bin ) );
+	}
+}
@@ -39,15 +39,14 @@ import net.imglib2.type.numeric.ARGBType;
 import sc.fiji.bdvpg.services.ISourceAndConverterService;
 import sc.fiji.bdvpg.services.SourceAndConverterServices;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 
 public class AccumulateAlphaBlendingProjectorARGB extends AccumulateProjector< ARGBType, ARGBType >
 {
 	public static BdvHandle bdvHandle;
-	public static ISourceAndConverterService sacService = SourceAndConverterServices.getSourceAndConverterService();;
+	public static ISourceAndConverterService sacService = SourceAndConverterServices.getSourceAndConverterService();
 
 	private final boolean[] alphaBlending;
 	private final int[] order;
@@ -63,21 +62,27 @@ public class AccumulateAlphaBlendingProjectorARGB extends AccumulateProjector< A
 		order = getOrder( sources );
 	}
 
-	public static synchronized int[] getOrder( List< SourceAndConverter< ? > > sources )
+	public static int[] getOrder( List< SourceAndConverter< ? > > sources )
 	{
-		final ArrayList< SourceAndConverter< ? > > sorted = new ArrayList<>( sources );
+		final int numSources = sources.size();
+		final long[] timesAdded = new long[ numSources ];
+		final Integer[] sorted = new Integer[ numSources ];
+		for ( int sourceIndex = 0; sourceIndex < numSources; sourceIndex++ )
+		{
+			final Long timeAdded = ( Long ) sacService.getMetadata( sources.get( sourceIndex ), BlendingMode.TIME_ADDED );
+			timesAdded[ sourceIndex ] = timeAdded != null ? timeAdded : Long.MIN_VALUE;
+			sorted[ sourceIndex ] = sourceIndex;
+		}
 
-		Collections.sort(sorted, Comparator.comparingLong(sac -> {
-			Long timeAdded = (Long) sacService.getMetadata(sac, BlendingMode.TIME_ADDED);
-			return timeAdded != null ? timeAdded : Long.MIN_VALUE;
-		}));
-		int[] order = new int[ sorted.size() ];
-		for ( int i = 0; i < order.length; i++)
-			order[i] = sources.indexOf( sorted.get(i) );
+		Arrays.sort( sorted, Comparator.comparingLong( sourceIndex -> timesAdded[ sourceIndex ] ) );
+
+		final int[] order = new int[ numSources ];
+		for ( int i = 0; i < numSources; i++ )
+			order[ i ] = sorted[ i ];
 		return order;
 	}
 
-	public static synchronized boolean[] getAlphaBlending( List< SourceAndConverter< ? > > sources )
+	public static boolean[] getAlphaBlending( List< SourceAndConverter< ? > > sources )
 	{
 		final int numSources = sources.size();
 		final boolean[] alphaBlending = new boolean[ numSources ];
@@ -102,46 +107,27 @@ public class AccumulateAlphaBlendingProjectorARGB extends AccumulateProjector< A
 
 	public static int getArgbIndex( Cursor< ? extends ARGBType >[] accesses, boolean[] alphaBlending, int[] order )
 	{
-		try
+		int rAccu = 0, gAccu = 0, bAccu = 0;
+
+		for ( int sourceIndex : order )
 		{
-			int aAccu = 0, rAccu = 0, gAccu = 0, bAccu = 0;
+			final int argb = accesses[ sourceIndex ].get().get();
+			final int alpha = argb >>> 24;
+			if ( alpha == 0 ) continue;
 
-			for ( int sourceIndex : order )
+			if ( alphaBlending[ sourceIndex ] )
 			{
-				final int argb = accesses[ sourceIndex ].get().get();
-				final double alpha = ARGBType.alpha( argb ) / 255.0;
-				if ( alpha == 0 ) continue;
-
-				final int r = ARGBType.red( argb );
-				final int g = ARGBType.green( argb );
-				final int b = ARGBType.blue( argb );
-
-				if ( alphaBlending[ sourceIndex ] )
-				{
-					rAccu *= ( 1 - alpha );
-					gAccu *= ( 1 - alpha );
-					bAccu *= ( 1 - alpha );
-				}
-
-				rAccu += r * alpha;
-				gAccu += g * alpha;
-				bAccu += b * alpha;
+				final int transparency = 255 - alpha;
+				rAccu = rAccu * transparency / 255;
+				gAccu = gAccu * transparency / 255;
+				bAccu = bAccu * transparency / 255;
 			}
 
-			if ( aAccu > 255 )
-				aAccu = 255;
-			if ( rAccu > 255 )
-				rAccu = 255;
-			if ( gAccu > 255 )
-				gAccu = 255;
-			if ( bAccu > 255 )
-				bAccu = 255;
-
-			return ARGBType.rgba( rAccu, gAccu, bAccu, aAccu );
-		}
-		catch ( Exception e )
-		{
-			throw new RuntimeException();
+			rAccu += ( ( argb >> 16 ) & 0xff ) * alpha / 255;
+			gAccu += ( ( argb >> 8 ) & 0xff ) * alpha / 255;
+			bAccu += ( argb & 0xff ) * alpha / 255;
 		}
+
+		return AlphaBlending.rgb( rAccu, gAccu, bAccu );
 	}
 }
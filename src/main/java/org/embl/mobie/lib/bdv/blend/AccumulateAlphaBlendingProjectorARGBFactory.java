@@ -52,6 +52,17 @@ public class AccumulateAlphaBlendingProjectorARGBFactory implements AccumulatePr
 			int numThreads,
 			ExecutorService executorService )
 	{
+		if ( ArrayAlphaBlendingProjectorARGB.isApplicable( sourceScreenImages, targetScreenImage ) )
+			return new ArrayAlphaBlendingProjectorARGB(
+							sourceProjectors,
+							sourceScreenImages,
+							targetScreenImage,
+							AccumulateAlphaBlendingProjectorARGB.getAlphaBlending( sources ),
+							AccumulateAlphaBlendingProjectorARGB.getOrder( sources ),
+							numThreads,
+							executorService
+			);
+
 		return new AccumulateAlphaBlendingProjectorARGB(
 						sourceProjectors,
 						sources,
@@ -0,0 +1,143 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.bdv.blend;
+
+import java.util.Arrays;
+
+/**
+ * Blends ARGB source images with integer arithmetic.
+ *
+ * The sources are blended in the given order. A source with alpha
+ * blending first attenuates the accumulated colour by its transparency
+ * and then adds its colour weighted by its alpha; other sources
+ * only add their weighted colour. The resulting alpha is zero.
+ *
+ * The images are processed in blocks; sources that are fully
+ * transparent within a block are skipped and sources below an
+ * opaque, alpha blended source are ignored.
+ */
+final class AlphaBlending
+{
+	static final int BLOCK_SIZE = 256;
+
+	private AlphaBlending()
+	{
+	}
+
+	/**
+	 * Blends the pixels {@code start} (inclusive) to {@code end} (exclusive).
+	 *
+	 * @param active
+	 * 			scratch space of at least the number of sources
+	 * @param opaque
+	 * 			scratch space of at least the number of sources
+	 */
+	static void blend( int[][] sources, int[] order, boolean[] alphaBlending, int[] target, int start, int end, int[] active, boolean[] opaque )
+	{
+		for ( int blockStart = start; blockStart < end; blockStart += BLOCK_SIZE )
+			blendBlock( sources, order, alphaBlending, target, blockStart, Math.min( end, blockStart + BLOCK_SIZE ), active, opaque );
+	}
+
+	private static void blendBlock( int[][] sources, int[] order, boolean[] alphaBlending, int[] target, int start, int end, int[] active, boolean[] opaque )
+	{
+		int numActive = 0;
+		for ( final int sourceIndex : order )
+		{
+			final int[] source = sources[ sourceIndex ];
+			boolean isTransparent = true;
+			boolean isOpaque = true;
+			for ( int i = start; i < end && ( isTransparent || isOpaque ); i++ )
+			{
+				final int alpha = source[ i ] >>> 24;
+				isTransparent &= alpha == 0;
+				isOpaque &= alpha == 255;
+			}
+
+			if ( isTransparent )
+				continue;
+
+			// this source hides all sources below it
+			if ( isOpaque && alphaBlending[ sourceIndex ] )
+				numActive = 0;
+
+			opaque[ numActive ] = isOpaque;
+			active[ numActive++ ] = sourceIndex;
+		}
+
+		if ( numActive == 0 )
+		{
+			Arrays.fill( target, start, end, 0 );
+		}
+		else if ( numActive == 1 && opaque[ 0 ] )
+		{
+			final int[] source = sources[ active[ 0 ] ];
+			for ( int i = start; i < end; i++ )
+				target[ i ] = source[ i ] & 0x00ffffff;
+		}
+		else
+		{
+			for ( int i = start; i < end; i++ )
+				target[ i ] = blendPixel( sources, active, numActive, alphaBlending, i );
+		}
+	}
+
+	private static int blendPixel( int[][] sources, int[] active, int numActive, boolean[] alphaBlending, int i )
+	{
+		int rAccu = 0, gAccu = 0, bAccu = 0;
+		for ( int k = 0; k < numActive; k++ )
+		{
+			final int sourceIndex = active[ k ];
+			final int argb = sources[ sourceIndex ][ i ];
+			final int alpha = argb >>> 24;
+			if ( alpha == 0 ) continue;
+
+			if ( alphaBlending[ sourceIndex ] )
+			{
+				final int transparency = 255 - alpha;
+				rAccu = rAccu * transparency / 255;
+				gAccu = gAccu * transparency / 255;
+				bAccu = bAccu * transparency / 255;
+			}
+
+			rAccu += ( ( argb >> 16 ) & 0xff ) * alpha / 255;
+			gAccu += ( ( argb >> 8 ) & 0xff ) * alpha / 255;
+			bAccu += ( argb & 0xff ) * alpha / 255;
+		}
+
+		return rgb( rAccu, gAccu, bAccu );
+	}
+
+	/**
+	 * @return the colour with saturated channels and zero alpha
+	 */
+	static int rgb( int r, int g, int b )
+	{
+		return ( Math.min( r, 255 ) << 16 ) | ( Math.min( g, 255 ) << 8 ) | Math.min( b, 255 );
+	}
+}
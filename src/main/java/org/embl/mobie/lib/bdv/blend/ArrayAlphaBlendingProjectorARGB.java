@@ -0,0 +1,225 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.bdv.blend;
+
+import bdv.viewer.render.VolatileProjector;
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.img.array.ArrayImg;
+import net.imglib2.img.basictypeaccess.array.IntArray;
+import net.imglib2.type.numeric.ARGBType;
+import net.imglib2.util.Intervals;
+import net.imglib2.util.StopWatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Blends the source screen images directly on their int[] storage,
+ * see {@link AlphaBlending}.
+ *
+ * Used instead of {@link AccumulateAlphaBlendingProjectorARGB} if the
+ * target and all source screen images are {@link ArrayImg}s of the same size,
+ * see {@link #isApplicable}.
+ */
+public class ArrayAlphaBlendingProjectorARGB implements VolatileProjector
+{
+	private final List< VolatileProjector > sourceProjectors;
+	private final int[][] sourceData;
+	private final int[] targetData;
+	private final boolean[] alphaBlending;
+	private final int[] order;
+	private final int numThreads;
+	private final ExecutorService executorService;
+
+	private volatile boolean canceled = false;
+	private boolean valid = false;
+	private long lastFrameRenderNanoTime;
+
+	public ArrayAlphaBlendingProjectorARGB(
+			final List< VolatileProjector > sourceProjectors,
+			final List< ? extends RandomAccessible< ? extends ARGBType > > sourceScreenImages,
+			final RandomAccessibleInterval< ARGBType > target,
+			final boolean[] alphaBlending,
+			final int[] order,
+			final int numThreads,
+			final ExecutorService executorService )
+	{
+		this.sourceProjectors = sourceProjectors;
+		this.alphaBlending = alphaBlending;
+		this.order = order;
+		this.numThreads = Math.max( 1, numThreads );
+		this.executorService = executorService;
+
+		targetData = getData( target );
+		sourceData = new int[ sourceScreenImages.size() ][];
+		for ( int sourceIndex = 0; sourceIndex < sourceData.length; sourceIndex++ )
+			sourceData[ sourceIndex ] = getData( sourceScreenImages.get( sourceIndex ) );
+	}
+
+	public static boolean isApplicable(
+			final List< ? extends RandomAccessible< ? extends ARGBType > > sourceScreenImages,
+			final RandomAccessibleInterval< ARGBType > target )
+	{
+		if ( getData( target ) == null )
+			return false;
+
+		for ( RandomAccessible< ? extends ARGBType > sourceScreenImage : sourceScreenImages )
+		{
+			if ( getData( sourceScreenImage ) == null )
+				return false;
+
+			if ( ! Intervals.equalDimensions( target, ( RandomAccessibleInterval< ? > ) sourceScreenImage ) )
+				return false;
+		}
+
+		return true;
+	}
+
+	private static int[] getData( RandomAccessible< ? > image )
+	{
+		if ( ! ( image instanceof ArrayImg ) )
+			return null;
+
+		final Object access = ( ( ArrayImg< ?, ? > ) image ).update( null );
+		if ( ! ( access instanceof IntArray ) )
+			return null;
+
+		return ( ( IntArray ) access ).getCurrentStorageArray();
+	}
+
+	@Override
+	public boolean map( final boolean clearUntouchedTargetPixels )
+	{
+		if ( canceled )
+			return false;
+
+		if ( isValid() )
+			return true;
+
+		final StopWatch stopWatch = StopWatch.createAndStart();
+
+		boolean sourcesValid = true;
+		for ( VolatileProjector sourceProjector : sourceProjectors )
+		{
+			if ( ! sourceProjector.isValid() )
+			{
+				if ( ! sourceProjector.map( clearUntouchedTargetPixels ) )
+					return false;
+				sourcesValid &= sourceProjector.isValid();
+			}
+		}
+
+		if ( ! blend() )
+			return false;
+
+		valid = sourcesValid;
+		lastFrameRenderNanoTime = stopWatch.nanoTime();
+
+		return ! canceled;
+	}
+
+	private boolean blend()
+	{
+		final int numPixels = targetData.length;
+
+		if ( numThreads == 1 || executorService == null )
+			return blend( 0, numPixels );
+
+		// tasks of whole blocks, such that the blocks are independent of the number of threads
+		final int numBlocks = ( numPixels + AlphaBlending.BLOCK_SIZE - 1 ) / AlphaBlending.BLOCK_SIZE;
+		final int numTasks = Math.min( numBlocks, 4 * numThreads );
+		final int blocksPerTask = ( numBlocks + numTasks - 1 ) / numTasks;
+
+		final List< Callable< Boolean > > tasks = new ArrayList<>( numTasks );
+		for ( int start = 0; start < numPixels; start += blocksPerTask * AlphaBlending.BLOCK_SIZE )
+		{
+			final int taskStart = start;
+			final int taskEnd = Math.min( numPixels, start + blocksPerTask * AlphaBlending.BLOCK_SIZE );
+			tasks.add( () -> blend( taskStart, taskEnd ) );
+		}
+
+		try
+		{
+			for ( Future< Boolean > future : executorService.invokeAll( tasks ) )
+				if ( ! future.get() )
+					return false;
+		}
+		catch ( InterruptedException e )
+		{
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		catch ( ExecutionException e )
+		{
+			throw new RuntimeException( e.getCause() );
+		}
+
+		return true;
+	}
+
+	private boolean blend( int start, int end )
+	{
+		final int[] active = new int[ sourceData.length ];
+		final boolean[] opaque = new boolean[ sourceData.length ];
+		final int pixelsPerCheck = 16 * AlphaBlending.BLOCK_SIZE;
+		for ( int checkStart = start; checkStart < end; checkStart += pixelsPerCheck )
+		{
+			if ( canceled )
+				return false;
+
+			AlphaBlending.blend( sourceData, order, alphaBlending, targetData, checkStart, Math.min( end, checkStart + pixelsPerCheck ), active, opaque );
+		}
+		return true;
+	}
+
+	@Override
+	public void cancel()
+	{
+		canceled = true;
+		for ( VolatileProjector sourceProjector : sourceProjectors )
+			sourceProjector.cancel();
+	}
+
+	@Override
+	public long getLastFrameRenderNanoTime()
+	{
+		return lastFrameRenderNanoTime;
+	}
+
+	@Override
+	public boolean isValid()
+	{
+		return valid;
+	}
+}
@@ -113,7 +113,7 @@ public class AnnotationSliceView< A extends Annotation > extends AbstractSliceVi
 		{
 			// create volatile sac
 			final Source< ? extends Volatile< ? extends AnnotationType< ? > > > volatileSource = image.getSourcePair().getVolatileSource();
-			final VolatileBoundarySource volatileBoundarySource = new VolatileBoundarySource( volatileSource, false, 1.0F, image.getMask() );
+			final VolatileBoundarySource volatileBoundarySource = new VolatileBoundarySource( volatileSource, boundarySource, false, 1.0F, image.getMask() );
 			final VolatileAnnotationARGBConverter volatileAnnotationConverter = new VolatileAnnotationARGBConverter( display.coloringModel );
 			final TransformedSource volatileTransformedSource = new TransformedSource( volatileBoundarySource, transformedBoundarySource );
 			SourceAndConverter volatileSourceAndConverter = new SourceAndConverter( volatileTransformedSource, volatileAnnotationConverter );
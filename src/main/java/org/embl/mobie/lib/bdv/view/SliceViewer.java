@@ -36,6 +36,7 @@ import org.embl.mobie.command.context.*;
 import org.embl.mobie.command.context.CurrentLocationLoggerCommand;
 import org.embl.mobie.MoBIE;
 import org.embl.mobie.lib.Services;
+import org.embl.mobie.lib.ThreadHelper;
 import org.embl.mobie.lib.annotation.SliceViewAnnotationSelector;
 import org.embl.mobie.lib.bdv.*;
 import org.embl.mobie.lib.bdv.blend.AccumulateAlphaBlendingProjectorARGB;
@@ -117,6 +118,10 @@ public class SliceViewer
 			bdvHandle = createBdv( is2D, FRAME_TITLE );
 			bdvDisplayService.registerBdvHandle( bdvHandle );
 			AccumulateAlphaBlendingProjectorARGB.bdvHandle = bdvHandle;
+
+			// open the tiles of stitched images around the viewer centre first
+			bdvHandle.getViewerPanel().transformListeners().add( transform ->
+					ThreadHelper.tileOpeningScheduler.setFocus( BdvPlaygroundHelper.getWindowCentreInCalibratedUnits( bdvHandle ) ) );
 		}
 
 		return bdvHandle;
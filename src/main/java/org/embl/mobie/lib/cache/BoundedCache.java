@@ -0,0 +1,331 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.cache;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * A thread-safe cache that holds at most {@code maxEntries} entries
+ * and at most {@code maxWeight} total weight.
+ *
+ * Entries are evicted in least-recently-used order; the entry that has
+ * been added or accessed last is never evicted, even if it alone
+ * exceeds the weight limit.
+ *
+ * The removal listener is called outside the lock for every evicted
+ * or invalidated entry, such that it can release resources.
+ *
+ * @param <K>
+ *            key type
+ * @param <V>
+ *            value type
+ */
+public class BoundedCache< K, V >
+{
+	private final LinkedHashMap< K, Entry< V > > map = new LinkedHashMap<>( 16, 0.75f, true );
+
+	private volatile long maxEntries;
+
+	private volatile long maxWeight;
+
+	private final ToLongBiFunction< K, V > weigher;
+
+	private final BiConsumer< K, V > removalListener;
+
+	private long totalWeight;
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private final AtomicLong evictions = new AtomicLong();
+
+	public BoundedCache( long maxEntries, long maxWeight, ToLongBiFunction< K, V > weigher, BiConsumer< K, V > removalListener )
+	{
+		this.maxEntries = maxEntries;
+		this.maxWeight = maxWeight;
+		this.weigher = weigher;
+		this.removalListener = removalListener;
+	}
+
+	public BoundedCache( long maxEntries )
+	{
+		this( maxEntries, Long.MAX_VALUE, ( k, v ) -> 1, ( k, v ) -> {} );
+	}
+
+	public V get( K key )
+	{
+		final Entry< V > entry;
+		synchronized ( this )
+		{
+			entry = map.get( key );
+		}
+
+		if ( entry == null )
+		{
+			misses.incrementAndGet();
+			return null;
+		}
+
+		hits.incrementAndGet();
+		return entry.value;
+	}
+
+	/**
+	 * Returns the cached value for the key or computes, caches and returns it.
+	 *
+	 * The loader is called while holding the lock of this cache
+	 * and thus should be cheap, e.g. create a {@code CompletableFuture}.
+	 */
+	public V computeIfAbsent( K key, Function< ? super K, ? extends V > loader )
+	{
+		final List< Map.Entry< K, V > > evicted;
+		final V value;
+		synchronized ( this )
+		{
+			final Entry< V > entry = map.get( key );
+			if ( entry != null )
+			{
+				hits.incrementAndGet();
+				return entry.value;
+			}
+
+			misses.incrementAndGet();
+			value = loader.apply( key );
+			if ( value == null )
+				return null;
+
+			final long weight = weigher.applyAsLong( key, value );
+			map.put( key, new Entry<>( value, weight ) );
+			totalWeight += weight;
+			evicted = evict();
+		}
+
+		notifyRemoval( evicted );
+		return value;
+	}
+
+	public void put( K key, V value )
+	{
+		final List< Map.Entry< K, V > > evicted;
+		synchronized ( this )
+		{
+			final long weight = weigher.applyAsLong( key, value );
+			final Entry< V > previous = map.put( key, new Entry<>( value, weight ) );
+			if ( previous != null )
+				totalWeight -= previous.weight;
+			totalWeight += weight;
+			evicted = evict();
+		}
+
+		notifyRemoval( evicted );
+	}
+
+	/**
+	 * Recomputes the weight of an entry, e.g. once an
+	 * asynchronously loaded value has become available.
+	 */
+	public void updateWeight( K key )
+	{
+		final List< Map.Entry< K, V > > evicted;
+		synchronized ( this )
+		{
+			final Entry< V > entry = map.get( key );
+			if ( entry == null )
+				return;
+
+			final long weight = weigher.applyAsLong( key, entry.value );
+			totalWeight += weight - entry.weight;
+			entry.weight = weight;
+			evicted = evict();
+		}
+
+		notifyRemoval( evicted );
+	}
+
+	public void invalidate( K key )
+	{
+		final Entry< V > entry;
+		synchronized ( this )
+		{
+			entry = map.remove( key );
+			if ( entry == null )
+				return;
+			totalWeight -= entry.weight;
+		}
+
+		removalListener.accept( key, entry.value );
+	}
+
+	/**
+	 * Invalidates all entries whose key matches the predicate.
+	 */
+	public void invalidateIf( Predicate< ? super K > predicate )
+	{
+		final List< Map.Entry< K, V > > removed = new ArrayList<>();
+		synchronized ( this )
+		{
+			final Iterator< Map.Entry< K, Entry< V > > > iterator = map.entrySet().iterator();
+			while ( iterator.hasNext() )
+			{
+				final Map.Entry< K, Entry< V > > entry = iterator.next();
+				if ( ! predicate.test( entry.getKey() ) )
+					continue;
+
+				iterator.remove();
+				totalWeight -= entry.getValue().weight;
+				removed.add( new AbstractMap.SimpleImmutableEntry<>( entry.getKey(), entry.getValue().value ) );
+			}
+		}
+
+		notifyRemoval( removed );
+	}
+
+	public void invalidateAll()
+	{
+		final List< Map.Entry< K, V > > removed = new ArrayList<>();
+		synchronized ( this )
+		{
+			map.forEach( ( k, e ) -> removed.add( new AbstractMap.SimpleImmutableEntry<>( k, e.value ) ) );
+			map.clear();
+			totalWeight = 0;
+		}
+
+		notifyRemoval( removed );
+	}
+
+	public void setLimits( long maxEntries, long maxWeight )
+	{
+		final List< Map.Entry< K, V > > evicted;
+		synchronized ( this )
+		{
+			this.maxEntries = maxEntries;
+			this.maxWeight = maxWeight;
+			evicted = evict();
+		}
+
+		notifyRemoval( evicted );
+	}
+
+	public synchronized int size()
+	{
+		return map.size();
+	}
+
+	public synchronized long weight()
+	{
+		return totalWeight;
+	}
+
+	public long getMaxEntries()
+	{
+		return maxEntries;
+	}
+
+	public long getMaxWeight()
+	{
+		return maxWeight;
+	}
+
+	public Stats stats()
+	{
+		synchronized ( this )
+		{
+			return new Stats( hits.get(), misses.get(), evictions.get(), map.size(), totalWeight );
+		}
+	}
+
+	// must be called while holding the lock
+	private List< Map.Entry< K, V > > evict()
+	{
+		final List< Map.Entry< K, V > > evicted = new ArrayList<>();
+		final Iterator< Map.Entry< K, Entry< V > > > iterator = map.entrySet().iterator();
+		while ( map.size() > 1 && ( map.size() > maxEntries || totalWeight > maxWeight ) )
+		{
+			final Map.Entry< K, Entry< V > > eldest = iterator.next();
+			iterator.remove();
+			totalWeight -= eldest.getValue().weight;
+			evicted.add( new AbstractMap.SimpleImmutableEntry<>( eldest.getKey(), eldest.getValue().value ) );
+		}
+		evictions.addAndGet( evicted.size() );
+		return evicted;
+	}
+
+	private void notifyRemoval( List< Map.Entry< K, V > > removed )
+	{
+		for ( Map.Entry< K, V > entry : removed )
+			removalListener.accept( entry.getKey(), entry.getValue() );
+	}
+
+	private static class Entry< V >
+	{
+		final V value;
+		long weight;
+
+		Entry( V value, long weight )
+		{
+			this.value = value;
+			this.weight = weight;
+		}
+	}
+
+	public static class Stats
+	{
+		public final long hits;
+		public final long misses;
+		public final long evictions;
+		public final int size;
+		public final long weight;
+
+		Stats( long hits, long misses, long evictions, int size, long weight )
+		{
+			this.hits = hits;
+			this.misses = misses;
+			this.evictions = evictions;
+			this.size = size;
+			this.weight = weight;
+		}
+
+		@Override
+		public String toString()
+		{
+			return "size=" + size + ", weight=" + weight + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions;
+		}
+	}
+}
@@ -34,7 +34,13 @@ import org.embl.mobie.lib.annotation.Annotation;
 import org.embl.mobie.lib.color.lut.ColumnARGBLut;
 import org.embl.mobie.lib.color.lut.LUTs;
 import net.imglib2.type.numeric.ARGBType;
+import org.embl.mobie.lib.table.saw.AbstractTableSawAnnotation;
+import org.embl.mobie.lib.table.saw.TableSawAnnotationTableModel;
+import tech.tablesaw.api.Table;
+import tech.tablesaw.columns.Column;
+
 import javax.annotation.Nullable;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -46,6 +52,11 @@ public class CategoricalAnnotationColoringModel< A extends Annotation > extends
 	private Map< String, Integer > inputToRandomColor;
 	private int randomSeed;
 
+	// Colors of all annotations of a table model, indexed by row.
+	// This avoids the per voxel table and map lookups.
+	private final Map< TableSawAnnotationTableModel< ? >, RowColors > modelToRowColors = new ConcurrentHashMap<>();
+	private volatile int colorsVersion = 0;
+
 	public CategoricalAnnotationColoringModel(
 			final String columnName,
 			@Nullable final String lutName )
@@ -66,6 +77,13 @@ public class CategoricalAnnotationColoringModel< A extends Annotation > extends
 	@Override
 	public void convert( A input, ARGBType output )
 	{
+		if ( input instanceof AbstractTableSawAnnotation )
+		{
+			final AbstractTableSawAnnotation annotation = ( AbstractTableSawAnnotation ) input;
+			output.set( getRowColors( annotation.getModel() ).argb[ annotation.getRowIndex() ] );
+			return;
+		}
+
 		if ( columnName != null )
 		{
 			final Object value = input.getValue( columnName );
@@ -133,6 +151,67 @@ public class CategoricalAnnotationColoringModel< A extends Annotation > extends
 		output.set( argb );
 	}
 
+	private RowColors getRowColors( TableSawAnnotationTableModel< ? > model )
+	{
+		final RowColors rowColors = modelToRowColors.get( model );
+		if ( rowColors != null && rowColors.isValid( model, colorsVersion ) )
+			return rowColors;
+
+		synchronized ( modelToRowColors )
+		{
+			final RowColors current = modelToRowColors.get( model );
+			if ( current != null && current.isValid( model, colorsVersion ) )
+				return current;
+
+			final RowColors computed = computeRowColors( model );
+			modelToRowColors.put( model, computed );
+			return computed;
+		}
+	}
+
+	private RowColors computeRowColors( TableSawAnnotationTableModel< ? > model )
+	{
+		// read the versions first, such that concurrent
+		// modifications cause a re-computation
+		final int colorsVersion = this.colorsVersion;
+		final int modificationCount = model.getModificationCount();
+		final Table table = model.getTable();
+		final int rowCount = table.rowCount();
+		final int[] argb = new int[ rowCount ];
+		final ARGBType output = new ARGBType();
+
+		if ( columnName != null )
+		{
+			final Column< ? > column = table.column( columnName );
+			for ( int rowIndex = 0; rowIndex < rowCount; rowIndex++ )
+			{
+				final Object value = column.get( rowIndex );
+				if ( value == null )
+					output.setZero();
+				else
+					convertStringToARGB( value.toString(), output );
+				argb[ rowIndex ] = output.get();
+			}
+		}
+		else
+		{
+			final List< ? extends Annotation > annotations = model.annotations();
+			for ( int rowIndex = 0; rowIndex < rowCount; rowIndex++ )
+			{
+				convertStringToARGB( annotations.get( rowIndex ).uuid(), output );
+				argb[ rowIndex ] = output.get();
+			}
+		}
+
+		return new RowColors( table, modificationCount, colorsVersion, argb );
+	}
+
+	private void invalidateRowColors()
+	{
+		colorsVersion++;
+		modelToRowColors.clear();
+	}
+
 	private double createRandom( double x )
 	{
 		double random = ( x * randomSeed ) * goldenRatio;
@@ -143,6 +222,7 @@ public class CategoricalAnnotationColoringModel< A extends Annotation > extends
 	public void assignColor( String category, int color )
 	{
 		inputToFixedColor.put( category, color );
+		invalidateRowColors();
 		notifyColoringListeners();
 	}
 
@@ -155,6 +235,7 @@ public class CategoricalAnnotationColoringModel< A extends Annotation > extends
 
 			inputToRandomColor.clear();
 			this.randomSeed = randomSeed;
+			invalidateRowColors();
 			notifyColoringListeners();
 		}
 	}
@@ -163,4 +244,27 @@ public class CategoricalAnnotationColoringModel< A extends Annotation > extends
 	{
 		return randomSeed;
 	}
+
+	private static class RowColors
+	{
+		private final Table table;
+		private final int modificationCount;
+		private final int colorsVersion;
+		private final int[] argb;
+
+		RowColors( Table table, int modificationCount, int colorsVersion, int[] argb )
+		{
+			this.table = table;
+			this.modificationCount = modificationCount;
+			this.colorsVersion = colorsVersion;
+			this.argb = argb;
+		}
+
+		boolean isValid( TableSawAnnotationTableModel< ? > model, int colorsVersion )
+		{
+			return table == model.getTable()
+					&& modificationCount == model.getModificationCount()
+					&& this.colorsVersion == colorsVersion;
+		}
+	}
 }
@@ -127,6 +127,7 @@ public enum HCSPattern
 	private final String MD_SITES = ".*_(?<"+WELL+">[A-Z]{1}[0-9]{2})_s(?<"+SITE+">[0-9]{1}).*";
 
 	private Matcher matcher;
+	private Pattern pattern;
 	private List< String > channels;
 
 	public static HCSPattern fromPath( String fileName )
@@ -141,26 +142,40 @@ public enum HCSPattern
 	}
 
 	private Matcher getMatcher( String path )
+	{
+		// compiling the pattern is much more expensive than matching,
+		// and there may be millions of paths in a plate
+		Pattern pattern = this.pattern;
+		if ( pattern == null )
+		{
+			pattern = Pattern.compile( getRegex() );
+			this.pattern = pattern;
+		}
+
+		return pattern.matcher( path );
+	}
+
+	private String getRegex()
 	{
 		switch( this )
 		{
 			case OMEZarr:
-				return Pattern.compile( OME_ZARR ).matcher( path );
+				return OME_ZARR;
 			case Operetta:
-				return Pattern.compile( OPERETTA ).matcher( path );
+				return OPERETTA;
 			case MolecularDevices:
-				return Pattern.compile( MOLDEV ).matcher( path );
+				return MOLDEV;
 			case InCell:
-				return Pattern.compile( INCELL ).matcher( path );
+				return INCELL;
 			case IncuCyteRaw:
-				return Pattern.compile( INCUCYTE_RAW ).matcher( path );
+				return INCUCYTE_RAW;
 			case YokogawaCQ1:
-				return Pattern.compile( YOKOGAWACQ1 ).matcher( path );
+				return YOKOGAWACQ1;
 			case InCarta:
-				return Pattern.compile( INCARTA ).matcher( path );
+				return INCARTA;
 			default:
 			case IncuCyte:
-				return Pattern.compile( INCUCYTE ).matcher( path );
+				return INCUCYTE;
 		}
 	}
 
@@ -32,28 +32,49 @@ import ch.epfl.biop.bdv.img.opener.ChannelProperties;
 import mpicbg.spim.data.sequence.FinalVoxelDimensions;
 import mpicbg.spim.data.sequence.VoxelDimensions;
 import org.embl.mobie.lib.color.ColorHelper;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.awt.*;
+import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.IOException;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.util.HashSet;
+import java.util.Set;
 
 // one could extract an interface here for the
 // getter methods if this is useful for other data
 public class OperettaMetadata
 {
-	private HashMap< String, Element > filenameToImageElement;
-	private HashMap< String, Element > channelIDToElement;
-	private HashMap< String, Integer > filenameToImageIndex;
+	// the Index.xml can be hundreds of MB, thus it is streamed
+	// and only the below values are kept, in one record per image
+	private static final String URL = "URL";
+	private static final String POSITION_X = "PositionX";
+	private static final String POSITION_Y = "PositionY";
+	private static final String CHANNEL_ID = "ChannelID";
+	private static final String MAX_INTENSITY = "MaxIntensity";
+	private static final String MAIN_EMISSION_WAVELENGTH = "MainEmissionWavelength";
+	private static final String IMAGE_RESOLUTION_X = "ImageResolutionX";
+	private static final String IMAGE_RESOLUTION_Y = "ImageResolutionY";
+	private static final String IMAGE_SIZE_X = "ImageSizeX";
+	private static final String IMAGE_SIZE_Y = "ImageSizeY";
+
+	private static final Set< String > RECORD_TAGS = new HashSet<>( Arrays.asList(
+			URL, POSITION_X, POSITION_Y, CHANNEL_ID, MAX_INTENSITY, MAIN_EMISSION_WAVELENGTH ) );
+
+	private final HashMap< String, Integer > filenameToImageIndex = new HashMap<>();
+	private final HashMap< String, Integer > channelIDToWavelength = new HashMap<>();
+	private final HashMap< String, String > channelIDs = new HashMap<>();
+	private int numImages;
+	private double[] positionsX = new double[ 1024 ];
+	private double[] positionsY = new double[ 1024 ];
+	private String[] imageChannelIDs = new String[ 1024 ];
+
 	private double dx;
 	private double dy;
 	private String spatialUnit;
@@ -68,9 +89,9 @@ public class OperettaMetadata
 
 	private void tryParse( File xml )
 	{
-		try
+		try ( InputStream inputStream = new BufferedInputStream( new FileInputStream( xml ) ) )
 		{
-			parse( xml );
+			parse( inputStream );
 		}
 		catch ( Exception e )
 		{
@@ -78,134 +99,161 @@ public class OperettaMetadata
 		}
 	}
 
-	private void parse( File xml ) throws ParserConfigurationException, SAXException, IOException
+	private void parse( InputStream inputStream ) throws XMLStreamException
 	{
-		DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-		Document doc = builder.parse( xml );
-		doc.getDocumentElement().normalize();
-
-		dx = Double.parseDouble( doc.getElementsByTagName( "ImageResolutionX" ).item( 0 ).getTextContent() );
-		dy = Double.parseDouble( doc.getElementsByTagName( "ImageResolutionY" ).item( 0 ).getTextContent() );
-		spatialUnit = doc.getElementsByTagName( "ImageResolutionX" ).item( 0 ).getAttributes().item( 0 ).getTextContent();
-
-		// could be channel specific
-		//
-		imageSizeX = Integer.parseInt( doc.getElementsByTagName( "ImageSizeX" ).item( 0 ).getTextContent() );
-		imageSizeY = Integer.parseInt( doc.getElementsByTagName( "ImageSizeY" ).item( 0 ).getTextContent() );
-
-		// could be channel specific
-		//
-		maxIntensity = Integer.parseInt( doc.getElementsByTagName( "MaxIntensity" ).item( 0 ).getTextContent() );
-
-		filenameToImageElement = new LinkedHashMap<>();
-		filenameToImageIndex = new LinkedHashMap<>();
-		channelIDToElement = new LinkedHashMap<>();
-
-		final NodeList imageFileNames = doc.getElementsByTagName( "URL" );
-		final int numImages = imageFileNames.getLength();
-		for ( int imageIndex = 0; imageIndex < numImages; imageIndex++ )
-		{
-			final Node item = imageFileNames.item( imageIndex );
-			final Element parentNode = (Element) item.getParentNode();
-			filenameToImageElement.put( item.getTextContent(), parentNode );
-			filenameToImageIndex.put( item.getTextContent(), imageIndex );
-		}
+		final XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty( XMLInputFactory.SUPPORT_DTD, false );
+		factory.setProperty( XMLInputFactory.IS_COALESCING, true );
+		final XMLStreamReader reader = factory.createXMLStreamReader( inputStream );
 
-		final NodeList channelIDs = doc.getElementsByTagName( "MaxIntensity" );
-		final int numChannels = channelIDs.getLength();
-		for ( int channelIndex = 0; channelIndex < numChannels; channelIndex++ )
+		// the open elements; an element is an image if it has an URL child
+		// and a channel if it has a MaxIntensity child
+		final ArrayDeque< ElementValues > openElements = new ArrayDeque<>();
+		final StringBuilder text = new StringBuilder();
+
+		while ( reader.hasNext() )
 		{
-			final Node item = channelIDs.item( channelIndex );
-			final Element parentNode = (Element) item.getParentNode();
-			final String channelID = parentNode.getAttributes().item( 0 ).getTextContent();
-			channelIDToElement.put( channelID, parentNode );
+			switch ( reader.next() )
+			{
+				case XMLStreamReader.START_ELEMENT:
+					openElements.push( new ElementValues( reader.getAttributeCount() > 0 ? reader.getAttributeValue( 0 ) : null ) );
+					text.setLength( 0 );
+					break;
+				case XMLStreamReader.CHARACTERS:
+				case XMLStreamReader.CDATA:
+					text.append( reader.getText() );
+					break;
+				case XMLStreamReader.END_ELEMENT:
+					final ElementValues element = openElements.pop();
+					final ElementValues parent = openElements.peek();
+					final String tag = reader.getLocalName();
+					if ( element.numChildren == 0 )
+						setValue( tag, text.toString().trim(), element.firstAttribute, openElements );
+					else
+						addRecords( element );
+					if ( parent != null )
+					{
+						parent.numChildren++;
+						if ( tag.equals( URL ) ) parent.isImage = true;
+						if ( tag.equals( MAX_INTENSITY ) ) parent.isChannel = true;
+					}
+					text.setLength( 0 );
+					break;
+			}
 		}
+		reader.close();
+
+		positionsX = Arrays.copyOf( positionsX, numImages );
+		positionsY = Arrays.copyOf( positionsY, numImages );
+		imageChannelIDs = Arrays.copyOf( imageChannelIDs, numImages );
 	}
 
-	public VoxelDimensions getVoxelDimensions( String path )
+	private void setValue( String tag, String value, String attribute, ArrayDeque< ElementValues > ancestors )
 	{
-		// In Operetta 4 and 5 this is not consistently at the same position
-		// thus we just fetch it once globally. Hopefully it is the same for all
-		// images anyway.
-
-		// This only works in Operetta 4
-		//		final Element element = getElement( path );
-		//		final double imageResolutionX = getDouble( element, "ImageResolutionX" );
-		//		final double imageResolutionY = getDouble( element, "ImageResolutionY" );
-		//		final String unit = element.getElementsByTagName( "ImageResolutionX" ).item( 0 ).getAttributes().item( 0 ).getTextContent();
+		// the first occurrence in the whole document
+		switch ( tag )
+		{
+			case IMAGE_RESOLUTION_X:
+				if ( spatialUnit == null )
+				{
+					dx = Double.parseDouble( value );
+					spatialUnit = attribute;
+				}
+				break;
+			case IMAGE_RESOLUTION_Y:
+				if ( dy == 0 ) dy = Double.parseDouble( value );
+				break;
+			case IMAGE_SIZE_X:
+				if ( imageSizeX == 0 ) imageSizeX = Integer.parseInt( value );
+				break;
+			case IMAGE_SIZE_Y:
+				if ( imageSizeY == 0 ) imageSizeY = Integer.parseInt( value );
+				break;
+			case MAX_INTENSITY:
+				if ( maxIntensity == 0 ) maxIntensity = Integer.parseInt( value );
+				break;
+		}
 
-		return new FinalVoxelDimensions( spatialUnit, dx, dy, 1.0 );
+		// the first occurrence within each ancestor,
+		// like getElementsByTagName( tag ).item( 0 )
+		if ( RECORD_TAGS.contains( tag ) )
+			for ( ElementValues ancestor : ancestors )
+				ancestor.values.putIfAbsent( tag, value );
 	}
 
-	private double getDouble( Element element, String tag )
+	private void addRecords( ElementValues element )
 	{
-		try
+		if ( element.isImage )
 		{
-			return Double.parseDouble( element.getElementsByTagName( tag ).item( 0 ).getTextContent() );
+			if ( numImages == positionsX.length )
+			{
+				positionsX = Arrays.copyOf( positionsX, 2 * numImages );
+				positionsY = Arrays.copyOf( positionsY, 2 * numImages );
+				imageChannelIDs = Arrays.copyOf( imageChannelIDs, 2 * numImages );
+			}
+
+			positionsX[ numImages ] = parseDouble( element.values.get( POSITION_X ) );
+			positionsY[ numImages ] = parseDouble( element.values.get( POSITION_Y ) );
+			final String channelID = element.values.get( CHANNEL_ID );
+			imageChannelIDs[ numImages ] = channelID == null ? null : channelIDs.computeIfAbsent( channelID, id -> id );
+			filenameToImageIndex.put( element.values.get( URL ), numImages );
+			numImages++;
 		}
-		catch ( Exception e )
+
+		if ( element.isChannel && element.firstAttribute != null )
 		{
-			throw new RuntimeException( e );
+			final String wavelength = element.values.get( MAIN_EMISSION_WAVELENGTH );
+			if ( wavelength != null )
+				channelIDToWavelength.put( element.firstAttribute, Integer.parseInt( wavelength ) );
 		}
 	}
 
-	private int getInteger( Element element, String tag )
+	private static double parseDouble( String value )
 	{
-		try
-		{
-			return Integer.parseInt( element.getElementsByTagName( tag ).item( 0 ).getTextContent() );
-		}
-		catch ( Exception e )
-		{
-			throw new RuntimeException( e );
-		}
+		return value == null ? Double.NaN : Double.parseDouble( value );
 	}
 
-	private String getString( Element element, String tag )
+	public VoxelDimensions getVoxelDimensions( String path )
 	{
-		try
-		{
-			return element.getElementsByTagName( tag ).item( 0 ).getTextContent();
-		}
-		catch ( Exception e )
-		{
-			throw new RuntimeException( e );
-		}
+		// In Operetta 4 and 5 this is not consistently at the same position
+		// thus we just fetch it once globally. Hopefully it is the same for all
+		// images anyway.
+		return new FinalVoxelDimensions( spatialUnit, dx, dy, 1.0 );
 	}
 
-	private Element getImageElement( String path )
+	private int getImageIndexOrThrow( String path )
 	{
 		final String filename = new File( path ).getName();
-		final Element element = filenameToImageElement.get( filename );
-		if ( element == null )
+		final Integer imageIndex = filenameToImageIndex.get( filename );
+		if ( imageIndex == null )
 		{
 			System.err.println("Could not find operetta metadata for " + filename );
 			throw new RuntimeException();
 		}
-		return element;
+		return imageIndex;
 	}
 
 	public boolean contains( String path )
 	{
 		final String filename = new File( path ).getName();
-		return filenameToImageElement.containsKey( filename );
+		return filenameToImageIndex.containsKey( filename );
 	}
 
 	public double[] getRealPosition( String path )
 	{
-		final Element imageElement = getImageElement( path );
+		final int imageIndex = getImageIndexOrThrow( path );
 		return new double[]{
-				getDouble( imageElement, "PositionX" ),
-				-getDouble( imageElement, "PositionY" )
+				positionsX[ imageIndex ],
+				-positionsY[ imageIndex ]
 		};
 	}
 
 	public String getColor( String path )
 	{
-		final Element imageElement = getImageElement( path );
-		final String channelID = getString( imageElement, "ChannelID" );
-		final Element channelElement = channelIDToElement.get( channelID );
-		final int mainEmissionWavelength = getInteger( channelElement, "MainEmissionWavelength" );
+		final String channelID = imageChannelIDs[ getImageIndexOrThrow( path ) ];
+		final Integer mainEmissionWavelength = channelIDToWavelength.get( channelID );
+		if ( mainEmissionWavelength == null )
+			throw new RuntimeException( "Could not find the emission wavelength of channel " + channelID );
 
 		final Color color = ChannelProperties.getColorFromWavelength( mainEmissionWavelength );
 		final String string = ColorHelper.getString( ColorHelper.getARGBType( color ) );
@@ -228,4 +276,18 @@ public class OperettaMetadata
 		// TODO: fetch per channel via channelID of image
 		return new int[]{ imageSizeX, imageSizeY };
 	}
+
+	private static class ElementValues
+	{
+		private final String firstAttribute;
+		private final HashMap< String, String > values = new HashMap<>( 4 );
+		private int numChildren;
+		private boolean isImage;
+		private boolean isChannel;
+
+		ElementValues( String firstAttribute )
+		{
+			this.firstAttribute = firstAttribute;
+		}
+	}
 }
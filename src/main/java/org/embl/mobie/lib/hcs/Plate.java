@@ -51,9 +51,6 @@ import org.embl.mobie.lib.hcs.omezarr.OMEZarrHCSHelper;
 import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -80,6 +77,10 @@ public class Plate
 	private boolean is2d = true;
 	private int numSlices;
 	private boolean fetchSpatialMetadata = true;
+	private PlateIndex plateIndex;
+	private final Map< String, Channel > nameToChannel = new HashMap<>();
+	private final Map< Channel, Map< String, Well > > channelToWells = new HashMap<>();
+	private final Map< Well, Map< String, Site > > wellToSites = new HashMap<>();
 
 
 	public Plate( String hcsDirectory, @Nullable VoxelDimensions voxelDimensions ) throws IOException
@@ -93,6 +94,7 @@ public class Plate
 		IJ.log( "Looking for image files..." );
 		long start = System.currentTimeMillis();
 		List< String > imagePaths;
+		plateIndex = PlateIndex.open( hcsDirectory );
 
 		if ( hcsDirectory.endsWith( ".zarr" ) )
 		{
@@ -101,7 +103,6 @@ public class Plate
 			if ( IOHelper.getType( hcsDirectory ).equals( IOHelper.ResourceType.S3 ) )
 			{
 				imageDataFormat = ImageDataFormat.OmeZarrS3;
-				ThreadHelper.setNumIoThreads( Math.max( 16, ThreadHelper.getNumIoThreads() ) );
 			}
 			else
 			{
@@ -111,12 +112,19 @@ public class Plate
 			imagePaths = OMEZarrHCSHelper.imagePathsFromMetadata( hcsDirectory );
 			Collections.sort( imagePaths );
 			String referenceImagePath = imagePaths.get( 0 );
-			ImageData< ? > imageData = ImageDataOpener.open( referenceImagePath, imageDataFormat, ThreadHelper.sharedQueue );
-			int numChannels = imageData.getNumDatasets();
-			List< String > channelNames = IntStream.range( 0, numChannels )
-					.mapToObj( imageData::getName )
-					.collect( Collectors.toList() );
+			List< String > channelNames = plateIndex.getOMEZarrChannelNames( referenceImagePath );
+			if ( channelNames == null )
+			{
+				ImageData< ? > imageData = ImageDataOpener.open( referenceImagePath, imageDataFormat, ThreadHelper.sharedQueue );
+				int numChannels = imageData.getNumDatasets();
+				channelNames = IntStream.range( 0, numChannels )
+						.mapToObj( imageData::getName )
+						.collect( Collectors.toList() );
+				plateIndex.setOMEZarrChannelNames( referenceImagePath, channelNames );
+			}
 			hcsPattern.setChannelNames( channelNames );
+			plateIndex.setHcsPattern( hcsPattern );
+			plateIndex.retainImages( imagePaths );
 		}
 		else
 		{
@@ -124,20 +132,22 @@ public class Plate
 			{
 				imageDataFormat = ImageDataFormat.BioFormatsS3;
 				imagePaths = S3Utils.getS3FilePaths( hcsDirectory );
-				ThreadHelper.setNumIoThreads( Math.max( 16, ThreadHelper.getNumIoThreads() ) );
 			}
 			else
 			{
-				imagePaths = Files.walk( Paths.get( hcsDirectory ), 3 )
-						.map( Path::toString )
-						.collect( Collectors.toList() );
+				// only lists the directories that changed since the plate was last opened
+				imagePaths = plateIndex.listPaths();
 				imageDataFormat = ImageDataFormat.BioFormats;
 			}
 
-			hcsPattern = determineHCSPattern( hcsDirectory, imagePaths );
+			hcsPattern = plateIndex.getHcsPattern();
+			if ( hcsPattern == null )
+				hcsPattern = determineHCSPattern( hcsDirectory, imagePaths );
+			plateIndex.setHcsPattern( hcsPattern );
 			imagePaths = imagePaths.stream()
-					.filter( path -> hcsPattern.setMatcher( path ) ) // skip files like .DS_Store a.s.o.
+					.filter( path -> plateIndex.getImageEntry( path, hcsPattern ) != null ) // skip files like .DS_Store a.s.o.
 					.collect( Collectors.toList() );
+			plateIndex.retainImages( imagePaths );
 
 			if ( hcsPattern.equals( HCSPattern.Operetta ) )
 			{
@@ -167,6 +177,8 @@ public class Plate
 		IJ.log( "Image data format: " + imageDataFormat );
 
 		buildPlateMap( imagePaths );
+
+		plateIndex.save();
 	}
 
 	private void buildPlateMap( List< String > imagePaths )
@@ -179,14 +191,14 @@ public class Plate
 
 		for ( String imagePath : imagePaths )
 		{
-			hcsPattern.setMatcher( imagePath );
+			final PlateIndex.ImageEntry entry = plateIndex.getImageEntry( imagePath, hcsPattern );
 
 			// some formats contain multiple channels in one file
-			List< String > channelNames = hcsPattern.getChannels();
+			List< String > channelNames = entry.channels;
 
 			for ( String channelName : channelNames )
 			{
-				Channel channel = getChannel( channelWellSites, channelName );
+				Channel channel = nameToChannel.get( channelName );
 
 				if ( channel == null )
 				{
@@ -194,99 +206,42 @@ public class Plate
 					//
 					channel = new Channel( channelName, channelNames.indexOf( channelName ) );
 					channelWellSites.put( channel, new HashMap<>() );
+					nameToChannel.put( channelName, channel );
 
-					// Open for metadata only
-					ImageData< ? > imageData = ImageDataOpener.open( imagePath, imageDataFormat, ThreadHelper.sharedQueue );
-
-					// set channel metadata
-					//
-					if ( operettaMetadata != null ) // Do we still want to support the operetta stuff at all?
-					{
-						final String color = operettaMetadata.getColor( imagePath );
-						channel.setColor( color );
-
-						// TODO: There does not always seem to be enough metadata for the
-						//   contrast limits, thus opening one image may be worth it
-						//   then convert to imagePlus and run once auto contrast on it
-						final double[] contrastLimits = operettaMetadata.getContrastLimits( imagePath );
-						channel.setContrastLimits( contrastLimits );
-					}
-					else // from image file
-					{
-						int datasetIndex = channel.getIndex();
-
-						IJ.log( "Fetching metadata for " + channelName + " from " + imagePath );
-						Source< ? > source = imageData.getSourcePair( datasetIndex ).getA();
-						int numMipmapLevels = source.getNumMipmapLevels();
-						numSlices = ( int ) source.getSource( 0, 0 ).dimension( 2 );
-						RandomAccessibleInterval< ? > rai = source.getSource( 0, numMipmapLevels - 1 );
-						double[] minMax = computeMinMax( ( RandomAccessibleInterval ) rai );
-						IJ.log( "Min, max: " + Arrays.toString( minMax ) );
-						channel.setColor( ColorHelper.getString( imageData.getMetadata( datasetIndex ).getColor() ) );
-						// This currently does not do any auto-contrast, but just returns the datatype's range
-//						double[] contrastLimits = {
-//								imageData.getMetadata( datasetIndex ).minIntensity(),
-//								imageData.getMetadata( datasetIndex ).maxIntensity()
-//						};
-						channel.setContrastLimits( minMax );
-					}
-
-					if ( fetchSpatialMetadata )
+					final PlateIndex.ChannelMetadata channelMetadata = plateIndex.getChannelMetadata( channelName );
+					final PlateIndex.SpatialMetadata spatialMetadata = plateIndex.getSpatialMetadata();
+					if ( channelMetadata != null && ( ! fetchSpatialMetadata || spatialMetadata != null ) )
 					{
-						fetchSpatialMetadata= false; // should be the same for all files and channels
+						// from the plate index, without opening an image
+						channel.setColor( channelMetadata.color );
+						channel.setContrastLimits( channelMetadata.contrastLimits );
 
-						if ( operettaMetadata != null )
+						if ( fetchSpatialMetadata )
 						{
-							voxelDimensions = operettaMetadata.getVoxelDimensions( imagePath );
-							siteDimensions = operettaMetadata.getSiteDimensions( imagePath );
+							fetchSpatialMetadata = false; // should be the same for all files and channels
+							voxelDimensions = new FinalVoxelDimensions( spatialMetadata.unit, spatialMetadata.voxelSize );
+							siteDimensions = spatialMetadata.siteDimensions;
+							numSlices = spatialMetadata.numSlices;
+							siteRealDimensions = new double[]{
+									siteDimensions[ 0 ] * voxelDimensions.dimension( 0 ),
+									siteDimensions[ 1 ] * voxelDimensions.dimension( 1 ) };
 						}
-						else // from image file
-						{
-							Source< ? > source = imageData.getSourcePair( channel.getIndex() ).getA();
-
-							voxelDimensions = source.getVoxelDimensions();
-
-							if ( voxelDimensions == null )
-							{
-								/*
-								If the z-positions are distributed over multiple files
-								typically the z-calibration metadata in the individual files is wrong.
-								We thus just put something sensible here such that browsing in BDV along the
-								z-axis is convenient
-								 */
-								voxelDimensions = new FinalVoxelDimensions(
-										voxelDimensions.unit(),
-										voxelDimensions.dimension( 0 ),
-										voxelDimensions.dimension( 1 ),
-										10 * voxelDimensions.dimension( 1 )
-								);
-							}
-
-							long width = source.getSource( 0, 0 ).dimension( 0 );
-							long height = source.getSource( 0, 0 ).dimension( 1 );
-							siteDimensions = new int[]{ ( int ) width, ( int ) height };
-						}
-
-						// compute derived spatial metadata
-						//
-						siteRealDimensions = new double[]{
-								siteDimensions[ 0 ] * voxelDimensions.dimension( 0 ),
-								siteDimensions[ 1 ] * voxelDimensions.dimension( 1 ) };
-
-						siteRealDimensions = new double[]{
-								siteDimensions[ 0 ] * voxelDimensions.dimension( 0 ),
-								siteDimensions[ 1 ] * voxelDimensions.dimension( 1 ) };
+					}
+					else
+					{
+						fetchChannelMetadata( imagePath, channel );
 					}
 				}
 
 				// well
 				//
-				String wellGroup = hcsPattern.getWellGroup();
-				Well well = getWell( channelWellSites, channel, wellGroup );
+				String wellGroup = entry.well;
+				Well well = channelToWells.computeIfAbsent( channel, c -> new HashMap<>() ).get( wellGroup );
 				if ( well == null )
 				{
 					well = new Well( wellGroup );
 					channelWellSites.get( channel ).put( well, new HashSet<>() );
+					channelToWells.get( channel ).put( wellGroup, well );
 					final int numWells = channelWellSites.get( channel ).size();
 					if ( numWells > wellsPerPlate )
 						wellsPerPlate = numWells;
@@ -294,8 +249,8 @@ public class Plate
 
 				// site
 				//
-				final String siteGroup = hcsPattern.getSiteGroup();
-				Site site = getSite( channelWellSites, channel, well, siteGroup );
+				final String siteGroup = entry.site;
+				Site site = wellToSites.computeIfAbsent( well, w -> new HashMap<>() ).get( siteGroup );
 				if ( site == null )
 				{
 					if ( imageDataFormat.equals( ImageDataFormat.SpimData ) )
@@ -317,6 +272,7 @@ public class Plate
 					site.setDimensions( siteDimensions );
 					site.setVoxelDimensions( voxelDimensions );
 					channelWellSites.get( channel ).get( well ).add( site );
+					wellToSites.get( well ).put( siteGroup, site );
 					if ( Integer.parseInt( site.getId() ) == 0 )
 						siteIDsAreOneBased = false; // zero based
 					final int numSites = channelWellSites.get( channel ).get( well ).size();
@@ -331,8 +287,8 @@ public class Plate
 				}
 				else
 				{
-					final String t = hcsPattern.getT();
-					final String z = hcsPattern.getZ();
+					final String t = entry.t;
+					final String z = entry.z;
 					site.addPath( t, z, imagePath );
 					tPositions.add( new TPosition( t ) );
 					numSlices = Math.max( numSlices, site.getZPositions().size() );
@@ -352,41 +308,98 @@ public class Plate
 	}
 
 
-	private Channel getChannel( HashMap< Channel, Map< Well, Set< Site > > > channelWellSites, String channelName )
+	private void fetchChannelMetadata( String imagePath, Channel channel )
 	{
-		try
-		{
-			return channelWellSites.keySet().stream().filter( c -> c.getName().equals( channelName ) ).findFirst().get();
-		}
-		catch ( NoSuchElementException e )
-		{
-			return null;
-		}
-
-	}
+		// Open for metadata only
+		ImageData< ? > imageData = ImageDataOpener.open( imagePath, imageDataFormat, ThreadHelper.sharedQueue );
 
-	private Well getWell( HashMap< Channel, Map< Well, Set< Site > > > channelWellSites, Channel channel, String wellName )
-	{
-		try
+		// set channel metadata
+		//
+		if ( operettaMetadata != null ) // Do we still want to support the operetta stuff at all?
 		{
-			return channelWellSites.get( channel ).keySet().stream().filter( w -> w.getName().equals( wellName ) ).findFirst().get();
+			final String color = operettaMetadata.getColor( imagePath );
+			channel.setColor( color );
+
+			// TODO: There does not always seem to be enough metadata for the
+			//   contrast limits, thus opening one image may be worth it
+			//   then convert to imagePlus and run once auto contrast on it
+			final double[] contrastLimits = operettaMetadata.getContrastLimits( imagePath );
+			channel.setContrastLimits( contrastLimits );
 		}
-		catch ( NoSuchElementException e )
+		else // from image file
 		{
-			return null;
+			int datasetIndex = channel.getIndex();
+
+			IJ.log( "Fetching metadata for " + channel.getName() + " from " + imagePath );
+			Source< ? > source = imageData.getSourcePair( datasetIndex ).getA();
+			int numMipmapLevels = source.getNumMipmapLevels();
+			numSlices = ( int ) source.getSource( 0, 0 ).dimension( 2 );
+			RandomAccessibleInterval< ? > rai = source.getSource( 0, numMipmapLevels - 1 );
+			double[] minMax = computeMinMax( ( RandomAccessibleInterval ) rai );
+			IJ.log( "Min, max: " + Arrays.toString( minMax ) );
+			channel.setColor( ColorHelper.getString( imageData.getMetadata( datasetIndex ).getColor() ) );
+			// This currently does not do any auto-contrast, but just returns the datatype's range
+//						double[] contrastLimits = {
+//								imageData.getMetadata( datasetIndex ).minIntensity(),
+//								imageData.getMetadata( datasetIndex ).maxIntensity()
+//						};
+			channel.setContrastLimits( minMax );
 		}
-	}
 
-	private Site getSite( HashMap< Channel, Map< Well, Set< Site > > > channelWellSites, Channel channel, Well well, String siteName )
-	{
-		try
-		{
-			return channelWellSites.get( channel ).get( well ).stream().filter( s -> s.getId().equals( siteName ) ).findFirst().get();
-		}
-		catch ( NoSuchElementException e )
+		if ( fetchSpatialMetadata )
 		{
-			return null;
+			fetchSpatialMetadata= false; // should be the same for all files and channels
+
+			if ( operettaMetadata != null )
+			{
+				voxelDimensions = operettaMetadata.getVoxelDimensions( imagePath );
+				siteDimensions = operettaMetadata.getSiteDimensions( imagePath );
+			}
+			else // from image file
+			{
+				Source< ? > source = imageData.getSourcePair( channel.getIndex() ).getA();
+
+				voxelDimensions = source.getVoxelDimensions();
+
+				if ( voxelDimensions == null )
+				{
+					/*
+					If the z-positions are distributed over multiple files
+					typically the z-calibration metadata in the individual files is wrong.
+					We thus just put something sensible here such that browsing in BDV along the
+					z-axis is convenient
+					 */
+					voxelDimensions = new FinalVoxelDimensions(
+							voxelDimensions.unit(),
+							voxelDimensions.dimension( 0 ),
+							voxelDimensions.dimension( 1 ),
+							10 * voxelDimensions.dimension( 1 )
+					);
+				}
+
+				long width = source.getSource( 0, 0 ).dimension( 0 );
+				long height = source.getSource( 0, 0 ).dimension( 1 );
+				siteDimensions = new int[]{ ( int ) width, ( int ) height };
+			}
+
+			// compute derived spatial metadata
+			//
+			siteRealDimensions = new double[]{
+					siteDimensions[ 0 ] * voxelDimensions.dimension( 0 ),
+					siteDimensions[ 1 ] * voxelDimensions.dimension( 1 ) };
+
+			siteRealDimensions = new double[]{
+					siteDimensions[ 0 ] * voxelDimensions.dimension( 0 ),
+					siteDimensions[ 1 ] * voxelDimensions.dimension( 1 ) };
+
+			plateIndex.setSpatialMetadata(
+					voxelDimensions.unit(),
+					voxelDimensions.dimensionsAsDoubleArray(),
+					siteDimensions,
+					numSlices );
 		}
+
+		plateIndex.setChannelMetadata( channel.getName(), channel.getColor(), channel.getContrastLimits() );
 	}
 
 	private HCSPattern determineHCSPattern( String hcsDirectory, List< String > paths )
@@ -0,0 +1,338 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.hcs;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import ij.IJ;
+import org.embl.mobie.lib.MoBIEHelper;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * On-disk index of the layout of an HCS plate, such that reopening a plate
+ * neither needs to list all files, nor to parse all their names,
+ * nor to open images to fetch the channel metadata.
+ *
+ * The index is stored in the user's home directory,
+ * because the plate itself may be read-only or remote.
+ *
+ * For local plates, the files of a directory are only listed again
+ * if the modification time of the directory changed, e.g. because
+ * new wells have been acquired; the names of new files are parsed,
+ * while the entries of known files are reused.
+ */
+public class PlateIndex
+{
+	public static final int VERSION = 1;
+
+	private static final File INDEX_DIRECTORY = new File( System.getProperty( "user.home" ), ".mobie" + File.separator + "plates" );
+
+	// the number of directory levels below the plate directory that are searched for images
+	private static final int MAX_DEPTH = 3;
+
+	private int version = VERSION;
+	private String hcsDirectory;
+	private String hcsPattern;
+	private String omeZarrReferenceImage;
+	private List< String > omeZarrChannelNames;
+	private HashMap< String, DirectoryListing > directories = new HashMap<>();
+	private HashMap< String, ImageEntry > images = new HashMap<>();
+	private HashMap< String, ChannelMetadata > channels = new HashMap<>();
+	private SpatialMetadata spatialMetadata;
+
+	private transient boolean modified = false;
+
+	public static class DirectoryListing
+	{
+		long lastModified;
+		List< String > files = new ArrayList<>();
+		List< String > subDirectories = new ArrayList<>();
+	}
+
+	/**
+	 * The parsed coordinates of one image file within the plate.
+	 */
+	public static class ImageEntry
+	{
+		public List< String > channels;
+		public String well;
+		public String site;
+		public String t;
+		public String z;
+	}
+
+	public static class ChannelMetadata
+	{
+		public String color;
+		public double[] contrastLimits;
+	}
+
+	public static class SpatialMetadata
+	{
+		public String unit;
+		public double[] voxelSize;
+		public int[] siteDimensions;
+		public int numSlices;
+	}
+
+	private PlateIndex( String hcsDirectory )
+	{
+		this.hcsDirectory = hcsDirectory;
+	}
+
+	/**
+	 * @return the stored index of the plate, or an empty index if there is no valid index
+	 */
+	public static PlateIndex open( String hcsDirectory )
+	{
+		final File file = getIndexFile( hcsDirectory );
+		if ( file.exists() )
+		{
+			try ( Reader reader = Files.newBufferedReader( file.toPath(), StandardCharsets.UTF_8 ) )
+			{
+				final PlateIndex index = new Gson().fromJson( reader, PlateIndex.class );
+				if ( index != null && index.version == VERSION && hcsDirectory.equals( index.hcsDirectory ) )
+					return index;
+			}
+			catch ( Exception e )
+			{
+				IJ.log( "Could not read the plate index " + file + ": " + e.getMessage() );
+			}
+		}
+
+		return new PlateIndex( hcsDirectory );
+	}
+
+	/**
+	 * Stores the index, if it has been modified since it has been opened.
+	 */
+	public void save()
+	{
+		if ( ! modified ) return;
+
+		final File file = getIndexFile( hcsDirectory );
+		try
+		{
+			Files.createDirectories( file.getParentFile().toPath() );
+
+			// write to a temporary file first, such that
+			// an interrupted write does not leave a corrupt index
+			final Path tmp = Files.createTempFile( file.getParentFile().toPath(), file.getName(), ".tmp" );
+			try ( Writer writer = Files.newBufferedWriter( tmp, StandardCharsets.UTF_8 ) )
+			{
+				new GsonBuilder().create().toJson( this, writer );
+			}
+			Files.move( tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING );
+			modified = false;
+		}
+		catch ( Exception e )
+		{
+			IJ.log( "Could not save the plate index " + file + ": " + e.getMessage() );
+		}
+	}
+
+	/**
+	 * Lists all files and directories up to {@code MAX_DEPTH} levels below the
+	 * plate directory, like {@code Files.walk( hcsDirectory, MAX_DEPTH )},
+	 * but only lists directories whose modification time changed.
+	 */
+	public List< String > listPaths() throws IOException
+	{
+		final HashMap< String, DirectoryListing > currentDirectories = new HashMap<>();
+		final List< String > paths = new ArrayList<>();
+		listPaths( Paths.get( hcsDirectory ), 0, currentDirectories, paths );
+
+		// forget about directories that do not exist anymore
+		if ( ! currentDirectories.keySet().equals( directories.keySet() ) )
+			modified = true;
+		directories = currentDirectories;
+
+		return paths;
+	}
+
+	private void listPaths( Path directory, int depth, Map< String, DirectoryListing > currentDirectories, List< String > paths ) throws IOException
+	{
+		final String key = directory.toString();
+		final long lastModified = Files.getLastModifiedTime( directory ).toMillis();
+
+		DirectoryListing listing = directories.get( key );
+		if ( listing == null || listing.lastModified != lastModified )
+		{
+			listing = new DirectoryListing();
+			listing.lastModified = lastModified;
+			try ( Stream< Path > children = Files.list( directory ) )
+			{
+				for ( Path child : children.sorted().collect( Collectors.toList() ) )
+				{
+					if ( Files.isDirectory( child ) )
+						listing.subDirectories.add( child.getFileName().toString() );
+					else
+						listing.files.add( child.getFileName().toString() );
+				}
+			}
+			modified = true;
+		}
+		currentDirectories.put( key, listing );
+
+		for ( String file : listing.files )
+			paths.add( directory.resolve( file ).toString() );
+
+		for ( String subDirectory : listing.subDirectories )
+		{
+			final Path path = directory.resolve( subDirectory );
+			paths.add( path.toString() );
+			if ( depth + 1 < MAX_DEPTH )
+				listPaths( path, depth + 1, currentDirectories, paths );
+		}
+	}
+
+	/**
+	 * Returns the parsed entry of the image path,
+	 * parsing and adding it if it is not yet known.
+	 *
+	 * @return the entry or null if the path does not match the pattern
+	 */
+	@Nullable
+	public ImageEntry getImageEntry( String path, HCSPattern pattern )
+	{
+		ImageEntry entry = images.get( path );
+		if ( entry != null )
+			return entry;
+
+		if ( ! pattern.setMatcher( path ) )
+			return null;
+
+		entry = new ImageEntry();
+		entry.channels = new ArrayList<>( pattern.getChannels() );
+		entry.well = pattern.getWellGroup();
+		entry.site = pattern.getSiteGroup();
+		entry.t = pattern.getT();
+		entry.z = pattern.getZ();
+		images.put( path, entry );
+		modified = true;
+		return entry;
+	}
+
+	/**
+	 * Removes the entries of images that are not in the given paths.
+	 */
+	public void retainImages( List< String > paths )
+	{
+		if ( images.keySet().retainAll( new HashSet<>( paths ) ) )
+			modified = true;
+	}
+
+	@Nullable
+	public HCSPattern getHcsPattern()
+	{
+		return hcsPattern == null ? null : HCSPattern.valueOf( hcsPattern );
+	}
+
+	public void setHcsPattern( HCSPattern pattern )
+	{
+		if ( pattern.name().equals( hcsPattern ) ) return;
+		hcsPattern = pattern.name();
+		// entries that were parsed with another pattern are invalid
+		images.clear();
+		modified = true;
+	}
+
+	/**
+	 * @return the channel names of the OME-Zarr plate,
+	 * 			if they have been fetched from the same reference image
+	 */
+	@Nullable
+	public List< String > getOMEZarrChannelNames( String referenceImage )
+	{
+		return referenceImage.equals( omeZarrReferenceImage ) ? omeZarrChannelNames : null;
+	}
+
+	public void setOMEZarrChannelNames( String referenceImage, List< String > channelNames )
+	{
+		omeZarrReferenceImage = referenceImage;
+		omeZarrChannelNames = new ArrayList<>( channelNames );
+		// the entries contain the channel names
+		images.clear();
+		modified = true;
+	}
+
+	@Nullable
+	public ChannelMetadata getChannelMetadata( String channelName )
+	{
+		return channels.get( channelName );
+	}
+
+	public void setChannelMetadata( String channelName, String color, double[] contrastLimits )
+	{
+		final ChannelMetadata metadata = new ChannelMetadata();
+		metadata.color = color;
+		metadata.contrastLimits = contrastLimits;
+		channels.put( channelName, metadata );
+		modified = true;
+	}
+
+	@Nullable
+	public SpatialMetadata getSpatialMetadata()
+	{
+		return spatialMetadata;
+	}
+
+	public void setSpatialMetadata( String unit, double[] voxelSize, int[] siteDimensions, int numSlices )
+	{
+		spatialMetadata = new SpatialMetadata();
+		spatialMetadata.unit = unit;
+		spatialMetadata.voxelSize = voxelSize;
+		spatialMetadata.siteDimensions = siteDimensions;
+		spatialMetadata.numSlices = numSlices;
+		modified = true;
+	}
+
+	public static File getIndexFile( String hcsDirectory )
+	{
+		final String name = new File( hcsDirectory ).getName();
+		return new File( INDEX_DIRECTORY, name + "-" + MoBIEHelper.shortHash( hcsDirectory ) + ".json" );
+	}
+}
@@ -33,16 +33,25 @@ import com.google.gson.reflect.TypeToken;
 import ij.IJ;
 import org.embl.mobie.io.util.IOHelper;
 import org.embl.mobie.lib.MoBIEHelper;
+import org.embl.mobie.lib.PriorityExecutorService;
 import org.embl.mobie.lib.ThreadHelper;
 import org.embl.mobie.lib.serialize.JsonHelper;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -52,6 +61,20 @@ public class OMEZarrHCSHelper
 {
     public static final String ZATTRS = "/.zattrs";
 
+    // not final, such that tests can use another directory
+    static File cacheDirectory = new File( System.getProperty( "user.home" ), ".mobie" + File.separator + "ome-zarr-plates" );
+
+    // the wells of cached plates are checked one plate at a time
+    private static final ExecutorService REVALIDATION_EXECUTOR = Executors.newSingleThreadExecutor( runnable ->
+    {
+        final Thread thread = new Thread( runnable, "MoBIE-ome-zarr-plate-revalidation" );
+        thread.setDaemon( true );
+        return thread;
+    } );
+
+    // the latest revalidation of the cached image paths, for tests
+    static volatile Future< ? > revalidation;
+
     public static List< String > sitePathsFromFolderStructure( String hcsDirectory ) throws IOException
     {
         List< String > imageSitePaths;
@@ -69,11 +92,33 @@ public class OMEZarrHCSHelper
 
     public static List< String > imagePathsFromMetadata( String hcsDirectory ) throws IOException
     {
-        List< String > imagePaths = new CopyOnWriteArrayList<>();
         Gson gson = JsonHelper.buildGson(false);
 
         final String plateJson = IOHelper.read( hcsDirectory + ZATTRS );
         //System.out.println( plateJson );
+
+        // the image paths of previous sessions are reused
+        // as long as the plate metadata did not change;
+        // as the wells can change independently of the plate,
+        // e.g. during acquisition, the wells are re-read in the background
+        final File cacheFile = getCacheFile( hcsDirectory, plateJson );
+        final List< String > cachedImagePaths = readCachedImagePaths( cacheFile, gson );
+        if ( cachedImagePaths != null )
+        {
+            IJ.log( "Fetched " + cachedImagePaths.size() + " image path(s) from " + cacheFile );
+            revalidation = REVALIDATION_EXECUTOR.submit( () -> revalidate( hcsDirectory, plateJson, cacheFile, cachedImagePaths, gson ) );
+            return cachedImagePaths;
+        }
+
+        final List< String > imagePaths = fetchImagePaths( hcsDirectory, plateJson, gson, PriorityExecutorService.Priority.Normal );
+        writeCachedImagePaths( cacheFile, imagePaths, gson );
+
+        return imagePaths;
+    }
+
+    private static List< String > fetchImagePaths( String hcsDirectory, String plateJson, Gson gson, PriorityExecutorService.Priority priority )
+    {
+        List< String > imagePaths = new CopyOnWriteArrayList<>();
         HCSMetadata hcsMetadata = gson.fromJson(plateJson, new TypeToken< HCSMetadata >() {}.getType());
         int numWells = hcsMetadata.plate.wells.size();
 
@@ -82,23 +127,91 @@ public class OMEZarrHCSHelper
         AtomicInteger sourceLoggingModulo = new AtomicInteger(1);
         AtomicLong lastLogMillis = new AtomicLong( System.currentTimeMillis() );
         final long startTime = System.currentTimeMillis();
-        parseWells( hcsMetadata, wellIndex, numWells, sourceLoggingModulo, lastLogMillis, hcsDirectory, gson, imagePaths );
-        IJ.log( "Parsed " + numWells + " well(s) in " + (System.currentTimeMillis() - startTime) + " ms, using up to " + ThreadHelper.getNumIoThreads() + " thread(s).");
+        final boolean log = priority != PriorityExecutorService.Priority.Background;
+        parseWells( hcsMetadata, wellIndex, numWells, sourceLoggingModulo, lastLogMillis, hcsDirectory, gson, imagePaths, priority, log );
+        if ( log )
+            IJ.log( "Parsed " + numWells + " well(s) in " + (System.currentTimeMillis() - startTime) + " ms, using up to " + ThreadHelper.getIoExecutorService( hcsDirectory ).getNumThreads() + " thread(s).");
 
-        return imagePaths;
+        // sort, such that the order does not depend on the order in which the wells were fetched
+        final ArrayList< String > sortedImagePaths = new ArrayList<>( imagePaths );
+        Collections.sort( sortedImagePaths );
+        return sortedImagePaths;
+    }
+
+    private static void revalidate( String hcsDirectory, String plateJson, File cacheFile, List< String > cachedImagePaths, Gson gson )
+    {
+        final List< String > imagePaths;
+        try
+        {
+            imagePaths = fetchImagePaths( hcsDirectory, plateJson, gson, PriorityExecutorService.Priority.Background );
+        }
+        catch ( Exception e )
+        {
+            IJ.log( "[WARNING] Could not check the wells of " + hcsDirectory + ": " + e.getMessage() );
+            return;
+        }
+
+        if ( imagePaths.equals( cachedImagePaths ) )
+            return;
+
+        writeCachedImagePaths( cacheFile, imagePaths, gson );
+        IJ.log( "[WARNING] The wells of " + hcsDirectory + " changed and now contain " + imagePaths.size() + " image(s), " +
+                "instead of " + cachedImagePaths.size() + "; please reopen the plate to see all images." );
+    }
+
+    /**
+     * The cache file is addressed by the plate location and the content of
+     * the plate metadata, such that a changed plate is not read from the cache.
+     */
+    private static File getCacheFile( String hcsDirectory, String plateJson )
+    {
+        return new File( cacheDirectory, MoBIEHelper.shortHash( hcsDirectory + "\n" + plateJson ) + ".json" );
+    }
+
+    private static List< String > readCachedImagePaths( File cacheFile, Gson gson )
+    {
+        if ( ! cacheFile.exists() ) return null;
+
+        try ( Reader reader = Files.newBufferedReader( cacheFile.toPath(), StandardCharsets.UTF_8 ) )
+        {
+            return gson.fromJson( reader, new TypeToken< List< String > >() {}.getType() );
+        }
+        catch ( Exception e )
+        {
+            IJ.log( "Could not read " + cacheFile + ": " + e.getMessage() );
+            return null;
+        }
+    }
+
+    private static void writeCachedImagePaths( File cacheFile, List< String > imagePaths, Gson gson )
+    {
+        try
+        {
+            Files.createDirectories( cacheDirectory.toPath() );
+            final Path tmp = Files.createTempFile( cacheDirectory.toPath(), cacheFile.getName(), ".tmp" );
+            try ( Writer writer = Files.newBufferedWriter( tmp, StandardCharsets.UTF_8 ) )
+            {
+                gson.toJson( imagePaths, writer );
+            }
+            Files.move( tmp, cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING );
+        }
+        catch ( Exception e )
+        {
+            IJ.log( "Could not cache the OME-Zarr plate metadata in " + cacheFile + ": " + e.getMessage() );
+        }
     }
 
-    private static void parseWells( HCSMetadata hcsMetadata, AtomicInteger wellIndex, int numWells, AtomicInteger sourceLoggingModulo, AtomicLong lastLogMillis, String plateUri, Gson gson, List< String > imageSitePaths )
+    private static void parseWells( HCSMetadata hcsMetadata, AtomicInteger wellIndex, int numWells, AtomicInteger sourceLoggingModulo, AtomicLong lastLogMillis, String plateUri, Gson gson, List< String > imageSitePaths, PriorityExecutorService.Priority priority, boolean log )
     {
         ArrayList< Future< ? > > futures = ThreadHelper.getFutures();
         for ( Well well : hcsMetadata.plate.wells )
         {
             futures.add(
-                ThreadHelper.ioExecutorService.submit( () ->
+                ThreadHelper.getIoExecutorService( plateUri ).submit( () ->
                     {
-                        String log = MoBIEHelper.getLog( wellIndex, numWells, sourceLoggingModulo, lastLogMillis );
-                        if ( log != null )
-                            IJ.log( log + well.path );
+                        String logMessage = log ? MoBIEHelper.getLog( wellIndex, numWells, sourceLoggingModulo, lastLogMillis ) : null;
+                        if ( logMessage != null )
+                            IJ.log( logMessage + well.path );
 
                         String wellUri = IOHelper.combinePath( plateUri, well.path);
                         final String wellJson;
@@ -116,7 +229,8 @@ public class OMEZarrHCSHelper
                             String imageUri = IOHelper.combinePath( wellUri, image.path );
                             imageSitePaths.add( imageUri );
                         }
-                    }
+                    },
+                    priority
                 ) );
         }
         ThreadHelper.waitUntilFinished( futures );
@@ -47,6 +47,7 @@ import org.embl.mobie.lib.table.saw.TableSawAnnotatedImages;
 import org.embl.mobie.lib.transform.TransformHelper;
 import org.jetbrains.annotations.NotNull;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -66,6 +67,8 @@ public class RegionAnnotationImage< AR extends AnnotatedRegion > implements Anno
 	private RealMaskRealInterval mask;
 	private boolean debug = false;
 	private List< AR > annotations;
+	private volatile RegionIndex< AR > regionIndex;
+	private volatile int maskVersion;
 
 	/**
 	 * Builds a label image to visualise all {@code AnnotatedRegion} in the
@@ -146,18 +149,13 @@ public class RegionAnnotationImage< AR extends AnnotatedRegion > implements Anno
 				}
 
 				// It was not in the recent mask,
-				// so we need to test all the others.
-				for ( AR annotation : annotations )
+				// so we need to test the others that are close by.
+				final AR annotation = getRegionIndex().getRegion( location, recentAnnotation );
+				if ( annotation != null )
 				{
-					if ( annotation == recentAnnotation )
-						continue; // that one has been checked already above
-
-					if ( annotation.getMask().test( location ) )
-					{
-						recentAnnotation = annotation;
-						value.setAnnotation( recentAnnotation );
-						return;
-					}
+					recentAnnotation = annotation;
+					value.setAnnotation( recentAnnotation );
+					return;
 				}
 
 				// The location is not within any mask => it is background
@@ -175,6 +173,9 @@ public class RegionAnnotationImage< AR extends AnnotatedRegion > implements Anno
 
 			annotations = annData.getTable().annotations();
 
+			// The masks of the regions change when their images are transformed.
+			RegionIndexInvalidator.register( this );
+
 			// one could add a time point parameter to LocationToAnnotatedRegionSupplier
 			// and then make a Map< Timepoint, regions > and modify RealRandomAccessibleIntervalTimelapseSource to consume this map
 			final FunctionRealRandomAccessible< AnnotationType< AR > > regions = new FunctionRealRandomAccessible( 3, new LocationToAnnotatedRegionSupplier(), () -> new AnnotationType<>( annotations.get( 0 ) ) );
@@ -208,6 +209,33 @@ public class RegionAnnotationImage< AR extends AnnotatedRegion > implements Anno
 		return name;
 	}
 
+	private RegionIndex< AR > getRegionIndex()
+	{
+		RegionIndex< AR > index = regionIndex;
+		if ( index == null )
+		{
+			synchronized ( this )
+			{
+				index = regionIndex;
+				if ( index == null )
+				{
+					final int version = maskVersion;
+					index = new RegionIndex<>( annotations );
+					// do not keep an index of masks that changed while building it
+					if ( version == maskVersion )
+						regionIndex = index;
+				}
+			}
+		}
+		return index;
+	}
+
+	private void invalidateRegionIndex()
+	{
+		maskVersion++;
+		regionIndex = null;
+	}
+
 	@Override
 	public void transform( AffineTransform3D affineTransform3D )
 	{
@@ -223,6 +251,7 @@ public class RegionAnnotationImage< AR extends AnnotatedRegion > implements Anno
 					.collect( Collectors.toList() );
 
 			allImages.stream().forEach( image -> image.transform( affineTransform3D ) );
+			invalidateRegionIndex();
 		}
 		else
 		{
@@ -268,4 +297,38 @@ public class RegionAnnotationImage< AR extends AnnotatedRegion > implements Anno
 	{
 		throw new RuntimeException("Setting a mask of a " + this.getClass() + " is currently not supported.");
 	}
+
+	/**
+	 * Invalidates the region index of an image when any image changes.
+	 *
+	 * As the image listeners are static, the invalidator only weakly
+	 * references its image, such that closed images can be garbage collected;
+	 * invalidators of collected images are removed when the next one is registered.
+	 */
+	private static class RegionIndexInvalidator implements ImageListener
+	{
+		private final WeakReference< RegionAnnotationImage< ? > > image;
+
+		private RegionIndexInvalidator( RegionAnnotationImage< ? > image )
+		{
+			this.image = new WeakReference<>( image );
+		}
+
+		static void register( RegionAnnotationImage< ? > image )
+		{
+			for ( ImageListener listener : Image.listeners.listCopy() )
+				if ( listener instanceof RegionIndexInvalidator && ( ( RegionIndexInvalidator ) listener ).image.get() == null )
+					Image.listeners.remove( listener );
+
+			Image.listeners.add( new RegionIndexInvalidator( image ) );
+		}
+
+		@Override
+		public void imageChanged()
+		{
+			final RegionAnnotationImage< ? > regionAnnotationImage = image.get();
+			if ( regionAnnotationImage != null )
+				regionAnnotationImage.invalidateRegionIndex();
+		}
+	}
 }
@@ -0,0 +1,185 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.image;
+
+import net.imglib2.RealLocalizable;
+import net.imglib2.roi.RealMaskRealInterval;
+import org.embl.mobie.lib.annotation.Region;
+
+import java.util.List;
+
+/**
+ * A uniform 2D (xy) grid over the bounding boxes of regions,
+ * to find the region at a location without testing all region masks.
+ *
+ * Each grid cell lists the regions whose bounding box overlaps the cell,
+ * in the order of the given list, such that the lookup returns the same
+ * region as a linear scan over the list.
+ *
+ * The index captures the region masks at construction time,
+ * thus it must be rebuilt when the regions are transformed.
+ *
+ * @param <R> a region
+ */
+public class RegionIndex< R extends Region >
+{
+	private static final int MAX_CELLS_PER_DIMENSION = 1024;
+
+	private final List< R > regions;
+	private final double[] min = new double[ 2 ];
+	private final double[] cellSize = new double[ 2 ];
+	private final int[] numCells = new int[ 2 ];
+
+	// the regions of cell c are cellRegions[ cellStart[ c ] ] ... cellRegions[ cellStart[ c + 1 ] - 1 ]
+	private final int[] cellStart;
+	private final int[] cellRegions;
+
+	public RegionIndex( List< R > regions )
+	{
+		this.regions = regions;
+
+		final int numRegions = regions.size();
+		final double[][] regionMin = new double[ numRegions ][];
+		final double[][] regionMax = new double[ numRegions ][];
+		final double[] max = new double[ 2 ];
+		final double[] meanExtent = new double[ 2 ];
+		for ( int d = 0; d < 2; d++ )
+		{
+			min[ d ] = Double.MAX_VALUE;
+			max[ d ] = -Double.MAX_VALUE;
+		}
+
+		for ( int r = 0; r < numRegions; r++ )
+		{
+			final RealMaskRealInterval mask = regions.get( r ).getMask();
+			regionMin[ r ] = new double[]{ mask.realMin( 0 ), mask.realMin( 1 ) };
+			regionMax[ r ] = new double[]{ mask.realMax( 0 ), mask.realMax( 1 ) };
+			for ( int d = 0; d < 2; d++ )
+			{
+				min[ d ] = Math.min( min[ d ], regionMin[ r ][ d ] );
+				max[ d ] = Math.max( max[ d ], regionMax[ r ][ d ] );
+				meanExtent[ d ] += ( regionMax[ r ][ d ] - regionMin[ r ][ d ] ) / numRegions;
+			}
+		}
+
+		// cells of about the size of a region,
+		// such that each cell overlaps only a few regions
+		for ( int d = 0; d < 2; d++ )
+		{
+			final double extent = max[ d ] - min[ d ];
+			cellSize[ d ] = Math.max( meanExtent[ d ], extent / MAX_CELLS_PER_DIMENSION );
+			if ( ! ( cellSize[ d ] > 0 ) ) cellSize[ d ] = 1.0;
+			numCells[ d ] = Math.max( 1, Math.min( MAX_CELLS_PER_DIMENSION, ( int ) Math.ceil( extent / cellSize[ d ] ) ) );
+		}
+
+		// count the regions per cell
+		cellStart = new int[ numCells[ 0 ] * numCells[ 1 ] + 1 ];
+		final int[][] cellRanges = new int[ numRegions ][];
+		for ( int r = 0; r < numRegions; r++ )
+		{
+			cellRanges[ r ] = cellRange( regionMin[ r ], regionMax[ r ] );
+			final int[] range = cellRanges[ r ];
+			for ( int y = range[ 1 ]; y <= range[ 3 ]; y++ )
+				for ( int x = range[ 0 ]; x <= range[ 2 ]; x++ )
+					cellStart[ y * numCells[ 0 ] + x + 1 ]++;
+		}
+
+		for ( int c = 1; c < cellStart.length; c++ )
+			cellStart[ c ] += cellStart[ c - 1 ];
+
+		// fill in the regions per cell, preserving their order
+		cellRegions = new int[ cellStart[ cellStart.length - 1 ] ];
+		final int[] fill = new int[ cellStart.length - 1 ];
+		for ( int r = 0; r < numRegions; r++ )
+		{
+			final int[] range = cellRanges[ r ];
+			for ( int y = range[ 1 ]; y <= range[ 3 ]; y++ )
+				for ( int x = range[ 0 ]; x <= range[ 2 ]; x++ )
+				{
+					final int cell = y * numCells[ 0 ] + x;
+					cellRegions[ cellStart[ cell ] + fill[ cell ]++ ] = r;
+				}
+		}
+	}
+
+	/**
+	 * @param location
+	 * 				the location
+	 * @param excluded
+	 * 				a region that does not need to be tested, because
+	 * 				the caller has tested it already; may be null
+	 * @return the first region whose mask contains the location,
+	 * 			or null if there is none
+	 */
+	public R getRegion( RealLocalizable location, R excluded )
+	{
+		final int x = cell( location.getDoublePosition( 0 ), 0 );
+		final int y = cell( location.getDoublePosition( 1 ), 1 );
+		if ( x < 0 || y < 0 ) return null;
+
+		final int cell = y * numCells[ 0 ] + x;
+		for ( int i = cellStart[ cell ]; i < cellStart[ cell + 1 ]; i++ )
+		{
+			final R region = regions.get( cellRegions[ i ] );
+			if ( region == excluded ) continue;
+			if ( region.getMask().test( location ) )
+				return region;
+		}
+
+		return null;
+	}
+
+	private int cell( double position, int d )
+	{
+		final double cell = Math.floor( ( position - min[ d ] ) / cellSize[ d ] );
+		if ( cell < 0 ) return -1;
+		if ( cell >= numCells[ d ] )
+		{
+			// the max border of the last cell belongs to it
+			return position <= min[ d ] + numCells[ d ] * cellSize[ d ] ? numCells[ d ] - 1 : -1;
+		}
+		return ( int ) cell;
+	}
+
+	private int[] cellRange( double[] regionMin, double[] regionMax )
+	{
+		final int[] range = new int[ 4 ];
+		for ( int d = 0; d < 2; d++ )
+		{
+			range[ d ] = clamp( ( int ) Math.floor( ( regionMin[ d ] - min[ d ] ) / cellSize[ d ] ), numCells[ d ] );
+			range[ d + 2 ] = clamp( ( int ) Math.floor( ( regionMax[ d ] - min[ d ] ) / cellSize[ d ] ), numCells[ d ] );
+		}
+		return range;
+	}
+
+	private static int clamp( int cell, int numCells )
+	{
+		return Math.max( 0, Math.min( numCells - 1, cell ) );
+	}
+}
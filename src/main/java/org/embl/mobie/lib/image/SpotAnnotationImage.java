@@ -32,11 +32,8 @@ import bdv.tools.transformation.TransformedSource;
 import bdv.viewer.Source;
 import mpicbg.spim.data.sequence.FinalVoxelDimensions;
 import net.imglib2.Interval;
-import net.imglib2.KDTree;
 import net.imglib2.RealLocalizable;
-import net.imglib2.Sampler;
 import net.imglib2.Volatile;
-import net.imglib2.neighborsearch.RadiusNeighborSearchOnKDTree;
 import net.imglib2.position.FunctionRealRandomAccessible;
 import net.imglib2.realtransform.AffineTransform3D;
 import net.imglib2.roi.RealMaskRealInterval;
@@ -44,6 +41,7 @@ import net.imglib2.roi.geom.GeomMasks;
 import net.imglib2.type.numeric.integer.UnsignedIntType;
 import net.imglib2.util.Intervals;
 import org.embl.mobie.lib.annotation.AnnotatedSpot;
+import org.embl.mobie.lib.plot.KDTreeFloat;
 import org.embl.mobie.lib.source.AnnotationType;
 import org.embl.mobie.lib.source.RealRandomAccessibleIntervalTimelapseSource;
 import org.embl.mobie.lib.table.AnnData;
@@ -59,7 +57,7 @@ public class SpotAnnotationImage< AS extends AnnotatedSpot > implements Annotati
 	private final String name;
 	private final DefaultAnnData< AS > annData;
 	private Source< ? extends Volatile< UnsignedIntType > > volatileSource = null;
-	private KDTree< AS > kdTree;
+	private KDTreeFloat< AS > kdTree;
 	private RealMaskRealInterval mask;
 	private double radius;
 	private double[] boundingBoxMin;
@@ -92,9 +90,7 @@ public class SpotAnnotationImage< AS extends AnnotatedSpot > implements Annotati
 	private void createImage()
 	{
 		final ArrayList< AS > annotations = annData.getTable().annotations();
-		kdTree = new KDTree( annotations, annotations );
-		// TODO: there is a KDTreeFloat implementation in this repo that we could use
-		//   to save memory
+		kdTree = new KDTreeFloat<>( annotations, annotations );
 
 		if ( boundingBoxMin == null )
 			boundingBoxMin = kdTree.minAsDoubleArray();
@@ -133,22 +129,19 @@ public class SpotAnnotationImage< AS extends AnnotatedSpot > implements Annotati
 
 		private class LocationToAnnotatedSpot implements BiConsumer< RealLocalizable, AnnotationType< AS > >
 		{
-			private RadiusNeighborSearchOnKDTree< AS > search;
+			private KDTreeFloat< AS >.NearestNeighborSearch search;
 
 			public LocationToAnnotatedSpot( )
 			{
-				search = new RadiusNeighborSearchOnKDTree<>( kdTree );
+				search = kdTree.createNearestNeighborSearch();
 			}
 
 			@Override
 			public void accept( RealLocalizable location, AnnotationType< AS > value )
 			{
-				search.search( location, radius, true );
-				if ( search.numNeighbors() > 0 )
+				if ( search.search( location, radius ) )
 				{
-					final Sampler< AS > sampler = search.getSampler( 0 );
-					final AS annotatedSpot = sampler.get();
-					value.setAnnotation( annotatedSpot );
+					value.setAnnotation( search.get() );
 				}
 				else
 				{
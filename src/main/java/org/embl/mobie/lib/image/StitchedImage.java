@@ -36,6 +36,7 @@ import bdv.viewer.Source;
 import mpicbg.spim.data.sequence.VoxelDimensions;
 import net.imglib2.FinalInterval;
 import net.imglib2.Localizable;
+import net.imglib2.RandomAccess;
 import net.imglib2.RandomAccessible;
 import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.RealInterval;
@@ -57,6 +58,7 @@ import net.imglib2.view.Views;
 import org.embl.mobie.DataStore;
 import org.embl.mobie.lib.MoBIEHelper;
 import org.embl.mobie.lib.ThreadHelper;
+import org.embl.mobie.lib.TileOpeningScheduler;
 import org.embl.mobie.lib.io.Status;
 import org.embl.mobie.lib.source.MoBIEVolatileTypeMatcher;
 import org.embl.mobie.lib.source.SourceHelper;
@@ -66,13 +68,15 @@ import org.embl.mobie.lib.transform.ImageTransformer;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -485,7 +489,7 @@ public class StitchedImage< T extends Type< T >, V extends Volatile< T > & Type<
 			{
 				final V background = volatileType.createVariable();
 				background.setValid( true );
-				final FunctionRandomAccessible< V > stitchedTimepointAtLevel = new FunctionRandomAccessible( 3, new VolatileValueFromTilesFetcherSupplier( tileStore, t, level, background ).get(), () -> volatileType.createVariable() );
+				final FunctionRandomAccessible< V > stitchedTimepointAtLevel = new FunctionRandomAccessible( 3, new VolatileValueFromTilesFetcherSupplier( tileStore, t, level, background ), () -> volatileType.createVariable() );
 				final IntervalView< V > rai = Views.interval( stitchedTimepointAtLevel, getInterval( level ) );
 				stitched.get( t ).add( rai );
 			}
@@ -545,9 +549,15 @@ public class StitchedImage< T extends Type< T >, V extends Volatile< T > & Type<
 		 *    TODO: Tobias
 		 *       Discuss potential drawbacks of this approach...
 		 *       1. probably quite some computations for fetching each pixel?
+		 *
+		 * Each random access of the stitched image has its own fetcher,
+		 * thus the fetcher can hold on to one random access per tile.
 		 */
 		class VolatileValueFromTilesFetcher implements BiConsumer< Localizable, V >
 		{
+			private final RandomAccess< V >[] tileAccesses = new RandomAccess[ tileStore.numTiles() ];
+			private final boolean[] requestedTiles = new boolean[ tileStore.numTiles() ];
+
 			@Override
 			public void accept( Localizable location, V volatileValue )
 			{
@@ -555,83 +565,66 @@ public class StitchedImage< T extends Type< T >, V extends Volatile< T > & Type<
 				int y = location.getIntPosition( 1 );
 				final int xTileIndex = x / tileDimension[ 0 ];
 				final int yTileIndex = y / tileDimension[ 1 ];
+				final int tile = tileStore.tileIndex( xTileIndex, yTileIndex );
 
-				if ( ! tileStore.contains( t, level, xTileIndex, yTileIndex ) )
+				if ( tile < 0 )
 				{
-					volatileValue.set( background.copy() );
+					volatileValue.set( background );
 					volatileValue.setValid( true );
 					return;
 				}
 
-				final Status status = tileStore.getStatus( t, level, xTileIndex, yTileIndex );
+				RandomAccess< V > access = tileAccesses[ tile ];
 
-				if ( status.equals( Status.Closed ) )
+				if ( access == null )
 				{
-					ThreadHelper.stitchedImageExecutorService.submit( new TileOpener( t, level, xTileIndex, yTileIndex ) );
+					final int slot = tileStore.slot( t, level, tile );
+					final Status status = tileStore.getStatus( slot );
 
-					volatileValue.setValid( false );
-				}
-				else if ( status.equals( Status.Opening ) )
-				{
-					volatileValue.setValid( false );
-				}
-				else if ( status.equals( Status.Open ) )
-				{
-					// TODO: The margin logic could be here!
-					//   then we would not need to translate the individual RAIs
-					//   this could improve performance and may help with the
-					//   jumping between resolution layers.
-					//   lower resolutions are closer to 0,0
-					//   higher resolutions are further
-					//   => jump to bottom right
-					x = x - xTileIndex * tileDimension[ 0 ];
-					y = y - yTileIndex * tileDimension[ 1 ];
-					final int z = location.getIntPosition( 2 );
-
-					// TODO (ask @tpietzsch)
-					//   Instead of calling getAt(... )
-					//   I tried holding on to the random accesses
-					//   but got some buggy behaviour.
-					//   I removed this to keep it simpler.
-					//   This logic could be added back, if needed.
-					//   For this it would be good to know if that actually does
-					//   yield a performance improvement
-					try
+					if ( status.equals( Status.Closed ) )
 					{
-						final V volatileType = tileStore.getVolatileRandomAccessible( t, level, xTileIndex, yTileIndex ).getAt( x, y, z );
-						volatileValue.set( volatileType );
+						// request once per fetcher, i.e. once per repaint
+						if ( ! requestedTiles[ tile ] )
+						{
+							tileStore.requestOpening( t, level, xTileIndex, yTileIndex );
+							requestedTiles[ tile ] = true;
+						}
+						volatileValue.setValid( false );
+						return;
 					}
-					catch ( Exception e )
+					else if ( status.equals( Status.Opening ) )
 					{
-						// https://github.com/ome/ngff/issues/221
-						//
-						throw new RuntimeException( e );
+						volatileValue.setValid( false );
+						return;
 					}
-				}
-			}
-		}
 
-		class TileOpener implements Runnable
-		{
-			private final int t;
-			private final int level;
-			private final int xTileIndex;
-			private final int yTileIndex;
-
-			public TileOpener( int t, int level, int xTileIndex, int yTileIndex )
-			{
-				//System.out.println( name + " t" + t + "  l" + level + " x" + xTileIndex + " y" + yTileIndex + " i" + valueSupplierIndex.incrementAndGet() );
-
-				this.t = t;
-				this.level = level;
-				this.xTileIndex = xTileIndex;
-				this.yTileIndex = yTileIndex;
-			}
+					access = tileStore.getVolatileRandomAccessible( slot ).randomAccess();
+					tileAccesses[ tile ] = access;
+				}
 
-			@Override
-			public void run()
-			{
-				tileStore.open( t, level, xTileIndex, yTileIndex );
+				// TODO: The margin logic could be here!
+				//   then we would not need to translate the individual RAIs
+				//   this could improve performance and may help with the
+				//   jumping between resolution layers.
+				//   lower resolutions are closer to 0,0
+				//   higher resolutions are further
+				//   => jump to bottom right
+				x = x - xTileIndex * tileDimension[ 0 ];
+				y = y - yTileIndex * tileDimension[ 1 ];
+
+				try
+				{
+					access.setPosition( x, 0 );
+					access.setPosition( y, 1 );
+					access.setPosition( location.getIntPosition( 2 ), 2 );
+					volatileValue.set( access.get() );
+				}
+				catch ( Exception e )
+				{
+					// https://github.com/ome/ngff/issues/221
+					//
+					throw new RuntimeException( e );
+				}
 			}
 		}
 	}
@@ -644,37 +637,9 @@ public class StitchedImage< T extends Type< T >, V extends Volatile< T > & Type<
 		{
 			stitched.put( t, new ArrayList<>() );
 
-			for ( int l = 0; l < numMipmapLevels; l++ )
+			for ( int level = 0; level < numMipmapLevels; level++ )
 			{
-				final int[] tileDimension = tileDimensions[ l ];
-				final int level = l;
-				final int timepoint = t;
-				BiConsumer< Localizable, T > biConsumer = ( location, value ) ->
-				{
-					int x = location.getIntPosition( 0 );
-					int y = location.getIntPosition( 1 );
-					final int xTileIndex = x / tileDimension[ 0 ];
-					final int yTileIndex = y / tileDimension[ 1 ];
-					x = x - xTileIndex * tileDimension[ 0 ];
-					y = y - yTileIndex * tileDimension[ 1 ];
-
-					if ( ! tileStore.contains( timepoint, level, xTileIndex, yTileIndex ) )
-					{
-						value.set( type.createVariable() ); // background
-						return;
-					}
-
-					// this is less efficient as the corresponding volatile
-					// implementation, but right now this mainly needed
-					// to fetch very few pixel values upon segment selections
-					//
-					//
-					tileStore.open( timepoint, level, xTileIndex, yTileIndex );
-					final T type = tileStore.getRandomAccessible( timepoint, level, xTileIndex, yTileIndex ).randomAccess().setPositionAndGet( x, y, location.getIntPosition( 2 ) );
-					value.set( type );
-				} ;
-
-				final FunctionRandomAccessible< T > randomAccessible = new FunctionRandomAccessible( 3, biConsumer, () -> type.createVariable() );
+				final FunctionRandomAccessible< T > randomAccessible = new FunctionRandomAccessible( 3, new ValueFromTilesFetcherSupplier( tileStore, t, level ), () -> type.createVariable() );
 				final IntervalView< T > rai = Views.interval( randomAccessible, getInterval( level ) );
 				stitched.get( t ).add( rai );
 			}
@@ -683,6 +648,69 @@ public class StitchedImage< T extends Type< T >, V extends Volatile< T > & Type<
 		return stitched;
 	}
 
+	class ValueFromTilesFetcherSupplier implements Supplier< BiConsumer< Localizable, T > >
+	{
+		private final TileStore tileStore;
+		private final int t;
+		private final int level;
+		private final int[] tileDimension;
+		private final T background;
+
+		public ValueFromTilesFetcherSupplier( TileStore tileStore, int t, int level )
+		{
+			this.tileStore = tileStore;
+			this.t = t;
+			this.level = level;
+			this.tileDimension = tileDimensions[ level ];
+			this.background = type.createVariable();
+		}
+
+		@Override
+		public BiConsumer< Localizable, T > get()
+		{
+			return new ValueFromTilesFetcher();
+		}
+
+		// this is less efficient as the corresponding volatile
+		// implementation, because it blocks until the tiles are open,
+		// but right now this mainly needed
+		// to fetch very few pixel values upon segment selections
+		// and for screenshots and exports
+		class ValueFromTilesFetcher implements BiConsumer< Localizable, T >
+		{
+			private final RandomAccess< T >[] tileAccesses = new RandomAccess[ tileStore.numTiles() ];
+
+			@Override
+			public void accept( Localizable location, T value )
+			{
+				int x = location.getIntPosition( 0 );
+				int y = location.getIntPosition( 1 );
+				final int xTileIndex = x / tileDimension[ 0 ];
+				final int yTileIndex = y / tileDimension[ 1 ];
+				final int tile = tileStore.tileIndex( xTileIndex, yTileIndex );
+
+				if ( tile < 0 )
+				{
+					value.set( background );
+					return;
+				}
+
+				RandomAccess< T > access = tileAccesses[ tile ];
+				if ( access == null )
+				{
+					final int slot = tileStore.slot( t, level, tile );
+					access = tileStore.openAndGetRandomAccessible( slot, xTileIndex, yTileIndex ).randomAccess();
+					tileAccesses[ tile ] = access;
+				}
+
+				access.setPosition( x - xTileIndex * tileDimension[ 0 ], 0 );
+				access.setPosition( y - yTileIndex * tileDimension[ 1 ], 1 );
+				access.setPosition( location.getIntPosition( 2 ), 2 );
+				value.set( access.get() );
+			}
+		}
+	}
+
 	protected void setTileRealDimensions( int[] tileDimensions )
 	{
 		tileRealDimensions = new double[ 3 ];
@@ -870,121 +898,260 @@ public class StitchedImage< T extends Type< T >, V extends Volatile< T > & Type<
 		this.mask = mask;
 	}
 
+	/**
+	 * Holds the tiles of the stitched image.
+	 *
+	 * The tiles are indexed densely by ( t, level, tile ),
+	 * with tile = xTileIndex + yTileIndex * numTilesX,
+	 * such that the per-pixel access does not need any map lookups.
+	 */
 	class TileStore
 	{
-		// TODO: does it make sense to use something like
-		// 	  https://github.com/google/guava/wiki/CachesExplained
-		//    here? I am not sure, because (probably) the RandomAccessible and Image
-		//    values are already backed by some SoftRef cache?!
-		protected Map< String, RandomAccessible< T > > timeLevelTileToRA;
-		protected Map< String, RandomAccessible< V > > timeLevelTileToVolatileRA;
-		protected Map< String, Image< T > > tileToImage;
-		protected Map< String, Status > timeLevelTileToStatus;
+		private final int numTilesX;
+		private final int numTilesY;
+		// tile to image, null where there is no image
+		private final List< Image< T > > tileToImage;
+		// ( t, level, tile ) slot to status and random accessibles
+		private final AtomicReferenceArray< Status > slotToStatus;
+		private final AtomicReferenceArray< RandomAccessible< T > > slotToRA;
+		private final AtomicReferenceArray< RandomAccessible< V > > slotToVolatileRA;
+		private final AtomicReferenceArray< TileOpeningScheduler.Request > slotToRequest;
+		// set while a thread is opening the tile of the slot
+		private final AtomicReferenceArray< CountDownLatch > slotToOpeningLatch;
 
 		public TileStore( List< ? extends Image< T > > images, List< int[] > positions )
 		{
-			timeLevelTileToRA = new ConcurrentHashMap<>( );
-			timeLevelTileToVolatileRA = new ConcurrentHashMap<>();
-			timeLevelTileToStatus = new ConcurrentHashMap<>();
-			tileToImage = new ConcurrentHashMap<>();
+			numTilesX = positions.stream().mapToInt( position -> position[ 0 ] ).max().getAsInt() + 1;
+			numTilesY = positions.stream().mapToInt( position -> position[ 1 ] ).max().getAsInt() + 1;
 
+			tileToImage = new ArrayList<>( Collections.nCopies( numTiles(), null ) );
 			for ( int gridIndex = 0; gridIndex < positions.size(); gridIndex++ )
 			{
 				final int[] position = positions.get( gridIndex );
-				tileToImage.put( getTileKey( position[ 0 ], position[ 1 ] ), images.get( gridIndex ) );
-
-				for ( int t = 0; t < numTimepoints; t++ )
-					for ( int level = 0; level < numMipmapLevels; level++ )
-						timeLevelTileToStatus.put( getKey( t, level, position[ 0 ], position[ 1 ] ), Status.Closed );
+				tileToImage.set( position[ 0 ] + position[ 1 ] * numTilesX, images.get( gridIndex ) );
 			}
+
+			final int numSlots = numTimepoints * numMipmapLevels * numTiles();
+			slotToStatus = new AtomicReferenceArray<>( numSlots );
+			slotToRA = new AtomicReferenceArray<>( numSlots );
+			slotToVolatileRA = new AtomicReferenceArray<>( numSlots );
+			slotToRequest = new AtomicReferenceArray<>( numSlots );
+			slotToOpeningLatch = new AtomicReferenceArray<>( numSlots );
+
+			for ( int t = 0; t < numTimepoints; t++ )
+				for ( int level = 0; level < numMipmapLevels; level++ )
+					for ( int tile = 0; tile < numTiles(); tile++ )
+						if ( tileToImage.get( tile ) != null )
+							slotToStatus.set( slot( t, level, tile ), Status.Closed );
+		}
+
+		public int numTiles()
+		{
+			return numTilesX * numTilesY;
+		}
+
+		/**
+		 * @return the index of the tile, or -1 if there is no tile at this grid position
+		 */
+		public int tileIndex( int xTileIndex, int yTileIndex )
+		{
+			if ( xTileIndex < 0 || yTileIndex < 0 || xTileIndex >= numTilesX || yTileIndex >= numTilesY )
+				return -1;
+
+			final int tile = xTileIndex + yTileIndex * numTilesX;
+			return tileToImage.get( tile ) == null ? -1 : tile;
+		}
+
+		public int slot( int t, int level, int tile )
+		{
+			return ( t * numMipmapLevels + level ) * numTiles() + tile;
+		}
+
+		private int slot( int t, int level, int xTileIndex, int yTileIndex )
+		{
+			final int tile = tileIndex( xTileIndex, yTileIndex );
+			if ( tile < 0 || t < 0 || t >= numTimepoints || level < 0 || level >= numMipmapLevels )
+				return -1;
+			return slot( t, level, tile );
 		}
 
 		public RandomAccessible< T > getRandomAccessible( int t, int level, int xTileIndex, int yTileIndex )
 		{
-			return timeLevelTileToRA.get( getKey( t, level, xTileIndex, yTileIndex ) );
+			final int slot = slot( t, level, xTileIndex, yTileIndex );
+			return slot < 0 ? null : slotToRA.get( slot );
 		}
 
 		public RandomAccessible< V > getVolatileRandomAccessible( int t, int level, int xTileIndex, int yTileIndex )
 		{
-			return timeLevelTileToVolatileRA.get( getKey( t, level, xTileIndex, yTileIndex ) );
+			final int slot = slot( t, level, xTileIndex, yTileIndex );
+			return slot < 0 ? null : slotToVolatileRA.get( slot );
 		}
 
-		private String getTileKey( int xTileIndex, int yTileIndex )
+		public RandomAccessible< V > getVolatileRandomAccessible( int slot )
 		{
-			return xTileIndex + SEP + yTileIndex;
+			return slotToVolatileRA.get( slot );
 		}
 
-		private String getKey( int t, int level, int xTileIndex, int yTileIndex )
+		public Status getStatus( int t, int level, int xTileIndex, int yTileIndex )
 		{
-			return t + SEP + level + SEP + xTileIndex + SEP + yTileIndex;
+			final int slot = slot( t, level, xTileIndex, yTileIndex );
+			return slot < 0 ? null : slotToStatus.get( slot );
 		}
 
-		public Status getStatus( int t, int level, int xTileIndex, int yTileIndex )
+		public Status getStatus( int slot )
 		{
-			return timeLevelTileToStatus.get( getKey( t, level, xTileIndex, yTileIndex ) );
+			return slotToStatus.get( slot );
 		}
 
 		public boolean contains( int t, int level, int xTileIndex, int yTileIndex )
 		{
-			return timeLevelTileToStatus.containsKey( getKey( t, level, xTileIndex, yTileIndex ) );
+			return slot( t, level, xTileIndex, yTileIndex ) >= 0;
 		}
 
-		public void open( int t, int level, int xTileIndex, int yTileIndex )
+		/**
+		 * Asks the {@code ThreadHelper.tileOpeningScheduler}
+		 * to open the tile in the background.
+		 */
+		public void requestOpening( int t, int level, int xTileIndex, int yTileIndex )
 		{
-			final String key = getKey( t, level, xTileIndex, yTileIndex );
+			final int slot = slot( t, level, xTileIndex, yTileIndex );
+			if ( slot < 0 ) return;
 
-			synchronized ( timeLevelTileToStatus )
+			TileOpeningScheduler.Request request = slotToRequest.get( slot );
+			if ( request == null )
 			{
-				if ( ! timeLevelTileToStatus.get( key ).equals( Status.Closed ) )
-					return;
+				slotToRequest.compareAndSet( slot, null, new TileOpeningScheduler.Request( () -> open( t, level, xTileIndex, yTileIndex ), level ) );
+				request = slotToRequest.get( slot );
+			}
+
+			ThreadHelper.tileOpeningScheduler.request( request, getTileCentre( t, level, xTileIndex, yTileIndex ) );
+		}
+
+		private double[] getTileCentre( int t, int level, int xTileIndex, int yTileIndex )
+		{
+			final double[] centre = new double[]{
+					( xTileIndex + 0.5 ) * tileDimensions[ level ][ 0 ],
+					( yTileIndex + 0.5 ) * tileDimensions[ level ][ 1 ],
+					0 };
+			final AffineTransform3D sourceTransform = new AffineTransform3D();
+			transformedSource.getSourceTransform( t, level, sourceTransform );
+			sourceTransform.apply( centre, centre );
+			return centre;
+		}
+
+		/**
+		 * Opens the tile, if needed, and waits until it is open.
+		 */
+		public RandomAccessible< T > openAndGetRandomAccessible( int slot, int xTileIndex, int yTileIndex )
+		{
+			final int t = slot / ( numMipmapLevels * numTiles() );
+			final int level = ( slot / numTiles() ) % numMipmapLevels;
+
+			while ( ! slotToStatus.get( slot ).equals( Status.Open ) )
+			{
+				open( t, level, xTileIndex, yTileIndex );
 
-				timeLevelTileToStatus.put( key, Status.Opening );
+				// another thread may be opening the tile
+				final CountDownLatch openingLatch = slotToOpeningLatch.get( slot );
+				if ( openingLatch != null )
+				{
+					try
+					{
+						openingLatch.await();
+					}
+					catch ( InterruptedException e )
+					{
+						Thread.currentThread().interrupt();
+						throw new RuntimeException( e );
+					}
+				}
 			}
 
-			// open the image
-			//
-			final Image< T > image = tileToImage.get( getTileKey( xTileIndex, yTileIndex ) );
+			return slotToRA.get( slot );
+		}
 
-			if ( debug )
+		public void open( int t, int level, int xTileIndex, int yTileIndex )
+		{
+			final int slot = slot( t, level, xTileIndex, yTileIndex );
+
+			if ( slot < 0 ) return;
+
+			if ( ! slotToStatus.get( slot ).equals( Status.Closed ) )
+				return;
+
+			// the latch is set before and removed after the Opening status,
+			// such that threads that find the tile Opening can wait for it
+			final CountDownLatch openingLatch = new CountDownLatch( 1 );
+			if ( ! slotToOpeningLatch.compareAndSet( slot, null, openingLatch ) )
+				return;
+
+			if ( ! slotToStatus.compareAndSet( slot, Status.Closed, Status.Opening ) )
 			{
-				System.out.println( "Opening tile image " + key + ": " + image.getName() );
+				slotToOpeningLatch.set( slot, null );
+				openingLatch.countDown();
+				return;
 			}
 
-			// fetch the requested volume (t, level)
-			//
-			final RandomAccessibleInterval< T > rai = Views.zeroMin( image.getSourcePair().getSource().getSource( t, level ) );
-			final RandomAccessibleInterval< ? extends Volatile< T > > vRai = Views.zeroMin(  image.getSourcePair().getVolatileSource().getSource( t, level ) );
+			final String key = t + SEP + level + SEP + xTileIndex + SEP + yTileIndex;
 
-			// extend bounds to accommodate grid margin
+			// open the image
 			//
-			RandomAccessible< T > randomAccessible = new ExtendedRandomAccessibleInterval( rai, new OutOfBoundsConstantValueFactory<>( type.createVariable() ) );
-			RandomAccessible< V > vRandomAccessible = new ExtendedRandomAccessibleInterval( vRai, new OutOfBoundsConstantValueFactory<>( volatileType.createVariable() ) );
+			final Image< T > image = tileToImage.get( tileIndex( xTileIndex, yTileIndex ) );
 
-			// shift to create grid margin
-			//
-			final long[] translation = Arrays.stream( marginTranslations[ level ] ).mapToLong( d -> ( long ) d ).toArray();
-			final RandomAccessible< T > translateRa = Views.translate( randomAccessible, translation );
-			final RandomAccessible< V > translateVRa = Views.translate( vRandomAccessible, translation );
+			if ( debug )
+			{
+				System.out.println( "Opening tile image " + key + ": " + image.getName() );
+			}
 
-			// ensure that random access is ready to go
-			// (i.e. all metadata are fetched)
-			// to avoid any blocking in BDV
-			//
 			try
 			{
-				//translateRa.randomAccess().get(); (not needed for visualisation)
-				translateVRa.randomAccess().get();
+				// fetch the requested volume (t, level)
+				//
+				final RandomAccessibleInterval< T > rai = Views.zeroMin( image.getSourcePair().getSource().getSource( t, level ) );
+				final RandomAccessibleInterval< ? extends Volatile< T > > vRai = Views.zeroMin(  image.getSourcePair().getVolatileSource().getSource( t, level ) );
+
+				// extend bounds to accommodate grid margin
+				//
+				RandomAccessible< T > randomAccessible = new ExtendedRandomAccessibleInterval( rai, new OutOfBoundsConstantValueFactory<>( type.createVariable() ) );
+				RandomAccessible< V > vRandomAccessible = new ExtendedRandomAccessibleInterval( vRai, new OutOfBoundsConstantValueFactory<>( volatileType.createVariable() ) );
+
+				// shift to create grid margin
+				//
+				final long[] translation = Arrays.stream( marginTranslations[ level ] ).mapToLong( d -> ( long ) d ).toArray();
+				final RandomAccessible< T > translateRa = Views.translate( randomAccessible, translation );
+				final RandomAccessible< V > translateVRa = Views.translate( vRandomAccessible, translation );
+
+				// ensure that random access is ready to go
+				// (i.e. all metadata are fetched)
+				// to avoid any blocking in BDV
+				//
+				try
+				{
+					//translateRa.randomAccess().get(); (not needed for visualisation)
+					translateVRa.randomAccess().get();
+				}
+				catch ( Exception e )
+				{
+					// TODO ask Tobias...
+					// otherwise, such Exceptions are not visible.
+					e.printStackTrace();
+				}
+
+				slotToRA.set( slot, translateRa );
+				slotToVolatileRA.set( slot, translateVRa );
+				slotToStatus.set( slot, Status.Open );
 			}
-			catch ( Exception e )
+			catch ( RuntimeException e )
 			{
-				// TODO ask Tobias...
-				// otherwise, such Exceptions are not visible.
-				e.printStackTrace();
+				// allow to try again
+				slotToStatus.set( slot, Status.Closed );
+				throw e;
+			}
+			finally
+			{
+				slotToOpeningLatch.set( slot, null );
+				openingLatch.countDown();
 			}
-
-			timeLevelTileToRA.put( key, translateRa );
-			timeLevelTileToVolatileRA.put( key, translateVRa );
-			timeLevelTileToStatus.put( key, Status.Open );
 
 			if ( debug )
 			{
@@ -0,0 +1,157 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.io;
+
+import ij.IJ;
+import org.embl.mobie.io.util.IOHelper;
+import org.embl.mobie.lib.MoBIEHelper;
+import org.embl.mobie.lib.PriorityExecutorService;
+import org.embl.mobie.lib.ThreadHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Keeps local copies of the metadata of remote projects,
+ * e.g. the project.json and dataset.json files.
+ *
+ * If a copy exists, it is returned right away and the remote
+ * metadata is fetched again in the background; if it changed,
+ * the copy is updated, such that the change is visible the next
+ * time the project is opened.
+ *
+ * Local files are always read directly.
+ */
+public class RemoteMetadataCache
+{
+	private static final File CACHE_DIRECTORY = new File( System.getProperty( "user.home" ), ".mobie" + File.separator + "metadata" );
+
+	private interface Loader
+	{
+		String load() throws IOException;
+	}
+
+	public static String read( String uri ) throws IOException
+	{
+		if ( ! isRemote( uri ) )
+			return IOHelper.read( uri );
+
+		return fetch( uri, "", () -> IOHelper.read( uri ) );
+	}
+
+	public static boolean exists( String uri )
+	{
+		if ( ! isRemote( uri ) )
+			return IOHelper.exists( uri );
+
+		try
+		{
+			return Boolean.parseBoolean( fetch( uri, "exists:", () -> String.valueOf( IOHelper.exists( uri ) ) ) );
+		}
+		catch ( IOException e )
+		{
+			return false;
+		}
+	}
+
+	private static boolean isRemote( String uri )
+	{
+		return ThreadHelper.getIoExecutorService( uri ) == ThreadHelper.remoteIoExecutorService;
+	}
+
+	private static String fetch( String uri, String prefix, Loader loader ) throws IOException
+	{
+		final File cacheFile = new File( CACHE_DIRECTORY, MoBIEHelper.shortHash( prefix + uri ) + ".txt" );
+		final String cached = readCacheFile( cacheFile );
+		if ( cached == null )
+		{
+			final String value = loader.load();
+			writeCacheFile( cacheFile, value );
+			return value;
+		}
+
+		ThreadHelper.remoteIoExecutorService.submit( () -> revalidate( uri, cacheFile, cached, loader ), PriorityExecutorService.Priority.Background );
+
+		return cached;
+	}
+
+	private static void revalidate( String uri, File cacheFile, String cached, Loader loader )
+	{
+		final String value;
+		try
+		{
+			value = loader.load();
+		}
+		catch ( Exception e )
+		{
+			// do not use the local copy next time
+			cacheFile.delete();
+			IJ.log( "[WARNING] Could not fetch " + uri + ": " + e.getMessage() );
+			return;
+		}
+
+		if ( value.equals( cached ) ) return;
+
+		writeCacheFile( cacheFile, value );
+		IJ.log( "The metadata at " + uri + " has changed; please open the project again to see the changes." );
+	}
+
+	private static String readCacheFile( File cacheFile )
+	{
+		if ( ! cacheFile.exists() ) return null;
+
+		try
+		{
+			return new String( Files.readAllBytes( cacheFile.toPath() ), StandardCharsets.UTF_8 );
+		}
+		catch ( IOException e )
+		{
+			return null;
+		}
+	}
+
+	private static void writeCacheFile( File cacheFile, String value )
+	{
+		try
+		{
+			Files.createDirectories( CACHE_DIRECTORY.toPath() );
+			final Path tmp = Files.createTempFile( CACHE_DIRECTORY.toPath(), cacheFile.getName(), ".tmp" );
+			Files.write( tmp, value.getBytes( StandardCharsets.UTF_8 ) );
+			Files.move( tmp, cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING );
+		}
+		catch ( IOException e )
+		{
+			IJ.log( "Could not cache the metadata in " + cacheFile + ": " + e.getMessage() );
+		}
+	}
+}
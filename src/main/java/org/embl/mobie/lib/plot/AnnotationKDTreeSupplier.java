@@ -29,19 +29,17 @@
 package org.embl.mobie.lib.plot;
 
 import de.embl.cba.tables.Utils;
+import gnu.trove.list.array.TFloatArrayList;
+import gnu.trove.map.hash.TObjectIntHashMap;
 import org.embl.mobie.lib.annotation.Annotation;
-import net.imglib2.KDTree;
-import net.imglib2.RealPoint;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
+import java.util.List;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 
 /**
@@ -49,15 +47,19 @@ import java.util.stream.IntStream;
  * we only need one KDTree and not multiple, but it also does not
  * hurt, so I left it like this.
  *
+ * The coordinates of the data points are stored
+ * in one flat float[] ( x0, y0, x1, y1, ... ), in the order
+ * of {@link #getAnnotations()}.
+ *
  * @param <A> an annotation
  */
-public class AnnotationKDTreeSupplier< A extends Annotation > implements Supplier< KDTree< A > >
+public class AnnotationKDTreeSupplier< A extends Annotation > implements Supplier< KDTreeFloat< A > >
 {
 	final private int numDimensions = 2; // for a 2-D scatter plot
 
-	private ArrayList< RealPoint > locations;
+	private float[] coordinates;
 	private ArrayList< A > annotations;
-	private Map< A, RealPoint > annotationToCoordinate;
+	private TObjectIntHashMap< A > annotationToIndex;
 	double[] min = new double[ numDimensions ];
 	double[] max = new double[ numDimensions ];
 	private HashMap< String, Double > stringToNumber;
@@ -69,28 +71,27 @@ public class AnnotationKDTreeSupplier< A extends Annotation > implements Supplie
 
 		initialiseDataPoints( inputData, columns );
 
-		annotationToCoordinate = IntStream.range( 0, locations.size() ).boxed().collect( Collectors.toMap( i -> annotations.get( i ), i -> locations.get( i ) ) );
+		annotationToIndex = new TObjectIntHashMap<>( annotations.size(), 0.5f, -1 );
+		for ( int i = 0; i < annotations.size(); i++ )
+			annotationToIndex.put( annotations.get( i ), i );
 	}
 
 	/**
-	 * Create a KDTree, using copies of the tableRows and dataPoints,
-	 * because the KDTree modifies those lists internally,
-	 * which would lead to confusion and concurrency issues.
+	 * The KDTree does not modify the annotations and coordinates,
+	 * thus they can be shared.
 	 *
 	 * @return KDTree
 	 */
 	@Override
-	public KDTree< A > get()
+	public KDTreeFloat< A > get()
 	{
-		final KDTree< A > kdTree = new KDTree<>( new ArrayList<>( annotations ), new ArrayList<>( locations ) );
-
-		return kdTree;
+		return new KDTreeFloat<>( annotations, coordinates, numDimensions );
 	}
 
 	private void initialiseDataPoints( Collection< A > inputData, String[] columns )
 	{
 		stringToNumber = new HashMap<>(); // in case we need to plot categorical columns
-		locations = new ArrayList<>();
+		final TFloatArrayList coordinates = new TFloatArrayList();
 		annotations = new ArrayList<>( );
 
 		Double[] coordinate = new Double[ numDimensions ];
@@ -147,12 +148,15 @@ public class AnnotationKDTreeSupplier< A extends Annotation > implements Supplie
 
 			if ( isValidDataPoint )
 			{
-				this.locations.add( new RealPoint( coordinate[ 0 ], coordinate[ 1 ] ) );
+				coordinates.add( coordinate[ 0 ].floatValue() );
+				coordinates.add( coordinate[ 1 ].floatValue() );
 				this.annotations.add( annotation );
 			}
 		}
 
-		if ( this.locations.size() == 0 )
+		this.coordinates = coordinates.toArray();
+
+		if ( this.annotations.size() == 0 )
 			throw new UnsupportedOperationException( "Cannot create scatter plot, because there is no valid data point." );
 	}
 
@@ -166,8 +170,26 @@ public class AnnotationKDTreeSupplier< A extends Annotation > implements Supplie
 		return max;
 	}
 
-	public Map< A, RealPoint > getAnnotationToCoordinate()
+	/**
+	 * @param annotation
+	 * 				the annotation
+	 * @return the ( x, y ) coordinate of the annotation in the plot,
+	 *  		or null if the annotation is not plotted
+	 */
+	public double[] getCoordinate( A annotation )
+	{
+		final int index = annotationToIndex.get( annotation );
+		if ( index < 0 ) return null;
+		return new double[]{ coordinates[ 2 * index ], coordinates[ 2 * index + 1 ] };
+	}
+
+	public List< A > getAnnotations()
+	{
+		return annotations;
+	}
+
+	public float[] getCoordinates()
 	{
-		return annotationToCoordinate;
+		return coordinates;
 	}
 }
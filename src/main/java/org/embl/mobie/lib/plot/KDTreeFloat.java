@@ -28,155 +28,51 @@ package org.embl.mobie.lib.plot;
  * #L%
  */
 
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
-import java.util.ListIterator;
-
 import net.imglib2.EuclideanSpace;
-import net.imglib2.IterableRealInterval;
-import net.imglib2.KDTreeNode;
-import net.imglib2.RealCursor;
 import net.imglib2.RealLocalizable;
-import net.imglib2.RealPositionable;
-import net.imglib2.Sampler;
-import net.imglib2.util.KthElement;
 
-/*
- * KDTree to access values at RealLocalizable positions.
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A memory compact KDTree to access values at RealLocalizable positions.
+ *
+ * In contrast to {@link net.imglib2.KDTree}, which creates one node object
+ * (with a double[] position) per value, this tree is stored implicitly
+ * in flat arrays: the float coordinates of all nodes are stored in one
+ * float[] and the values are referenced by their int index in the
+ * list of values. This needs 4 * ( numDimensions + 1 ) bytes per value
+ * such that trees with tens of millions of points fit into memory.
+ *
+ * The node of the (sub-)tree spanning the tree indices [ i, j ] is stored
+ * at the median index k = i + ( j - i ) / 2, its left subtree spans
+ * [ i, k - 1 ] and its right subtree spans [ k + 1, j ].
+ * The split dimension cycles with the depth of the node.
+ *
+ * The searches are not thread-safe; create one search per thread.
  *
  * @param <T>
  *            type of values stored in the tree.
  *
  * @author Tobias Pietzsch (modified by Christian Tischer)
  */
-public class KDTreeFloat< T > implements EuclideanSpace, IterableRealInterval< T >
+public class KDTreeFloat< T > implements EuclideanSpace
 {
-	/**
-	 * the number of dimensions.
-	 */
-	final protected int n;
-
-	final protected KDTreeNode< T > root;
-
-	/**
-	 * the number of nodes in the tree.
-	 */
-	final protected long size;
-
-	/**
-	 * minimum of each dimension.
-	 */
-	final protected double[] min;
-
-	/**
-	 * maximum of each dimension.
-	 */
-	final protected double[] max;
-
-	/**
-	 * A KDTreeNode that stores it's value as a reference.
-	 *
-	 *  @param <T>
-	 *             type of values stored in the tree.
-	 */
-	protected final static class ValueNode< T > extends KDTreeNode< T >
-	{
-		protected final T value;
-
-		/**
-		 * @param value
-		 *            reference to the node's value
-		 * @param position
-		 *            coordinates of this node
-		 * @param dimension
-		 *            dimension along which this node divides the space
-		 * @param left
-		 *            left child node
-		 * @param right
-		 *            right child node
-		 */
-		public ValueNode( final T value, final RealLocalizable position, final int dimension, ValueNode< T > left, final ValueNode< T > right )
-		{
-			super( position, dimension, left, right );
-			this.value = value;
-		}
-
-		protected ValueNode( final ValueNode< T > node )
-		{
-			super( node );
-			this.value = node.value;
-		}
-
-		@Override
-		public T get()
-		{
-			return value;
-		}
+	private final int n;
 
-		@Override
-		public ValueNode< T > copy()
-		{
-			return new ValueNode< T >( this );
-		}
-
-		@Override
-		public String toString()
-		{
-			return "node " + getSplitDimension() + " ? " + getSplitCoordinate() + " | " + value;
-		}
-	}
+	private final int size;
 
-	/**
-	 * A KDTreeNode that stores it's value as a Sampler.
-	 */
-	protected static final class SamplerNode< T > extends KDTreeNode< T >
-	{
-		protected final Sampler< T > sampler;
-
-		/**
-		 * @param sampler
-		 *            a sampler providing the node's value
-		 * @param position
-		 *            coordinates of this node
-		 * @param dimension
-		 *            dimension along which this node divides the space
-		 * @param left
-		 *            left child node
-		 * @param right
-		 *            right child node
-		 */
-		public SamplerNode( final Sampler< T > sampler, final RealLocalizable position, final int dimension, final SamplerNode< T > left, final SamplerNode< T > right )
-		{
-			super( position, dimension, left, right );
-			this.sampler = sampler;
-		}
+	private final List< T > values;
 
-		protected SamplerNode( final SamplerNode< T > node )
-		{
-			super( node );
-			this.sampler = node.sampler.copy();
-		}
+	// node coordinates in tree order, n per node
+	private final float[] positions;
 
-		@Override
-		public T get()
-		{
-			return sampler.get();
-		}
+	// index into values for each node in tree order
+	private final int[] valueIndices;
 
-		@Override
-		public SamplerNode< T > copy()
-		{
-			return new SamplerNode< T >( this );
-		}
+	private final double[] min;
 
-		@Override
-		public String toString()
-		{
-			return "node " + getSplitDimension() + " ? " + getSplitCoordinate() + " | " + sampler.get();
-		}
-	}
+	private final double[] max;
 
 	/**
 	 * Construct a KDTree from the elements in the given list.
@@ -193,569 +89,398 @@ public class KDTreeFloat< T > implements EuclideanSpace, IterableRealInterval< T
 	 */
 	public < L extends RealLocalizable > KDTreeFloat( final List< T > values, final List< L > positions )
 	{
-		assert values.size() == positions.size();
+		this( values, toFloatArray( positions ), positions.get( 0 ).numDimensions() );
+	}
 
-		this.n = positions.get( 0 ).numDimensions();
-		this.size = positions.size();
+	/**
+	 * Construct a KDTree from flat coordinates.
+	 *
+	 * @param values
+	 *            a list of values
+	 * @param coordinates
+	 *            the coordinates of the values, numDimensions per value,
+	 *            in the order of the values; the array is not modified.
+	 * @param numDimensions
+	 *            the number of dimensions
+	 */
+	public KDTreeFloat( final List< T > values, final float[] coordinates, final int numDimensions )
+	{
+		assert coordinates.length == values.size() * numDimensions;
 
-		// test that dimensionality is preserved
-		assert ( verifyDimensions( positions, n ) );
+		this.n = numDimensions;
+		this.size = values.size();
+		this.values = values;
 
-		this.min = new double[ n ];
-		this.max = new double[ n ];
-		for ( int d = 0; d < n; ++d )
-		{
-			min[ d ] = Double.MAX_VALUE;
-			max[ d ] = -Double.MAX_VALUE;
-		}
-		for ( final L position : positions )
+		min = new double[ n ];
+		max = new double[ n ];
+		Arrays.fill( min, Double.MAX_VALUE );
+		Arrays.fill( max, -Double.MAX_VALUE );
+		for ( int i = 0; i < size; i++ )
 		{
 			for ( int d = 0; d < n; ++d )
 			{
-				final float x = position.getFloatPosition( d );
-
-				if ( x < min[ d ] )
-					min[ d ] = x;
-				if ( x > max[ d ] )
-					max[ d ] = x;
+				final float x = coordinates[ i * n + d ];
+				if ( x < min[ d ] ) min[ d ] = x;
+				if ( x > max[ d ] ) max[ d ] = x;
 			}
 		}
 
-		if ( values == positions )
-		{
-			if ( positions instanceof java.util.RandomAccess )
-				root = makeNode( positions, 0, positions.size() - 1, 0 );
-			else
-				root = makeNode( positions.listIterator(), positions.listIterator( positions.size() ), 0 );
-		}
-		else
-		{
-			final int[] permutation = new int[ positions.size() ];
-			for ( int k = 0; k < permutation.length; ++k )
-				permutation[ k ] = k;
-
-			if ( positions instanceof java.util.RandomAccess )
-				root = makeNode( positions, 0, positions.size() - 1, 0, values, permutation );
-			else
-				root = makeNode( positions.listIterator(), positions.listIterator( positions.size() ), 0, values, permutation );
-		}
+		valueIndices = new int[ size ];
+		for ( int i = 0; i < size; i++ )
+			valueIndices[ i ] = i;
+
+		makeNode( coordinates, 0, size - 1, 0 );
+
+		positions = new float[ size * n ];
+		for ( int k = 0; k < size; k++ )
+			System.arraycopy( coordinates, valueIndices[ k ] * n, positions, k * n, n );
 	}
 
-	/**
-	 * Construct a KDTree from the elements of the given
-	 * {@link IterableRealInterval}.
-	 *
-	 * @param interval
-	 *            elements in the tree are obtained by iterating this
-	 */
-	public KDTreeFloat( final IterableRealInterval< T > interval )
+	private static < L extends RealLocalizable > float[] toFloatArray( final List< L > positions )
 	{
-		this.n = interval.numDimensions();
-		this.size = interval.size();
-		this.min = new double[ n ];
-		interval.realMin( this.min );
-		this.max = new double[ n ];
-		interval.realMax( this.max );
-		final ArrayList< RealCursor< T > > values = new ArrayList< RealCursor< T > >( ( int ) interval.size() );
-		final RealCursor< T > cursor = interval.localizingCursor();
-		while ( cursor.hasNext() )
+		final int n = positions.get( 0 ).numDimensions();
+		final float[] coordinates = new float[ positions.size() * n ];
+		int i = 0;
+		for ( final L position : positions )
 		{
-			cursor.next();
-			values.add( cursor.copyCursor() );
+			assert position.numDimensions() == n;
+			for ( int d = 0; d < n; ++d )
+				coordinates[ i++ ] = position.getFloatPosition( d );
 		}
-		root = makeSamplerNode( values, 0, values.size() - 1, 0 );
+		return coordinates;
 	}
 
-	/**
-	 * Check whether all positions in the positions list have dimension n.
-	 *
-	 * @param positions
-	 * 					the positions
-	 * @param n
-	 * 			dimensionality
-	 *
-	 * @return true, if all positions have dimension n.
+	/*
+	 * Partition the valueIndices [ i, j ] such that the median
+	 * with respect to dimension d ends up at k = i + ( j - i ) / 2,
+	 * and recurse into both halves.
 	 */
-	protected static < L extends RealLocalizable > boolean verifyDimensions( final List< L > positions, final int n )
+	private void makeNode( final float[] coordinates, final int i, final int j, final int d )
 	{
-		for ( final L position : positions )
-			if ( position.numDimensions() != n )
-				return false;
-		return true;
+		if ( j <= i ) return;
+
+		final int k = i + ( j - i ) / 2;
+		kthElement( coordinates, i, j, k, d );
+
+		final int dChild = ( d + 1 == n ) ? 0 : d + 1;
+		makeNode( coordinates, i, k - 1, dChild );
+		makeNode( coordinates, k + 1, j, dChild );
 	}
 
-	/**
-	 * Compare RealLocalizables by comparing their coordinates in dimension d.
-	 */
-	public static final class DimComparator< L extends RealLocalizable > implements Comparator< L >
+	private void kthElement( final float[] coordinates, int i, int j, final int k, final int d )
 	{
-		final int d;
-
-		public DimComparator( final int d )
+		while ( j > i )
 		{
-			this.d = d;
-		}
+			final float pivot = coordinates[ valueIndices[ i + ( j - i ) / 2 ] * n + d ];
+			int l = i;
+			int r = j;
+			while ( l <= r )
+			{
+				while ( coordinates[ valueIndices[ l ] * n + d ] < pivot ) l++;
+				while ( coordinates[ valueIndices[ r ] * n + d ] > pivot ) r--;
+				if ( l <= r )
+				{
+					final int tmp = valueIndices[ l ];
+					valueIndices[ l++ ] = valueIndices[ r ];
+					valueIndices[ r-- ] = tmp;
+				}
+			}
 
-		@Override
-		public int compare( final L o1, final L o2 )
-		{
-			final float diff = o1.getFloatPosition( d ) - o2.getFloatPosition( d );
-			return ( diff < 0 ) ? -1 : ( diff > 0 ? 1 : 0 );
+			if ( k <= r ) j = r;
+			else if ( k >= l ) i = l;
+			else return;
 		}
 	}
 
-	/**
-	 * Construct the tree by recursively adding nodes. The sublist of positions
-	 * between indices i and j (inclusive) is split at the median element with
-	 * respect to coordinates in the given dimension d. The median becomes the
-	 * new node which is returned. The left and right partitions of the sublist
-	 * are processed recursively and form the left and right subtrees of the
-	 * node.
-	 *
-	 * @param positions
-	 *            list of positions
-	 * @param i
-	 *            start index of sublist to process
-	 * @param j
-	 *            end index of sublist to process
-	 * @param d
-	 *            dimension along which to split the sublist
-	 * @param values
-	 *            list of values corresponding to permuted positions
-	 * @param permutation
-	 *            the index of the values element at index k is permutation[k]
-	 * @return a new node containing the subtree of the given sublist of
-	 *         positions.
-	 */
-	protected < L extends RealLocalizable > ValueNode< T > makeNode( final List< L > positions, final int i, final int j, final int d, final List< T > values, final int[] permutation )
+	@Override
+	public int numDimensions()
 	{
-		if ( j > i )
-		{
-			final int k = i + ( j - i ) / 2;
-			KthElement.kthElement( i, j, k, positions, permutation, new DimComparator< L >( d ) );
+		return n;
+	}
 
-			final int dChild = ( d + 1 == n ) ? 0 : d + 1;
-			return new ValueNode< T >( values.get( permutation[ k ] ), positions.get( k ), d, makeNode( positions, i, k - 1, dChild, values, permutation ), makeNode( positions, k + 1, j, dChild, values, permutation ) );
-		}
-		else if ( j == i )
-		{
-			return new ValueNode< T >( values.get( permutation[ i ] ), positions.get( i ), d, null, null );
-		}
-		else
-		{
-			return null;
-		}
+	public int size()
+	{
+		return size;
 	}
 
 	/**
-	 * Construct the tree by recursively adding nodes. The sublist of positions
-	 * between iterators first and last is split at the median element with
-	 * respect to coordinates in the given dimension d. The median becomes the
-	 * new node which is returned. The left and right partitions of the sublist
-	 * are processed recursively and form the left and right subtrees of the
-	 * node.
-	 *
-	 * @param first
-	 *            first element of the sublist of positions
-	 * @param last
-	 *            last element of the sublist of positions
-	 * @param d
-	 *            dimension along which to split the sublist
-	 * @param values
-	 *            list of values corresponding to permuted positions
-	 * @param permutation
-	 *            the index of the values element at index k is permutation[k]
-	 * @return a new node containing the subtree of the given sublist of
-	 *         positions.
+	 * @param index
+	 * 			index of the value, as returned by the searches
+	 * @return the value
 	 */
-	protected < L extends RealLocalizable > ValueNode< T > makeNode( final ListIterator< L > first, final ListIterator< L > last, final int d, final List< T > values, final int[] permutation )
+	public T getValue( final int index )
 	{
-		final int i = first.nextIndex();
-		final int j = last.previousIndex();
-		if ( j > i )
-		{
-			final int k = i + ( j - i ) / 2;
-			KthElement.kthElement( first, last, k, permutation, new DimComparator< L >( d ) );
-			first.previous();
-			final L current = first.next();
+		return values.get( index );
+	}
 
-			final int dChild = ( d + 1 == n ) ? 0 : d + 1;
+	public double[] minAsDoubleArray()
+	{
+		return min.clone();
+	}
 
-			// Node< T > right = makeNode( elements, k + 1, j, dChild );
-			for ( int c = j - last.previousIndex(); c > 0; --c )
-				last.next();
-			final ValueNode< T > right = makeNode( first, last, dChild, values, permutation );
+	public double[] maxAsDoubleArray()
+	{
+		return max.clone();
+	}
 
-			// Node< T > left = makeNode( elements, i, k - 1, dChild );
-			for ( int c = first.nextIndex() - i; c > 0; --c )
-				first.previous();
-			for ( int c = last.nextIndex() - k; c > 0; --c )
-				last.previous();
-			final ValueNode< T > left = makeNode( first, last, dChild, values, permutation );
+	public NearestNeighborSearch createNearestNeighborSearch()
+	{
+		return new NearestNeighborSearch();
+	}
 
-			return new ValueNode< T >( values.get( permutation[ k ] ), current, d, left, right );
-		}
-		else if ( j == i )
-		{
-			final L current = first.next();
-			return new ValueNode< T >( values.get( permutation[ i ] ), current, d, null, null );
-		}
-		else
-		{
-			return null;
-		}
+	public RadiusNeighborSearch createRadiusNeighborSearch()
+	{
+		return new RadiusNeighborSearch();
+	}
+
+	public WithinDistancesSearch createWithinDistancesSearch()
+	{
+		return new WithinDistancesSearch();
 	}
 
 	/**
-	 * See {@link #makeNode(List, int, int, int, List, int[])}. Here, no values are
-	 * attached to the nodes (or rather the positions are the values).
-	 *
-	 * @param elements
-	 *            list of elements (positions and values at the same time)
-	 * @param i
-	 *            start index of sublist to process
-	 * @param j
-	 *            end index of sublist to process
-	 * @param d
-	 *            dimension along which to split the sublist
-	 *
-	 * @return 	  a node
+	 * Finds the nearest neighbor, optionally within a maximum distance.
 	 */
-	@SuppressWarnings( "unchecked" )
-	protected < L extends RealLocalizable > ValueNode< T > makeNode( final List< L > elements, final int i, final int j, final int d )
+	public class NearestNeighborSearch
 	{
-		if ( j > i )
-		{
-			final int k = i + ( j - i ) / 2;
-			KthElement.kthElement( i, j, k, elements, new DimComparator< L >( d ) );
+		private final float[] pos = new float[ n ];
+		private int bestNode;
+		private double bestSquDistance;
 
-			final int dChild = ( d + 1 == n ) ? 0 : d + 1;
-			return new ValueNode< T >( ( T ) elements.get( k ), elements.get( k ), d, makeNode( elements, i, k - 1, dChild ), makeNode( elements, k + 1, j, dChild ) );
-		}
-		else if ( j == i )
+		/**
+		 * @param reference
+		 * 			the query position
+		 * @return true, if a nearest neighbour was found
+		 */
+		public boolean search( final RealLocalizable reference )
 		{
-			return new ValueNode< T >( ( T ) elements.get( i ), elements.get( i ), d, null, null );
+			return search( reference, Double.POSITIVE_INFINITY );
 		}
-		else
+
+		/**
+		 * @param reference
+		 * 			the query position
+		 * @param maxDistance
+		 * 			only neighbors within this distance are found
+		 * @return true, if a nearest neighbour within the maxDistance was found
+		 */
+		public boolean search( final RealLocalizable reference, final double maxDistance )
 		{
-			return null;
+			reference.localize( pos );
+			bestNode = -1;
+			bestSquDistance = maxDistance == Double.POSITIVE_INFINITY ? maxDistance : maxDistance * maxDistance;
+			if ( size > 0 )
+				searchNode( 0, size - 1, 0 );
+			return bestNode >= 0;
 		}
-	}
 
-	/**
-	 * See {@link #makeNode(ListIterator, ListIterator, int, List, int[])}. Here, no
-	 * values are attached to the nodes (or rather the positions are the
-	 * values).
-	 *
-	 * @param first
-	 *            first element of the sublist to process
-	 * @param last
-	 *            last element of the sublist to process
-	 * @param d
-	 *            dimension along which to split the sublist
-	 */
-	@SuppressWarnings( "unchecked" )
-	protected < L extends RealLocalizable > ValueNode< T > makeNode( final ListIterator< L > first, final ListIterator< L > last, final int d )
-	{
-		final int i = first.nextIndex();
-		final int j = last.previousIndex();
-		if ( j > i )
+		private void searchNode( final int i, final int j, final int d )
 		{
 			final int k = i + ( j - i ) / 2;
-			KthElement.kthElement( first, last, k, new DimComparator< L >( d ) );
-			first.previous();
-			final L current = first.next();
+			final int offset = k * n;
 
-			final int dChild = ( d + 1 == n ) ? 0 : d + 1;
+			double squDistance = 0;
+			for ( int e = 0; e < n; ++e )
+			{
+				final double diff = ( double ) pos[ e ] - positions[ offset + e ];
+				squDistance += diff * diff;
+			}
 
-			// Node< T > right = makeNode( elements, k + 1, j, dChild );
-			for ( int c = j - last.previousIndex(); c > 0; --c )
-				last.next();
-			final ValueNode< T > right = makeNode( first, last, dChild );
+			if ( squDistance <= bestSquDistance )
+			{
+				bestSquDistance = squDistance;
+				bestNode = k;
+			}
 
-			// Node< T > left = makeNode( elements, i, k - 1, dChild );
-			for ( int c = first.nextIndex() - i; c > 0; --c )
-				first.previous();
-			for ( int c = last.nextIndex() - k; c > 0; --c )
-				last.previous();
-			final ValueNode< T > left = makeNode( first, last, dChild );
+			final double axisDiff = ( double ) pos[ d ] - positions[ offset + d ];
+			final int dChild = ( d + 1 == n ) ? 0 : d + 1;
+			final boolean leftIsNearBranch = axisDiff < 0;
 
-			return new ValueNode< T >( ( T ) current, current, d, left, right );
-		}
-		else if ( j == i )
-		{
-			final L current = first.next();
-			return new ValueNode< T >( ( T ) current, current, d, null, null );
+			// search the near branch
+			if ( leftIsNearBranch ) { if ( k > i ) searchNode( i, k - 1, dChild ); }
+			else { if ( j > k ) searchNode( k + 1, j, dChild ); }
+
+			// search the away branch - maybe
+			if ( axisDiff * axisDiff <= bestSquDistance )
+			{
+				if ( leftIsNearBranch ) { if ( j > k ) searchNode( k + 1, j, dChild ); }
+				else { if ( k > i ) searchNode( i, k - 1, dChild ); }
+			}
 		}
-		else
+
+		public int getIndex()
 		{
-			return null;
+			return valueIndices[ bestNode ];
 		}
-	}
 
-	/**
-	 * Construct the tree by recursively adding nodes. The sublist of elements
-	 * between indices i and j (inclusive) is split at the median element with
-	 * respect to coordinates in the given dimension d. The median becomes the
-	 * new node which is returned. The left and right partitions of the sublist
-	 * are processed recursively and form the left and right subtrees of the
-	 * node. (The elements of the list are RealCursors which provide coordinates
-	 * and values.)
-	 *
-	 * @param elements
-	 *            list of elements (positions and values at the same time)
-	 * @param i
-	 *            start index of sublist to process
-	 * @param j
-	 *            end index of sublist to process
-	 * @param d
-	 *            dimension along which to split the sublist
-	 * @return a new node containing the subtree of the given sublist of
-	 *         elements
-	 */
-	protected SamplerNode< T > makeSamplerNode( final List< RealCursor< T > > elements, final int i, final int j, final int d )
-	{
-		if ( j > i )
+		public T get()
 		{
-			final int k = i + ( j - i ) / 2;
-			KthElement.kthElement( i, j, k, elements, new DimComparator< RealCursor< T > >( d ) );
-
-			final int dChild = ( d + 1 == n ) ? 0 : d + 1;
-			return new SamplerNode< T >( elements.get( k ), elements.get( k ), d, makeSamplerNode( elements, i, k - 1, dChild ), makeSamplerNode( elements, k + 1, j, dChild ) );
+			return values.get( valueIndices[ bestNode ] );
 		}
-		else if ( j == i )
+
+		public double getSquareDistance()
 		{
-			return new SamplerNode< T >( elements.get( i ), elements.get( i ), d, null, null );
+			return bestSquDistance;
 		}
-		else
+
+		public double getDistance()
 		{
-			return null;
+			return Math.sqrt( bestSquDistance );
 		}
 	}
 
 	/**
-	 * Get the root node.
-	 *
-	 * @return the root node.
+	 * Finds all neighbours within a radius.
 	 */
-	public KDTreeNode< T > getRoot()
-	{
-		return root;
-	}
-
-	@Override
-	public int numDimensions()
-	{
-		return n;
-	}
-
-	public String toString( final KDTreeNode< T > left, final String indent )
-	{
-		if ( left == null )
-			return "";
-
-		return indent + "- " + left.toString() + "\n" + toString( left.left, indent + "  " ) + toString( left.right, indent + "  " );
-	}
-
-	@Override
-	public String toString()
+	public class RadiusNeighborSearch extends Neighbors
 	{
-		return toString( root, "" );
-	}
-
-	@Override
-	public double realMin( final int d )
-	{
-		return min[ d ];
-	}
+		private final float[] pos = new float[ n ];
+		private double squRadius;
 
-	@Override
-	public void realMin( final double[] m )
-	{
-		for ( int d = 0; d < n; ++d )
-			m[ d ] = min[ d ];
-	}
-
-	@Override
-	public void realMin( final RealPositionable m )
-	{
-		m.setPosition( min );
-	}
+		public void search( final RealLocalizable reference, final double radius, final boolean sortResults )
+		{
+			reference.localize( pos );
+			squRadius = radius * radius;
+			clear();
+			if ( size > 0 )
+				searchNode( 0, size - 1, 0 );
+			if ( sortResults )
+				sort();
+		}
 
-	@Override
-	public double realMax( final int d )
-	{
-		return max[ d ];
-	}
+		private void searchNode( final int i, final int j, final int d )
+		{
+			final int k = i + ( j - i ) / 2;
+			final int offset = k * n;
 
-	@Override
-	public void realMax( final double[] m )
-	{
-		for ( int d = 0; d < n; ++d )
-			m[ d ] = max[ d ];
-	}
+			double squDistance = 0;
+			for ( int e = 0; e < n; ++e )
+			{
+				final double diff = ( double ) pos[ e ] - positions[ offset + e ];
+				squDistance += diff * diff;
+			}
 
-	@Override
-	public void realMax( final RealPositionable m )
-	{
-		m.setPosition( max );
-	}
+			if ( squDistance <= squRadius )
+				add( valueIndices[ k ], squDistance );
 
-	@Override
-	public long size()
-	{
-		return size;
-	}
+			final double axisDiff = ( double ) pos[ d ] - positions[ offset + d ];
+			final int dChild = ( d + 1 == n ) ? 0 : d + 1;
 
-	@Override
-	public Object iterationOrder()
-	{
-		return this; // iteration order is only compatible with ourselves
+			if ( ( axisDiff < 0 || axisDiff * axisDiff <= squRadius ) && k > i )
+				searchNode( i, k - 1, dChild );
+			if ( ( axisDiff >= 0 || axisDiff * axisDiff <= squRadius ) && j > k )
+				searchNode( k + 1, j, dChild );
+		}
 	}
 
-	public final class KDTreeCursor implements RealCursor< T >
+	/**
+	 * Finds all neighbours within a box, i.e. within
+	 * (potentially different) distances along each dimension.
+	 */
+	public class WithinDistancesSearch extends Neighbors
 	{
-		private final KDTreeFloat< T > tree;
-
-		private final ArrayDeque< KDTreeNode< T > > nodes;
-
-		private KDTreeNode< T > currentNode;
+		private final float[] pos = new float[ n ];
+		private double[] distances;
 
-		public KDTreeCursor( final KDTreeFloat< T > kdtree )
+		public void search( final RealLocalizable reference, final double[] distances, final boolean sortResults )
 		{
-			this.tree = kdtree;
-			final int capacity = 2 + ( int ) ( Math.log( kdtree.size() ) / Math.log( 2 ) );
-			this.nodes = new ArrayDeque< KDTreeNode< T > >( capacity );
-			reset();
+			reference.localize( pos );
+			this.distances = distances;
+			clear();
+			if ( size > 0 )
+				searchNode( 0, size - 1, 0 );
+			if ( sortResults )
+				sort();
 		}
 
-		public KDTreeCursor( final KDTreeCursor c )
+		private void searchNode( final int i, final int j, final int d )
 		{
-			this.tree = c.tree;
-			this.nodes = c.nodes.clone();
-			this.currentNode = c.currentNode;
-		}
+			final int k = i + ( j - i ) / 2;
+			final int offset = k * n;
 
-		@Override
-		public void localize( final float[] position )
-		{
-			currentNode.localize( position );
-		}
+			boolean closeEnough = true;
+			double squDistance = 0;
+			for ( int e = 0; e < n; ++e )
+			{
+				final double diff = ( double ) pos[ e ] - positions[ offset + e ];
+				if ( Math.abs( diff ) > distances[ e ] )
+				{
+					closeEnough = false;
+					break;
+				}
+				squDistance += diff * diff;
+			}
 
-		@Override
-		public void localize( final double[] position )
-		{
-			currentNode.localize( position );
-		}
+			if ( closeEnough )
+				add( valueIndices[ k ], squDistance );
 
-		@Override
-		public float getFloatPosition( final int d )
-		{
-			return currentNode.getFloatPosition( d );
-		}
+			final double axisDiff = ( double ) pos[ d ] - positions[ offset + d ];
+			final int dChild = ( d + 1 == n ) ? 0 : d + 1;
 
-		@Override
-		public double getDoublePosition( final int d )
-		{
-			return currentNode.getDoublePosition( d );
+			if ( ( axisDiff < 0 || axisDiff <= distances[ d ] ) && k > i )
+				searchNode( i, k - 1, dChild );
+			if ( ( axisDiff >= 0 || -axisDiff <= distances[ d ] ) && j > k )
+				searchNode( k + 1, j, dChild );
 		}
+	}
 
-		@Override
-		public int numDimensions()
-		{
-			return n;
-		}
+	/**
+	 * The results of a search, stored as ( squared distance, index ) pairs
+	 * packed into longs, such that they can be sorted by distance
+	 * without creating objects.
+	 */
+	public abstract class Neighbors
+	{
+		private long[] neighbors = new long[ 16 ];
+		private int numNeighbors;
 
-		@Override
-		public T get()
+		protected void clear()
 		{
-			return currentNode.get();
+			numNeighbors = 0;
 		}
 
-		@Override
-		public KDTreeCursor copy()
+		protected void add( final int index, final double squDistance )
 		{
-			return new KDTreeCursor( this );
-		}
+			if ( numNeighbors == neighbors.length )
+				neighbors = Arrays.copyOf( neighbors, 2 * numNeighbors );
 
-		@Override
-		public void jumpFwd( final long steps )
-		{
-			for ( long i = 0; i < steps; ++i )
-				fwd();
+			// the bits of non-negative floats sort like the floats
+			neighbors[ numNeighbors++ ] = ( ( long ) Float.floatToIntBits( ( float ) squDistance ) << 32 ) | index;
 		}
 
-		@Override
-		public void fwd()
+		protected void sort()
 		{
-			if ( nodes.isEmpty() )
-				currentNode = null;
-			else
-			{
-				currentNode = nodes.pop();
-				if ( currentNode.left != null )
-					nodes.push( currentNode.left );
-				if ( currentNode.right != null )
-					nodes.push( currentNode.right );
-			}
+			Arrays.sort( neighbors, 0, numNeighbors );
 		}
 
-		@Override
-		public void reset()
+		public int numNeighbors()
 		{
-			nodes.clear();
-			nodes.push( tree.getRoot() );
-			currentNode = null;
+			return numNeighbors;
 		}
 
-		@Override
-		public boolean hasNext()
+		/**
+		 * @param i
+		 * 			the i-th neighbor
+		 * @return the index of the value of the i-th neighbor
+		 */
+		public int getIndex( final int i )
 		{
-			return !nodes.isEmpty();
+			return ( int ) neighbors[ i ];
 		}
 
-		@Override
-		public T next()
+		public T get( final int i )
 		{
-			fwd();
-			return get();
+			return values.get( getIndex( i ) );
 		}
 
-		@Override
-		public void remove()
+		public double getSquareDistance( final int i )
 		{
-			// NB: no action.
+			return Float.intBitsToFloat( ( int ) ( neighbors[ i ] >>> 32 ) );
 		}
 
-		@Override
-		public KDTreeCursor copyCursor()
+		public double getDistance( final int i )
 		{
-			return copy();
+			return Math.sqrt( getSquareDistance( i ) );
 		}
-
-	}
-
-	@Override
-	public KDTreeCursor iterator()
-	{
-		return new KDTreeCursor( this );
-	}
-
-	@Override
-	public KDTreeCursor cursor()
-	{
-		return new KDTreeCursor( this );
-	}
-
-	@Override
-	public KDTreeCursor localizingCursor()
-	{
-		return new KDTreeCursor( this );
-	}
-
-	@Override
-	public T firstElement()
-	{
-		return iterator().next();
 	}
 }
@@ -30,7 +30,6 @@ package org.embl.mobie.lib.plot;
 
 import bdv.util.Affine3DHelpers;
 import bdv.util.BdvHandle;
-import net.imglib2.KDTree;
 import net.imglib2.RealPoint;
 import net.imglib2.realtransform.AffineTransform3D;
 import net.imglib2.type.numeric.ARGBType;
@@ -41,14 +40,14 @@ import java.util.function.Supplier;
 
 public class LocationToColorSupplier< T > implements Supplier< BiConsumer< RealPoint, ARGBType > >
 {
-	private final KDTree< T > kdTree;
+	private final KDTreeFloat< T > kdTree;
 	private final ColoringModel< T > coloringModel;
 	protected final double dotSize;
 	private final double aspectRatio;
 	private final int background;
 	private final BdvHandle bdvHandle;
 
-	public LocationToColorSupplier( KDTree kdTree, ColoringModel coloringModel, final double dotSize, double aspectRatio, int background, BdvHandle bdvHandle )
+	public LocationToColorSupplier( KDTreeFloat< T > kdTree, ColoringModel coloringModel, final double dotSize, double aspectRatio, int background, BdvHandle bdvHandle )
 	{
 		this.kdTree = kdTree;
 		this.coloringModel = coloringModel;
@@ -66,13 +65,13 @@ public class LocationToColorSupplier< T > implements Supplier< BiConsumer< RealP
 
 	class LocationToColor implements BiConsumer< RealPoint, ARGBType >
 	{
-		private final WithinDistancesSearchOnKDTree< T > search;
+		private final KDTreeFloat< T >.WithinDistancesSearch search;
 		private AffineTransform3D viewerTransform;
 		private double[] searchDistances;
 
 		public LocationToColor( )
 		{
-			search = new WithinDistancesSearchOnKDTree<>( kdTree );
+			search = kdTree.createWithinDistancesSearch();
 			viewerTransform = bdvHandle.getViewerPanel().state().getViewerTransform();
 			searchDistances = new double[ 2 ];
 			searchDistances[ 0 ] = Affine3DHelpers.extractScale( viewerTransform.inverse(), 0 );
@@ -89,7 +88,7 @@ public class LocationToColorSupplier< T > implements Supplier< BiConsumer< RealP
 
 			if ( search.numNeighbors() > 0 )
 			{
-				coloringModel.convert( search.getSampler( 0 ).get(), argbType );
+				coloringModel.convert( search.get( 0 ), argbType );
 
 				// The coloring model uses the alpha value to adjust the brightness.
 				// Since the default renderer in BDV ignores
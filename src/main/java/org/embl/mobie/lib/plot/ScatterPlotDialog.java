@@ -58,6 +58,7 @@ public class ScatterPlotDialog
 
 		gd.addNumericField( "Aspect Ratio (0 = Auto)", settings.aspectRatio );
 		gd.addNumericField( "Dot Size", settings.dotSize );
+		gd.addNumericField( "Rasterize Above Number of Points", settings.rasterizeAboveNumPoints, 0 );
 		gd.showDialog();
 
 		if ( gd.wasCanceled() ) return false;
@@ -67,6 +68,7 @@ public class ScatterPlotDialog
 		settings.aspectRatio = gd.getNextNumber();
 		settings.showAllTimepoints = gd.getNextBoolean();
 		settings.dotSize = gd.getNextNumber();
+		settings.rasterizeAboveNumPoints = ( int ) gd.getNextNumber();
 
 		return true;
 	}
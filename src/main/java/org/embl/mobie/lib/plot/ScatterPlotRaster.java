@@ -0,0 +1,306 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.plot;
+
+import mpicbg.spim.data.sequence.FinalVoxelDimensions;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.realtransform.AffineTransform3D;
+import net.imglib2.type.numeric.ARGBType;
+import net.imglib2.view.Views;
+import org.embl.mobie.lib.color.ColoringModel;
+import org.embl.mobie.lib.select.SelectionModel;
+import org.embl.mobie.lib.source.RandomAccessibleIntervalMipmapSource;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Renders a scatter plot into a resolution pyramid of ARGB images.
+ *
+ * In contrast to the {@link LocationToColorSupplier}, which searches
+ * a KDTree for every rendered pixel, the points are splatted once
+ * into each resolution level and then only re-splatted
+ * when the coloring or the selection changes.
+ *
+ * The finest level has {@code BASE_SIZE} pixels along the x-axis;
+ * each further level halves the resolution. The dots are squares
+ * with a half width of {@code dotSize} pixels of the respective level,
+ * which approximates the on-screen dot size of the
+ * {@link LocationToColorSupplier}, because BDV renders the level
+ * whose pixels best match the screen pixels.
+ *
+ * @param <A> an annotation
+ */
+public class ScatterPlotRaster< A >
+{
+	private static final int BASE_SIZE = 2048;
+	private static final int MAX_SIZE = 8192;
+	private static final int MIN_SIZE = 64;
+	private static final int MAX_NUM_LEVELS = 16;
+
+	private final List< A > annotations;
+	// ( x0, y0, x1, y1, ... )
+	private final float[] coordinates;
+	private final int background;
+	private final int radius;
+
+	private final List< long[] > dimensions = new ArrayList<>();
+	private final List< AffineTransform3D > transforms = new ArrayList<>();
+	// per level: (point index + 1) of the dot covering a pixel, 0 = no dot
+	private final List< int[] > pointIndices = new ArrayList<>();
+	// per level: the ARGB values that are shown in BDV;
+	// an update creates new arrays and swaps them in, because BDV may
+	// concurrently render the current ones
+	private volatile int[][] pixels = new int[ 0 ][];
+
+	public ScatterPlotRaster(
+			List< A > annotations,
+			float[] coordinates,
+			double[] min,
+			double[] max,
+			double aspectRatio,
+			double dotSize,
+			int background )
+	{
+		this.annotations = annotations;
+		this.background = background;
+		this.radius = Math.max( 0, ( int ) Math.round( dotSize ) );
+
+		this.coordinates = coordinates;
+
+		initLevels( min, max, aspectRatio );
+	}
+
+	private void initLevels( double[] min, double[] max, double aspectRatio )
+	{
+		final double rangeX = max[ 0 ] > min[ 0 ] ? max[ 0 ] - min[ 0 ] : 1.0;
+		final double rangeY = max[ 1 ] > min[ 1 ] ? max[ 1 ] - min[ 1 ] : 1.0;
+
+		final double pixelSizeX = rangeX / BASE_SIZE;
+		double pixelSizeY = pixelSizeX * ( aspectRatio > 0 && Double.isFinite( aspectRatio ) ? aspectRatio : 1.0 );
+		// avoid huge images for extreme aspect ratios
+		pixelSizeY = Math.max( pixelSizeY, rangeY / MAX_SIZE );
+
+		// leave space for the dots at the border of the plot
+		final int margin = radius + 1;
+
+		for ( int level = 0; level < MAX_NUM_LEVELS; level++ )
+		{
+			final double scale = Math.pow( 2, level );
+			final double sx = pixelSizeX * scale;
+			final double sy = pixelSizeY * scale;
+			final long width = ( long ) Math.ceil( rangeX / sx ) + 1 + 2 * margin;
+			final long height = ( long ) Math.ceil( rangeY / sy ) + 1 + 2 * margin;
+
+			final AffineTransform3D transform = new AffineTransform3D();
+			transform.set(
+					sx, 0, 0, min[ 0 ] - margin * sx,
+					0, sy, 0, min[ 1 ] - margin * sy,
+					0, 0, 1, 0 );
+
+			dimensions.add( new long[]{ width, height } );
+			transforms.add( transform );
+			pointIndices.add( new int[ ( int ) ( width * height ) ] );
+
+			if ( Math.max( width, height ) <= MIN_SIZE ) break;
+		}
+
+		pixels = new int[ dimensions.size() ][];
+		for ( int level = 0; level < pixels.length; level++ )
+			pixels[ level ] = new int[ pointIndices.get( level ).length ];
+	}
+
+	/**
+	 * Re-splats all points, drawing the selected points on top,
+	 * and colors them according to the coloring model.
+	 *
+	 * @param coloringModel
+	 * 				the coloring of the points
+	 * @param selectionModel
+	 * 				may be null
+	 */
+	public synchronized void update( ColoringModel< A > coloringModel, SelectionModel< A > selectionModel )
+	{
+		final int[] colors = computeColors( coloringModel );
+		final int[] drawingOrder = computeDrawingOrder( selectionModel );
+
+		final int numLevels = dimensions.size();
+		final int[][] updatedPixels = new int[ numLevels ][];
+		int[] buffer = null;
+		for ( int level = 0; level < numLevels; level++ )
+		{
+			final int width = ( int ) dimensions.get( level )[ 0 ];
+			final int height = ( int ) dimensions.get( level )[ 1 ];
+			final int[] indices = pointIndices.get( level );
+			if ( buffer == null || buffer.length < indices.length )
+				buffer = new int[ indices.length ];
+
+			splat( drawingOrder, transforms.get( level ), indices, width, height );
+			dilate( indices, buffer, width, height );
+
+			final int[] argbs = new int[ indices.length ];
+			for ( int i = 0; i < argbs.length; i++ )
+				argbs[ i ] = indices[ i ] == 0 ? background : colors[ indices[ i ] - 1 ];
+			updatedPixels[ level ] = argbs;
+		}
+
+		pixels = updatedPixels;
+	}
+
+	public RandomAccessibleIntervalMipmapSource< ARGBType > getSource( String name )
+	{
+		final int numLevels = dimensions.size();
+		final AffineTransform3D[] mipmapTransforms = new AffineTransform3D[ numLevels ];
+		for ( int level = 0; level < numLevels; level++ )
+			mipmapTransforms[ level ] = transforms.get( level ).copy();
+
+		// the source gets the levels from this list for every rendering,
+		// such that it always shows the most recently updated pixels
+		final List< RandomAccessibleInterval< ARGBType > > rais = new AbstractList< RandomAccessibleInterval< ARGBType > >()
+		{
+			@Override
+			public RandomAccessibleInterval< ARGBType > get( int level )
+			{
+				return Views.addDimension( ArrayImgs.argbs( pixels[ level ], dimensions.get( level ) ), 0, 0 );
+			}
+
+			@Override
+			public int size()
+			{
+				return numLevels;
+			}
+		};
+
+		return new RandomAccessibleIntervalMipmapSource<>(
+				rais,
+				new ARGBType(),
+				new FinalVoxelDimensions( "", 1.0, 1.0, 1.0 ),
+				name,
+				mipmapTransforms );
+	}
+
+	private int[] computeColors( ColoringModel< A > coloringModel )
+	{
+		final int numPoints = annotations.size();
+		final int[] colors = new int[ numPoints ];
+		final ARGBType argbType = new ARGBType();
+		for ( int i = 0; i < numPoints; i++ )
+		{
+			coloringModel.convert( annotations.get( i ), argbType );
+			// The coloring model uses the alpha value to adjust the brightness.
+			// Since the default renderer in BDV ignores
+			// this we multiply the rgb values accordingly
+			argbType.mul( ARGBType.alpha( argbType.get() ) / 255.0 );
+			colors[ i ] = argbType.get();
+		}
+		return colors;
+	}
+
+	private int[] computeDrawingOrder( SelectionModel< A > selectionModel )
+	{
+		final int numPoints = annotations.size();
+		final int[] order = new int[ numPoints ];
+
+		if ( selectionModel == null || selectionModel.isEmpty() )
+		{
+			for ( int i = 0; i < numPoints; i++ )
+				order[ i ] = i;
+			return order;
+		}
+
+		// selected points are drawn last, such that they are not hidden
+		int first = 0;
+		int last = numPoints - 1;
+		for ( int i = 0; i < numPoints; i++ )
+		{
+			if ( selectionModel.isSelected( annotations.get( i ) ) )
+				order[ last-- ] = i;
+			else
+				order[ first++ ] = i;
+		}
+		return order;
+	}
+
+	private void splat( int[] drawingOrder, AffineTransform3D transform, int[] indices, int width, int height )
+	{
+		final double sx = transform.get( 0, 0 );
+		final double sy = transform.get( 1, 1 );
+		final double ox = transform.get( 0, 3 );
+		final double oy = transform.get( 1, 3 );
+
+		Arrays.fill( indices, 0 );
+		for ( final int i : drawingOrder )
+		{
+			final long x = Math.round( ( coordinates[ 2 * i ] - ox ) / sx );
+			final long y = Math.round( ( coordinates[ 2 * i + 1 ] - oy ) / sy );
+			if ( x < 0 || y < 0 || x >= width || y >= height ) continue;
+			indices[ ( int ) ( y * width + x ) ] = i + 1;
+		}
+	}
+
+	/*
+	 * Grows the splatted points into squares of the dot size,
+	 * using a separable nearest-point search along rows and columns.
+	 */
+	private void dilate( int[] indices, int[] buffer, int width, int height )
+	{
+		if ( radius == 0 ) return;
+
+		final int[] nearestBefore = new int[ Math.max( width, height ) ];
+
+		for ( int y = 0; y < height; y++ )
+			dilateLine( indices, buffer, y * width, 1, width, nearestBefore );
+
+		for ( int x = 0; x < width; x++ )
+			dilateLine( buffer, indices, x, width, height, nearestBefore );
+	}
+
+	private void dilateLine( int[] src, int[] dst, int offset, int stride, int length, int[] nearestBefore )
+	{
+		int before = - radius - 1;
+		for ( int i = 0; i < length; i++ )
+		{
+			if ( src[ offset + i * stride ] != 0 ) before = i;
+			nearestBefore[ i ] = before;
+		}
+
+		int after = length + radius;
+		for ( int i = length - 1; i >= 0; i-- )
+		{
+			if ( src[ offset + i * stride ] != 0 ) after = i;
+			before = nearestBefore[ i ];
+
+			final int nearest = ( i - before <= after - i ) ? before : after;
+			dst[ offset + i * stride ] = Math.abs( nearest - i ) <= radius ? src[ offset + nearest * stride ] : 0;
+		}
+	}
+}
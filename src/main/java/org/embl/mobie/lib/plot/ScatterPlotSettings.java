@@ -28,8 +28,6 @@
  */
 package org.embl.mobie.lib.plot;
 
-import java.util.List;
-
 public class ScatterPlotSettings
 {
 	public String[] selectedColumns;
@@ -37,6 +35,9 @@ public class ScatterPlotSettings
 	public double aspectRatio = 0.0;
 	public double dotSize = 5.0;
 	public boolean showAllTimepoints = true;
+	// above this number of points the plot is rendered
+	// from a precomputed raster instead of searching a KDTree per pixel
+	public int rasterizeAboveNumPoints = 100000;
 
 	public ScatterPlotSettings( String[] selectedColumns )
 	{
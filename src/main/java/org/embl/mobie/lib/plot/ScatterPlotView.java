@@ -32,16 +32,14 @@ import bdv.util.BdvFunctions;
 import bdv.util.BdvHandle;
 import bdv.util.BdvOptions;
 import bdv.util.BdvStackSource;
+import bdv.viewer.Source;
 import bdv.viewer.TimePointListener;
 import ij.IJ;
 import ij.gui.GenericDialog;
 import mpicbg.spim.data.sequence.FinalVoxelDimensions;
 import net.imglib2.FinalInterval;
-import net.imglib2.KDTree;
 import net.imglib2.RealPoint;
 import net.imglib2.RealRandomAccessible;
-import net.imglib2.neighborsearch.NearestNeighborSearchOnKDTree;
-import net.imglib2.neighborsearch.RadiusNeighborSearchOnKDTree;
 import net.imglib2.position.FunctionRealRandomAccessible;
 import net.imglib2.realtransform.AffineTransform3D;
 import net.imglib2.realtransform.RealViews;
@@ -70,7 +68,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -98,14 +95,15 @@ public class ScatterPlotView< A extends Annotation > implements SelectionListene
 	private final SelectionModel< A > selectionModel;
 
 	private BdvHandle bdvHandle;
-	private Map< A, RealPoint > tableRowToRealPoint;
+	private AnnotationKDTreeSupplier< A > kdTreeSupplier;
 	private A recentFocus;
 	private Window window;
-	private NearestNeighborSearchOnKDTree< A > nearestNeighborSearchOnKDTree;
+	private KDTreeFloat< A >.NearestNeighborSearch nearestNeighborSearch;
 	private BdvStackSource< ARGBType > bdvStackSource;
 	private int currentTimePoint;
 	private List< VisibilityListener > listeners = new ArrayList<>(  );
-	private RadiusNeighborSearchOnKDTree< A > radiusNeighborSearchOnKDTree;
+	private KDTreeFloat< A >.RadiusNeighborSearch radiusNeighborSearch;
+	private volatile ScatterPlotRaster< A > raster;
 
 	public ScatterPlotView(
 			AnnotationTableModel< A > tableModel,
@@ -154,13 +152,12 @@ public class ScatterPlotView< A extends Annotation > implements SelectionListene
 			bdvStackSource.removeFromBdv();
 
 		Collection< A > annotations = getAnnotationsForCurrentTimePoint( );
-		AnnotationKDTreeSupplier< A > kdTreeSupplier = new AnnotationKDTreeSupplier<>( annotations, settings.selectedColumns );
-		KDTree< A > kdTree = kdTreeSupplier.get();
+		kdTreeSupplier = new AnnotationKDTreeSupplier<>( annotations, settings.selectedColumns );
+		KDTreeFloat< A > kdTree = kdTreeSupplier.get();
 		min = kdTreeSupplier.getMin();
 		max = kdTreeSupplier.getMax();
-		tableRowToRealPoint = kdTreeSupplier.getAnnotationToCoordinate();
-		nearestNeighborSearchOnKDTree = new NearestNeighborSearchOnKDTree<>( kdTree );
-		radiusNeighborSearchOnKDTree = new RadiusNeighborSearchOnKDTree<>( kdTree );
+		nearestNeighborSearch = kdTree.createNearestNeighborSearch();
+		radiusNeighborSearch = kdTree.createRadiusNeighborSearch();
 
 		if ( settings.aspectRatio == 0 )
 		{
@@ -172,10 +169,26 @@ public class ScatterPlotView< A extends Annotation > implements SelectionListene
 			aspectRatio = settings.aspectRatio;
 		}
 
+		final String name = "x: " + settings.selectedColumns[ 0 ] + ", y: " + settings.selectedColumns[ 1 ];
+		final int background = ARGBType.rgba( 100,  100, 100, 255 );
+
+		if ( kdTreeSupplier.getAnnotations().size() > settings.rasterizeAboveNumPoints )
+		{
+			// Splat the points once instead of searching
+			// the KDTree for every rendered pixel;
+			// the KDTree is then only used for picking points.
+			raster = new ScatterPlotRaster<>( kdTreeSupplier.getAnnotations(), kdTreeSupplier.getCoordinates(), min, max, aspectRatio, settings.dotSize, background );
+			raster.update( coloringModel, selectionModel );
+			showInBdv( raster.getSource( name ) );
+			return;
+		}
+
+		raster = null;
+
 //		final double[] radii = new double[ 2 ];
 //		radii[ 0 ] = settings.dotSize * ( max[ 0 ] - min[ 0 ] ) / 100.0;
 //		radii[ 1 ] = radii[ 0 ] * aspectRatio;
-		Supplier< BiConsumer< RealPoint, ARGBType > > locationToDotSupplier = new LocationToColorSupplier( kdTree, coloringModel, settings.dotSize, aspectRatio, ARGBType.rgba( 100,  100, 100, 255 ), bdvHandle );
+		Supplier< BiConsumer< RealPoint, ARGBType > > locationToDotSupplier = new LocationToColorSupplier( kdTree, coloringModel, settings.dotSize, aspectRatio, background, bdvHandle );
 
 		// TODO: create a source with multiple time points
 		FunctionRealRandomAccessible< ARGBType > rra = new FunctionRealRandomAccessible( 2, locationToDotSupplier, ARGBType::new );
@@ -188,7 +201,7 @@ public class ScatterPlotView< A extends Annotation > implements SelectionListene
 						rra3D,
 						interval,
 						new ARGBType(),
-						"x: " + settings.selectedColumns[ 0 ] + ", y: " + settings.selectedColumns[ 1 ],
+						name,
 						voxelDimensions );
 
 		showInBdv( scatterPlotSource );
@@ -343,8 +356,8 @@ public class ScatterPlotView< A extends Annotation > implements SelectionListene
 		final RealPoint realPoint = new RealPoint( 3 );
 		bdvHandle.getViewerPanel().getGlobalMouseCoordinates( realPoint );
 		RealPoint realPoint2d = new RealPoint( realPoint.getDoublePosition( 0 ), realPoint.getDoublePosition( 1 ) );
-		nearestNeighborSearchOnKDTree.search( realPoint2d );
-		return nearestNeighborSearchOnKDTree.getSampler().get();
+		if ( ! nearestNeighborSearch.search( realPoint2d ) ) return null;
+		return nearestNeighborSearch.get();
 	}
 
 	private ArrayList< A > searchWithinRadius( )
@@ -352,20 +365,20 @@ public class ScatterPlotView< A extends Annotation > implements SelectionListene
 		final RealPoint realPoint = new RealPoint( 3 );
 		bdvHandle.getViewerPanel().getGlobalMouseCoordinates( realPoint );
 		RealPoint realPoint2d = new RealPoint( realPoint.getDoublePosition( 0 ), realPoint.getDoublePosition( 1 ) );
-		radiusNeighborSearchOnKDTree.search( realPoint2d, selectionRadius, true );
-		final int numNeighbors = radiusNeighborSearchOnKDTree.numNeighbors();
+		radiusNeighborSearch.search( realPoint2d, selectionRadius, true );
+		final int numNeighbors = radiusNeighborSearch.numNeighbors();
 		final ArrayList< A > neighbors = new ArrayList<>();
 		for ( int i = 0; i < numNeighbors; i++ )
-			neighbors.add( radiusNeighborSearchOnKDTree.getSampler( i ).get() );
+			neighbors.add( radiusNeighborSearch.get( i ) );
 
 		return neighbors;
 	}
 
-	private void showInBdv( ScatterPlotSource< ARGBType > scatterPlotSource )
+	private void showInBdv( Source< ARGBType > source )
 	{
 		final BdvOptions bdvOptions = BdvOptions.options().is2D().frameTitle( "Scatter plot" ).addTo( bdvHandle );
 
-		bdvStackSource = BdvFunctions.show( scatterPlotSource, bdvOptions );
+		bdvStackSource = BdvFunctions.show( source, bdvOptions );
 		bdvHandle = bdvStackSource.getBdvHandle();
 
 		// Set viewer transform to see all points.
@@ -396,6 +409,10 @@ public class ScatterPlotView< A extends Annotation > implements SelectionListene
 	{
 		if ( bdvHandle == null ) return;
 
+		final ScatterPlotRaster< A > raster = this.raster;
+		if ( raster != null )
+			raster.update( coloringModel, selectionModel );
+
 		bdvHandle.getViewerPanel().requestRepaint();
 	}
 
@@ -404,6 +421,10 @@ public class ScatterPlotView< A extends Annotation > implements SelectionListene
 	{
 		if ( bdvHandle == null ) return;
 
+		final ScatterPlotRaster< A > raster = this.raster;
+		if ( raster != null )
+			raster.update( coloringModel, selectionModel );
+
 		bdvHandle.getViewerPanel().requestRepaint();
 	}
 
@@ -431,8 +452,9 @@ public class ScatterPlotView< A extends Annotation > implements SelectionListene
 		else
 		{
 			recentFocus = selection;
-			double[] location = new double[ 3 ];
-			tableRowToRealPoint.get( selection ).localize( location );
+			final double[] coordinate = kdTreeSupplier.getCoordinate( selection );
+			if ( coordinate == null ) return;
+			double[] location = new double[]{ coordinate[ 0 ], coordinate[ 1 ], 0 };
 			ViewerTransformChanger.moveToPosition( bdvHandle, location, ViewerTransformChanger.animationDurationMillis );
 		}
 	}
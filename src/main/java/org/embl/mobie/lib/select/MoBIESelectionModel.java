@@ -28,74 +28,86 @@
  */
 package org.embl.mobie.lib.select;
 
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Stores the selection as a bitset over ids that are assigned
+ * to the objects when they are selected for the first time.
+ *
+ * Readers, e.g. the rendering of every voxel in {@code MobieColoringModel},
+ * work on an immutable snapshot and never lock; writers are synchronized
+ * and publish a new snapshot (copy-on-write).
+ */
 public class MoBIESelectionModel< T > implements SelectionModel< T >
 {
 	private final Listeners.SynchronizedList< SelectionListener > listeners = new Listeners.SynchronizedList<>( );
-	private final Set< T > selected = new HashSet();
+	private volatile Selection< T > selection = Selection.empty();
 	private T focusObject;
 
+	// coalesce selection events that are fired while
+	// the listeners have not yet been notified
+	private final AtomicBoolean selectionEventPending = new AtomicBoolean();
+	private int numPauses = 0;
+	private boolean changedWhilePaused = false;
+
 	public MoBIESelectionModel()
 	{
 	}
 
 	@Override
-	public synchronized boolean isSelected( T object )
+	public boolean isSelected( T object )
 	{
-		return selected.contains( object );
+		return selection.contains( object );
 	}
 
 	@Override
-	public synchronized void setSelected( T object, boolean select )
-	{
-		setSelected( object, select, true );
-	}
-
-	private synchronized void setSelected( T object, boolean select, boolean notify )
+	public void setSelected( T object, boolean select )
 	{
-		if ( select )
-			add( object, notify );
-		else
-			remove( object, notify );
+		setSelected( Collections.singletonList( object ), select );
 	}
 
-	private synchronized void remove( T object, boolean notify )
+	private void notifySelectionListeners()
 	{
-		if ( selected.contains( object ) )
+		synchronized ( this )
 		{
-			selected.remove( object );
-			if ( notify )
-				notifySelectionListeners();
-			notifySelectionListeners();
+			if ( numPauses > 0 )
+			{
+				changedWhilePaused = true;
+				return;
+			}
 		}
-	}
 
-	private synchronized void add( T object, boolean notify )
-	{
-		if ( ! selected.contains( object ) )
-		{
-			selected.add( object );
-			if ( notify )
-				notifySelectionListeners();
-		}
-	}
+		if ( ! selectionEventPending.compareAndSet( false, true ) )
+			return;
 
-	private void notifySelectionListeners()
-	{
-		for ( SelectionListener listener : listeners.list )
-			new Thread( () -> listener.selectionChanged() ).start();
+		new Thread( () ->
+		{
+			selectionEventPending.set( false );
+			for ( SelectionListener listener : listeners.listCopy() )
+				new Thread( () -> listener.selectionChanged() ).start();
+		} ).start();
 	}
 
 	@Override
-	public synchronized void toggle( T object )
+	public void toggle( T object )
 	{
-		if ( selected.contains( object ) )
-			remove( object, true );
-		else
-			add( object, true );
+		synchronized ( this )
+		{
+			final Selection< T > current = selection;
+			final boolean changed = update( Collections.singletonList( object ), ! current.contains( object ) );
+			if ( ! changed ) return;
+		}
+
+		notifySelectionListeners();
 	}
 
 	@Override
@@ -116,40 +128,54 @@ public class MoBIESelectionModel< T > implements SelectionModel< T >
 			return false;
 	}
 
+	/**
+	 * Selects or deselects all objects,
+	 * notifying the listeners once if anything changed.
+	 */
 	@Override
-	public synchronized boolean setSelected( Collection< T > objects, boolean select )
+	public boolean setSelected( Collection< T > objects, boolean select )
 	{
-		for( T object : objects )
-			setSelected( object, select, false );
+		final boolean changed;
+		synchronized ( this )
+		{
+			changed = update( objects, select );
+		}
 
-		notifySelectionListeners();
+		if ( changed )
+			notifySelectionListeners();
 
-		return true;
+		return changed;
 	}
 
 	@Override
-	public synchronized boolean clearSelection()
+	public boolean clearSelection()
 	{
-		if ( selected.size() == 0 )
-			return false;
-		else
+		synchronized ( this )
 		{
-			selected.clear();
-			notifySelectionListeners();
-			return true;
+			if ( selection.isEmpty() )
+				return false;
+
+			selection = Selection.empty();
 		}
+
+		notifySelectionListeners();
+		return true;
 	}
 
+	/**
+	 * @return an immutable snapshot of the current selection;
+	 * 			later changes of the selection are not reflected
+	 */
 	@Override
-	public synchronized Set< T > getSelected()
+	public Set< T > getSelected()
 	{
-		return new HashSet< T >( selected );
+		return selection;
 	}
 
 	@Override
 	public boolean isEmpty()
 	{
-		return selected.isEmpty();
+		return selection.isEmpty();
 	}
 
 	@Override
@@ -158,16 +184,177 @@ public class MoBIESelectionModel< T > implements SelectionModel< T >
 		return listeners;
 	}
 
+	/**
+	 * Notifies the listeners once about all changes
+	 * since {@link #pauseListeners()}.
+	 */
 	@Override
 	public void resumeListeners()
 	{
+		final boolean notify;
+		synchronized ( this )
+		{
+			if ( numPauses == 0 ) return;
+			numPauses--;
+			notify = numPauses == 0 && changedWhilePaused;
+			if ( notify )
+				changedWhilePaused = false;
+		}
 
+		if ( notify )
+			notifySelectionListeners();
 	}
 
 	@Override
-	public void pauseListeners()
+	public synchronized void pauseListeners()
 	{
+		numPauses++;
+	}
+
+	/**
+	 * Must be called while holding the lock of this model.
+	 *
+	 * @return whether the selection changed
+	 */
+	private boolean update( Collection< T > objects, boolean select )
+	{
+		final Selection< T > current = selection;
+
+		// start with fresh ids when nothing is selected,
+		// such that the ids do not grow without bounds
+		final Map< T, Integer > ids = current.isEmpty() ? new ConcurrentHashMap<>() : current.ids;
+		Object[] idToObject = current.isEmpty() ? new Object[ 16 ] : current.idToObject;
+		int numIds = current.isEmpty() ? 0 : current.numIds;
+		long[] bits = current.isEmpty() ? new long[ 1 ] : current.bits.clone();
+		int size = current.size;
+		boolean changed = false;
+
+		for ( T object : objects )
+		{
+			if ( object == null ) continue;
+
+			Integer id = ids.get( object );
+
+			if ( select )
+			{
+				if ( id == null )
+				{
+					id = numIds++;
+					if ( id >= idToObject.length )
+						idToObject = Arrays.copyOf( idToObject, 2 * idToObject.length );
+					// earlier snapshots do not see this, because they only know ids < numIds
+					idToObject[ id ] = object;
+					ids.put( object, id );
+				}
+
+				final int word = id >>> 6;
+				if ( word >= bits.length )
+					bits = Arrays.copyOf( bits, Math.max( word + 1, 2 * bits.length ) );
 
+				final long mask = 1L << id;
+				if ( ( bits[ word ] & mask ) == 0 )
+				{
+					bits[ word ] |= mask;
+					size++;
+					changed = true;
+				}
+			}
+			else if ( id != null )
+			{
+				final int word = id >>> 6;
+				final long mask = 1L << id;
+				if ( word < bits.length && ( bits[ word ] & mask ) != 0 )
+				{
+					bits[ word ] &= ~mask;
+					size--;
+					changed = true;
+				}
+			}
+		}
+
+		if ( changed )
+			selection = size == 0 ? Selection.empty() : new Selection<>( ids, idToObject, numIds, bits, size );
+
+		return changed;
 	}
 
+	/**
+	 * Immutable snapshot of a selection.
+	 */
+	private static class Selection< T > extends AbstractSet< T >
+	{
+		private static final Selection< ? > EMPTY = new Selection<>( Collections.emptyMap(), new Object[ 0 ], 0, new long[ 0 ], 0 );
+
+		private final Map< T, Integer > ids;
+		private final Object[] idToObject;
+		private final int numIds;
+		private final long[] bits;
+		private final int size;
+
+		Selection( Map< T, Integer > ids, Object[] idToObject, int numIds, long[] bits, int size )
+		{
+			this.ids = ids;
+			this.idToObject = idToObject;
+			this.numIds = numIds;
+			this.bits = bits;
+			this.size = size;
+		}
+
+		static < T > Selection< T > empty()
+		{
+			return ( Selection< T > ) EMPTY;
+		}
+
+		@Override
+		public boolean contains( Object object )
+		{
+			if ( size == 0 || object == null ) return false;
+
+			final Integer id = ids.get( object );
+			if ( id == null || id >= numIds ) return false;
+
+			return ( bits[ id >>> 6 ] & ( 1L << id ) ) != 0;
+		}
+
+		@Override
+		public int size()
+		{
+			return size;
+		}
+
+		@Override
+		public boolean isEmpty()
+		{
+			return size == 0;
+		}
+
+		@Override
+		public Iterator< T > iterator()
+		{
+			return new Iterator< T >()
+			{
+				private int word = 0;
+				private long remaining = bits.length > 0 ? bits[ 0 ] : 0;
+
+				@Override
+				public boolean hasNext()
+				{
+					while ( remaining == 0 && word < bits.length - 1 )
+						remaining = bits[ ++word ];
+					return remaining != 0;
+				}
+
+				@Override
+				public T next()
+				{
+					if ( ! hasNext() )
+						throw new NoSuchElementException();
+
+					final int id = ( word << 6 ) + Long.numberOfTrailingZeros( remaining );
+					remaining &= remaining - 1;
+					return ( T ) idToObject[ id ];
+				}
+			};
+		}
+	}
 }
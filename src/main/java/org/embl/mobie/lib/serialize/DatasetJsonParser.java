@@ -39,7 +39,11 @@ public class DatasetJsonParser
 {
 	public Dataset parseDataset( String path ) throws IOException
 	{
-		final String datasetJson = IOHelper.read( path );
+		return parseDatasetJson( IOHelper.read( path ) );
+	}
+
+	public Dataset parseDatasetJson( String datasetJson )
+	{
 		Gson gson = JsonHelper.buildGson( false );
 		Type type = new TypeToken< Dataset >() {}.getType();
 		Dataset dataset = gson.fromJson( datasetJson, type );
@@ -43,7 +43,11 @@ public class ProjectJsonParser
 {
 	public Project parseProject( String path ) throws IOException
 	{
-		final String s = IOHelper.read( path );
+		return parseProjectJson( IOHelper.read( path ) );
+	}
+
+	public Project parseProjectJson( String s )
+	{
 		Gson gson = new Gson();
 		Type type = new TypeToken< Project >() {}.getType();
 		Project project = gson.fromJson( s, type );
@@ -0,0 +1,209 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.source;
+
+import bdv.util.RealRandomAccessibleSource;
+import bdv.util.volatiles.VolatileViews;
+import bdv.viewer.Source;
+import net.imglib2.Cursor;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.cache.img.CellLoader;
+import net.imglib2.cache.img.ReadOnlyCachedCellImgFactory;
+import net.imglib2.cache.img.ReadOnlyCachedCellImgOptions;
+import net.imglib2.type.Type;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
+import net.imglib2.type.volatiles.VolatileUnsignedByteType;
+import net.imglib2.util.Intervals;
+import net.imglib2.util.Util;
+import net.imglib2.view.Views;
+import org.embl.mobie.lib.ThreadHelper;
+import org.embl.mobie.lib.cache.BoundedCache;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Boundary masks of a voxel based label source.
+ *
+ * A mask voxel is 1 if the label voxel is not background and one
+ * of its neighbours at the boundary width along the boundary dimensions
+ * has a different value, and 0 otherwise.
+ *
+ * The masks are cached cell images, computed per cell
+ * on first access; there is one mask per time point, resolution level
+ * and boundary width (in voxels). The volatile masks load their cells
+ * on the {@link ThreadHelper#sharedQueue}.
+ */
+public class BoundaryMasks< T extends Type< T > >
+{
+	private static final int[] CELL_DIMENSIONS = { 64, 64, 16 };
+
+	private final Source< T > source;
+
+	private final BoundedCache< String, Mask > masks = new BoundedCache<>( 64 );
+
+	public BoundaryMasks( Source< T > source )
+	{
+		this.source = source;
+	}
+
+	/**
+	 * Voxel based sources are backed by a voxel grid,
+	 * such that their boundaries can be computed per voxel.
+	 * In contrast, e.g. the regions of a {@code RegionAnnotationImage}
+	 * or the spots of a {@code SpotAnnotationImage} are defined in real space.
+	 */
+	public static boolean isVoxelBased( Source< ? > source )
+	{
+		return SourceHelper.unwrapSource( source, RealRandomAccessibleSource.class ) == null;
+	}
+
+	public RandomAccessibleInterval< UnsignedByteType > getMask( int t, int level, List< Integer > boundaryDimensions, double[] pixelUnitsBoundaryWidth )
+	{
+		return getOrCreateMask( t, level, boundaryDimensions, pixelUnitsBoundaryWidth ).mask;
+	}
+
+	public RandomAccessibleInterval< VolatileUnsignedByteType > getVolatileMask( int t, int level, List< Integer > boundaryDimensions, double[] pixelUnitsBoundaryWidth )
+	{
+		return getOrCreateMask( t, level, boundaryDimensions, pixelUnitsBoundaryWidth ).volatileMask();
+	}
+
+	public void invalidateAll()
+	{
+		masks.invalidateAll();
+	}
+
+	private Mask getOrCreateMask( int t, int level, List< Integer > boundaryDimensions, double[] pixelUnitsBoundaryWidth )
+	{
+		// the voxel offsets of the neighbours, as probed by a nearest neighbour interpolation;
+		// at coarse resolution levels the boundary width can be below half a voxel,
+		// in which case the direct neighbours are probed, such that the boundaries
+		// do not disappear when zooming out
+		final long[] forward = new long[ 3 ];
+		final long[] backward = new long[ 3 ];
+		for ( Integer d : boundaryDimensions )
+		{
+			if ( pixelUnitsBoundaryWidth[ d ] <= 0 )
+				continue;
+
+			forward[ d ] = Math.max( 1, ( long ) Math.floor( pixelUnitsBoundaryWidth[ d ] + 0.5 ) );
+			backward[ d ] = Math.min( -1, ( long ) Math.floor( - pixelUnitsBoundaryWidth[ d ] + 0.5 ) );
+		}
+
+		final String key = t + "-" + level + "-" + Arrays.toString( forward ) + Arrays.toString( backward );
+		return masks.computeIfAbsent( key, k -> new Mask( createMask( t, level, forward, backward ) ) );
+	}
+
+	private RandomAccessibleInterval< UnsignedByteType > createMask( int t, int level, long[] forward, long[] backward )
+	{
+		final RandomAccessibleInterval< T > labels = source.getSource( t, level );
+		final T background = Util.getTypeFromInterval( labels ).createVariable();
+		final RandomAccessible< T > extendedLabels = Views.extendValue( labels, background );
+		final long[] min = Intervals.minAsLongArray( labels );
+
+		final CellLoader< UnsignedByteType > loader = cell ->
+		{
+			final RandomAccess< T > access = extendedLabels.randomAccess();
+			final T value = background.createVariable();
+			final long[] position = new long[ 3 ];
+			final Cursor< UnsignedByteType > cursor = cell.localizingCursor();
+			while ( cursor.hasNext() )
+			{
+				cursor.fwd();
+				cursor.localize( position );
+				for ( int d = 0; d < 3; d++ )
+					position[ d ] += min[ d ];
+
+				value.set( access.setPositionAndGet( position ) );
+				cursor.get().set( isBoundary( access, position, value, background, forward, backward ) ? 1 : 0 );
+			}
+		};
+
+		final int[] cellDimensions = new int[ 3 ];
+		for ( int d = 0; d < 3; d++ )
+			cellDimensions[ d ] = ( int ) Math.min( CELL_DIMENSIONS[ d ], Math.max( 1, labels.dimension( d ) ) );
+
+		final RandomAccessibleInterval< UnsignedByteType > mask = new ReadOnlyCachedCellImgFactory().create(
+				Intervals.dimensionsAsLongArray( labels ),
+				new UnsignedByteType(),
+				loader,
+				ReadOnlyCachedCellImgOptions.options().cellDimensions( cellDimensions ) );
+
+		return Views.translate( mask, min );
+	}
+
+	private static < T extends Type< T > > boolean isBoundary( RandomAccess< T > access, long[] position, T value, T background, long[] forward, long[] backward )
+	{
+		if ( value.valueEquals( background ) )
+			return false;
+
+		for ( int d = 0; d < 3; d++ )
+		{
+			if ( forward[ d ] != 0 )
+			{
+				access.setPosition( position[ d ] + forward[ d ], d );
+				if ( ! access.get().valueEquals( value ) )
+					return true;
+			}
+
+			if ( backward[ d ] != 0 )
+			{
+				access.setPosition( position[ d ] + backward[ d ], d );
+				if ( ! access.get().valueEquals( value ) )
+					return true;
+			}
+
+			access.setPosition( position[ d ], d );
+		}
+
+		return false;
+	}
+
+	private static class Mask
+	{
+		private final RandomAccessibleInterval< UnsignedByteType > mask;
+		private RandomAccessibleInterval< VolatileUnsignedByteType > volatileMask;
+
+		Mask( RandomAccessibleInterval< UnsignedByteType > mask )
+		{
+			this.mask = mask;
+		}
+
+		synchronized RandomAccessibleInterval< VolatileUnsignedByteType > volatileMask()
+		{
+			// the volatile mask shares the cells of the mask
+			if ( volatileMask == null )
+				volatileMask = VolatileViews.wrapAsVolatile( mask, ThreadHelper.sharedQueue );
+
+			return volatileMask;
+		}
+	}
+}
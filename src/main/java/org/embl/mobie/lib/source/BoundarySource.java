@@ -29,59 +29,109 @@
 package org.embl.mobie.lib.source;
 
 import bdv.viewer.Source;
+import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.RealInterval;
 import net.imglib2.RealLocalizable;
 import net.imglib2.RealRandomAccess;
 import net.imglib2.RealRandomAccessible;
+import net.imglib2.interpolation.randomaccess.NearestNeighborInterpolatorFactory;
 import net.imglib2.position.FunctionRealRandomAccessible;
 import net.imglib2.type.Type;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
+import net.imglib2.view.Views;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 public class BoundarySource< T extends Type< T > > extends AbstractBoundarySource< T >
 {
+    // null for sources that are defined in real space
+    private final BoundaryMasks< T > boundaryMasks;
+
     public BoundarySource( Source< T > source, boolean showAsBoundaries, @Nullable float boundaryWidth, @Nullable RealInterval bounds )
     {
         super( source, showAsBoundaries, boundaryWidth, bounds );
+        boundaryMasks = BoundaryMasks.isVoxelBased( source ) ? new BoundaryMasks<>( source ) : null;
     }
 
-    protected RealRandomAccessible< T > createBoundaryRealRandomAccessible( RealRandomAccessible< T > rra, ArrayList< Integer > dimensions, double[] pixelUnitsBoundaryWidth )
+    @Nullable
+    public BoundaryMasks< T > getBoundaryMasks()
     {
-        BiConsumer< RealLocalizable, T > biConsumer = ( l, output ) ->
+        return boundaryMasks;
+    }
+
+    protected RealRandomAccessible< T > createBoundaryRealRandomAccessible( int t, int level, RealRandomAccessible< T > rra, ArrayList< Integer > dimensions, double[] pixelUnitsBoundaryWidth )
+    {
+        if ( boundaryMasks != null )
+            return createMaskedRealRandomAccessible( rra, boundaryMasks.getMask( t, level, dimensions, pixelUnitsBoundaryWidth ) );
+
+        // each access gets its own function, such that
+        // the function can reuse its access and variables
+        Supplier< BiConsumer< RealLocalizable, T > > boundaries = () ->
         {
             final RealRandomAccess< T > access = rra.realRandomAccess();
-            final T pixelValue = access.setPositionAndGet( l ).copy();
+            final T pixelValue = getType().createVariable();
             // assumes that the default variable is the background value
-            final T background = pixelValue.createVariable();
+            final T background = getType().createVariable();
 
-            // set to background
-            output.set( background );
+            return ( l, output ) ->
+            {
+                pixelValue.set( access.setPositionAndGet( l ) );
 
-            if ( pixelValue.valueEquals( background ) )
-                return;
+                // set to background
+                output.set( background );
 
-            // check whether input is a boundary pixel
-            for ( Integer d : dimensions )
-            {
-                for ( int signum = -1; signum <= +1; signum+=2 ) // back and forth
+                if ( pixelValue.valueEquals( background ) )
+                    return;
+
+                // check whether input is a boundary pixel
+                for ( Integer d : dimensions )
                 {
-                    access.move( signum * pixelUnitsBoundaryWidth[ d ], d );
-                    final T neighbourValue = access.get();
-                    if ( ! neighbourValue.valueEquals( pixelValue )  )
+                    for ( int signum = -1; signum <= +1; signum+=2 ) // back and forth
                     {
-                        // input is a non-background boundary pixel...
-                        // ...thus it keeps its value
-                        output.set( pixelValue );
-                        return;
+                        access.move( signum * pixelUnitsBoundaryWidth[ d ], d );
+                        final T neighbourValue = access.get();
+                        if ( ! neighbourValue.valueEquals( pixelValue )  )
+                        {
+                            // input is a non-background boundary pixel...
+                            // ...thus it keeps its value
+                            output.set( pixelValue );
+                            return;
+                        }
+                        // move back to center
+                        access.move( - signum * pixelUnitsBoundaryWidth[ d ], d );
                     }
-                    // move back to center
-                    access.move( - signum * pixelUnitsBoundaryWidth[ d ], d );
                 }
-            }
+            };
+        };
+
+        return new FunctionRealRandomAccessible<>( 3, boundaries, () -> getType().createVariable() );
+    }
+
+    private RealRandomAccessible< T > createMaskedRealRandomAccessible( RealRandomAccessible< T > rra, RandomAccessibleInterval< UnsignedByteType > mask )
+    {
+        final RealRandomAccessible< UnsignedByteType > maskRra = Views.interpolate(
+                Views.extendZero( mask ),
+                new NearestNeighborInterpolatorFactory<>() );
+
+        Supplier< BiConsumer< RealLocalizable, T > > boundaries = () ->
+        {
+            final RealRandomAccess< T > access = rra.realRandomAccess();
+            final RealRandomAccess< UnsignedByteType > maskAccess = maskRra.realRandomAccess();
+            // assumes that the default variable is the background value
+            final T background = getType().createVariable();
+
+            return ( l, output ) ->
+            {
+                if ( maskAccess.setPositionAndGet( l ).get() == 0 )
+                    output.set( background );
+                else
+                    output.set( access.setPositionAndGet( l ) );
+            };
         };
 
-        return new FunctionRealRandomAccessible( 3, biConsumer, () -> getType().createVariable() );
+        return new FunctionRealRandomAccessible<>( 3, boundaries, () -> getType().createVariable() );
     }
 }
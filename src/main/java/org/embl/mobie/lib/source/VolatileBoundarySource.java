@@ -29,81 +29,148 @@
 package org.embl.mobie.lib.source;
 
 import bdv.viewer.Source;
+import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.RealInterval;
 import net.imglib2.RealLocalizable;
 import net.imglib2.RealRandomAccess;
 import net.imglib2.RealRandomAccessible;
 import net.imglib2.Volatile;
+import net.imglib2.interpolation.randomaccess.NearestNeighborInterpolatorFactory;
 import net.imglib2.position.FunctionRealRandomAccessible;
 import net.imglib2.type.Type;
+import net.imglib2.type.volatiles.VolatileUnsignedByteType;
+import net.imglib2.view.Views;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 public class VolatileBoundarySource< T extends Type< T >, V extends Volatile< T > & Type< V > > extends AbstractBoundarySource< V >
 {
+    // null for sources that are defined in real space
+    private final BoundaryMasks< T > boundaryMasks;
+
     public VolatileBoundarySource( Source< V > source, boolean showAsBoundaries, float boundaryWidth, @Nullable RealInterval bounds )
+    {
+        this( source, null, showAsBoundaries, boundaryWidth, bounds );
+    }
+
+    /**
+     * @param boundarySource
+     * 			the non-volatile version of this source; for voxel based
+     * 			sources the boundary masks are shared with it
+     */
+    public VolatileBoundarySource( Source< V > source, @Nullable BoundarySource< T > boundarySource, boolean showAsBoundaries, float boundaryWidth, @Nullable RealInterval bounds )
     {
         super( source, showAsBoundaries, boundaryWidth, bounds );
+        boundaryMasks = boundarySource != null ? boundarySource.getBoundaryMasks() : null;
     }
 
     @Override
-    protected RealRandomAccessible< V > createBoundaryRealRandomAccessible( RealRandomAccessible< V > rra, ArrayList< Integer > boundaryDimensions, double[] pixelUnitsBoundaryWidth )
+    protected RealRandomAccessible< V > createBoundaryRealRandomAccessible( int t, int level, RealRandomAccessible< V > rra, ArrayList< Integer > boundaryDimensions, double[] pixelUnitsBoundaryWidth )
     {
-        BiConsumer< RealLocalizable, V > boundaries = ( l, output ) ->
+        if ( boundaryMasks != null )
+            return createMaskedRealRandomAccessible( rra, boundaryMasks.getVolatileMask( t, level, boundaryDimensions, pixelUnitsBoundaryWidth ) );
+
+        // each access gets its own function, such that
+        // the function can reuse its access and variables
+        Supplier< BiConsumer< RealLocalizable, V > > boundaries = () ->
         {
             final RealRandomAccess< V > access = rra.realRandomAccess();
-            final V input = access.setPositionAndGet( l ).copy();
-            if ( ! input.isValid() )
-            {
-                output.setValid( false );
-                return;
-            }
-
+            final V input = getType().createVariable();
             // assumes that the default variable is the background value
-            final V background = input.createVariable();
-
-            // set to valid background
-            output.set( background );
-            output.setValid( true );
-
-            if ( input.valueEquals( background )  )
-                return;
+            final V background = getType().createVariable();
 
-            // ...unless it is a boundary pixel
-            for ( Integer d : boundaryDimensions )
+            return ( l, output ) ->
             {
-                for ( int signum = -1; signum <= +1; signum +=2  ) // back and forth
+                input.set( access.setPositionAndGet( l ) );
+                if ( ! input.isValid() )
                 {
-                    access.move( signum * pixelUnitsBoundaryWidth[ d ], d );
+                    output.setValid( false );
+                    return;
+                }
 
-                    if ( ! access.get().isValid() )
-                    {
-                        // a pixel around the input is not valid
-                        // thus we cannot yet determine whether
-                        // it is a boundary pixel
-                        output.setValid( false );
-                        return;
-                    }
+                // set to valid background
+                output.set( background );
+                output.setValid( true );
+
+                if ( input.valueEquals( background )  )
+                    return;
 
-                    if ( ! access.get().valueEquals( input )  )
+                // ...unless it is a boundary pixel
+                for ( Integer d : boundaryDimensions )
+                {
+                    for ( int signum = -1; signum <= +1; signum +=2  ) // back and forth
                     {
-                        // a pixel around the input
-                        // has a different value,
-                        // thus the input is a boundary pixel,
-                        // thus it keeps its value
-                        output.set( input );
-                        return;
+                        access.move( signum * pixelUnitsBoundaryWidth[ d ], d );
+
+                        if ( ! access.get().isValid() )
+                        {
+                            // a pixel around the input is not valid
+                            // thus we cannot yet determine whether
+                            // it is a boundary pixel
+                            output.setValid( false );
+                            return;
+                        }
+
+                        if ( ! access.get().valueEquals( input )  )
+                        {
+                            // a pixel around the input
+                            // has a different value,
+                            // thus the input is a boundary pixel,
+                            // thus it keeps its value
+                            output.set( input );
+                            return;
+                        }
+
+                        access.move( - signum * pixelUnitsBoundaryWidth[ d ], d ); // move back to center
                     }
+                }
+            };
+        };
+
+        return new FunctionRealRandomAccessible<>( 3, boundaries, () -> getType().createVariable() );
+    }
+
+    private RealRandomAccessible< V > createMaskedRealRandomAccessible( RealRandomAccessible< V > rra, RandomAccessibleInterval< VolatileUnsignedByteType > mask )
+    {
+        final VolatileUnsignedByteType outside = new VolatileUnsignedByteType( 0 );
+        outside.setValid( true );
+        final RealRandomAccessible< VolatileUnsignedByteType > maskRra = Views.interpolate(
+                Views.extendValue( mask, outside ),
+                new NearestNeighborInterpolatorFactory<>() );
+
+        Supplier< BiConsumer< RealLocalizable, V > > boundaries = () ->
+        {
+            final RealRandomAccess< V > access = rra.realRandomAccess();
+            final RealRandomAccess< VolatileUnsignedByteType > maskAccess = maskRra.realRandomAccess();
+            // assumes that the default variable is the background value
+            final V background = getType().createVariable();
+
+            return ( l, output ) ->
+            {
+                final VolatileUnsignedByteType isBoundary = maskAccess.setPositionAndGet( l );
+                if ( ! isBoundary.isValid() )
+                {
+                    // the mask of this cell is not yet computed
+                    output.setValid( false );
+                    return;
+                }
 
-                    access.move( - signum * pixelUnitsBoundaryWidth[ d ], d ); // move back to center
+                if ( isBoundary.get().get() == 0 )
+                {
+                    output.set( background );
+                    output.setValid( true );
+                    return;
                 }
-            }
+
+                final V input = access.setPositionAndGet( l );
+                output.set( input );
+                output.setValid( input.isValid() );
+            };
         };
 
-        final V type = rra.realRandomAccess().get();
-        final FunctionRealRandomAccessible< V > randomAccessible = new FunctionRealRandomAccessible( 3, boundaries, () -> type.createVariable() );
-        return randomAccessible;
+        return new FunctionRealRandomAccessible<>( 3, boundaries, () -> getType().createVariable() );
     }
 }
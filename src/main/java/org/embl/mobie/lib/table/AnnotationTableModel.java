@@ -45,9 +45,10 @@ public interface AnnotationTableModel< A extends Annotation >
 	{
 		double min = Double.MAX_VALUE;
 		double max = -min;
+		final ColumnAccessor< A > accessor = columnAccessor( columnName );
 		for ( A annotation : annotations )
 		{
-			final Double number = annotation.getNumber( columnName );
+			final double number = accessor.getDouble( annotation );
 
 			if ( number > max )
 				max = number;
@@ -77,4 +78,10 @@ public interface AnnotationTableModel< A extends Annotation >
 	StorageLocation getStorageLocation();
 	void transform( AffineTransform3D affineTransform3D );
 	void addAnnotationListener(  AnnotationListener< A > listener );
+
+	// Resolves the column once, for fast passes over many annotations
+	default ColumnAccessor< A > columnAccessor( String columnName )
+	{
+		return new ColumnAccessor.Default<>( columnName );
+	}
 }
@@ -0,0 +1,82 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.table;
+
+import org.embl.mobie.lib.annotation.Annotation;
+
+/**
+ * Provides fast access to the values of one column of an
+ * {@code AnnotationTableModel}.
+ *
+ * The column is resolved once, such that passes over many
+ * annotations do not need to look up the column by its name
+ * for every annotation.
+ *
+ * @param <A> annotation type
+ */
+public interface ColumnAccessor< A extends Annotation >
+{
+	String getColumnName();
+
+	Object getValue( A annotation );
+
+	// only for numeric columns
+	double getDouble( A annotation );
+
+	/**
+	 * Implements {@link ColumnAccessor} by delegating to the annotation.
+	 */
+	class Default< A extends Annotation > implements ColumnAccessor< A >
+	{
+		private final String columnName;
+
+		public Default( String columnName )
+		{
+			this.columnName = columnName;
+		}
+
+		@Override
+		public String getColumnName()
+		{
+			return columnName;
+		}
+
+		@Override
+		public Object getValue( A annotation )
+		{
+			return annotation.getValue( columnName );
+		}
+
+		@Override
+		public double getDouble( A annotation )
+		{
+			return annotation.getNumber( columnName );
+		}
+	}
+}
@@ -196,13 +196,14 @@ public class DistanceComputer
     {
         // Compute Euclidean distances
         List< A > annotations = tableModel.annotations();
+        final List< ColumnAccessor< A > > accessors = columnAccessors( tableModel, selectedColumnNames );
+        final double[] origin = originValues( selectedColumnNames, originCoordinates );
 
         annotations.parallelStream().forEach(annotation -> {
             double sumOfSquares = 0.0;
-            for (String column : selectedColumnNames) {
-                final double value = annotation.getNumber(column).doubleValue();
-                final double origin = originCoordinates.get(column);
-                sumOfSquares += Math.pow(value - origin, 2);
+            for ( int i = 0; i < origin.length; i++ ) {
+                final double value = accessors.get( i ).getDouble( annotation );
+                sumOfSquares += Math.pow(value - origin[ i ], 2);
             }
             final double euclideanDistance = Math.sqrt(sumOfSquares);
             annotation.setNumber(resultColumnName, euclideanDistance);
@@ -214,6 +215,8 @@ public class DistanceComputer
             selectedColumnNames, Map<String, Double> originCoordinates, String resultColumnName)
     {
         List< A > annotations = tableModel.annotations();
+        final List< ColumnAccessor< A > > accessors = columnAccessors( tableModel, selectedColumnNames );
+        final double[] origin = originValues( selectedColumnNames, originCoordinates );
 
         annotations.parallelStream().forEach( annotation ->
         {
@@ -221,14 +224,13 @@ public class DistanceComputer
             double normA = 0.0;
             double normB = 0.0;
 
-            for ( String column : selectedColumnNames )
+            for ( int i = 0; i < origin.length; i++ )
             {
-                final double value = annotation.getNumber( column ).doubleValue();
-                final double origin = originCoordinates.get( column );
+                final double value = accessors.get( i ).getDouble( annotation );
 
-                dotProduct += value * origin;
+                dotProduct += value * origin[ i ];
                 normA += Math.pow( value, 2 );
-                normB += Math.pow( origin, 2 );
+                normB += Math.pow( origin[ i ], 2 );
             }
 
             normA = Math.sqrt( normA );
@@ -241,4 +243,18 @@ public class DistanceComputer
             annotation.setNumber( resultColumnName, cosineDistance );
         } );
     }
+
+    private static < A extends Annotation > List< ColumnAccessor< A > > columnAccessors( AnnotationTableModel< A > tableModel, List< String > columnNames )
+    {
+        return columnNames.stream()
+                .map( tableModel::columnAccessor )
+                .collect( Collectors.toList() );
+    }
+
+    private static double[] originValues( List< String > columnNames, Map< String, Double > originCoordinates )
+    {
+        return columnNames.stream()
+                .mapToDouble( originCoordinates::get )
+                .toArray();
+    }
 }
@@ -86,7 +86,9 @@ public class RegionDisplayAnnDataCreator
 		final RegionTableSource regionTableSource = ( RegionTableSource ) DataStore.getRawData( regionDisplay.tableSource );
 		tableLocation = moBIE.getTableLocation( regionTableSource.tableData );
 		tableFormat = moBIE.getTableDataFormat( regionTableSource.tableData );
-		table = TableOpener.open( tableLocation, tableFormat );
+		// the table has already been loaded by {@code MoBIE.loadRegionTable};
+		// it is copied, because columns may be added to the table of the display
+		table = regionTableSource.table != null ? regionTableSource.table.copy() : TableOpener.open( tableLocation, tableFormat );
 
 		// only keep the subset of rows (regions)
 		// that are actually referred to in regionDisplay
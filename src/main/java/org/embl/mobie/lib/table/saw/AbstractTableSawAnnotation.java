@@ -29,6 +29,8 @@
 package org.embl.mobie.lib.table.saw;
 
 import org.embl.mobie.lib.annotation.Annotation;
+import tech.tablesaw.api.NumericColumn;
+import tech.tablesaw.columns.Column;
 
 public abstract class AbstractTableSawAnnotation implements Annotation
 {
@@ -51,7 +53,7 @@ public abstract class AbstractTableSawAnnotation implements Annotation
 	{
 		try
 		{
-            return model.getTable().get( rowIndex, model.getTable().columnIndex( feature ) );
+            return model.column( feature ).get( rowIndex );
 		}
 		catch ( Exception e )
 		{
@@ -62,19 +64,35 @@ public abstract class AbstractTableSawAnnotation implements Annotation
 	@Override
 	public Double getNumber( String feature )
 	{
-		return model.getTable().numberColumn( feature ).getDouble( rowIndex );
+		final Column< ? > column = model.column( feature );
+		if ( column instanceof NumericColumn )
+			return ( ( NumericColumn< ? > ) column ).getDouble( rowIndex );
+
+		throw new UnsupportedOperationException( "Column " + feature + " is not numeric." );
 	}
 
 	@Override
 	public void setString( String columnName, String value )
 	{
 		model.getTable().stringColumn( columnName ).set( rowIndex, value );
+		model.modified();
 	}
 
 	@Override
 	public void setNumber( String columnName, double value )
 	{
 		model.getTable().doubleColumn( columnName ).set( rowIndex, value );
+		model.modified();
+	}
+
+	public TableSawAnnotationTableModel< ? > getModel()
+	{
+		return model;
+	}
+
+	public int getRowIndex()
+	{
+		return rowIndex;
 	}
 
 }
@@ -0,0 +1,197 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.table.saw;
+
+import net.imglib2.FinalRealInterval;
+import net.imglib2.RealInterval;
+import net.imglib2.realtransform.AffineTransform3D;
+import tech.tablesaw.api.NumericColumn;
+import tech.tablesaw.api.Table;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Columnar storage of the properties of all segments of one table,
+ * such that a {@code TableSawAnnotatedSegment} only needs to
+ * reference its row.
+ *
+ * Positions and bounding boxes are stored as three consecutive
+ * values per row; a bounding box with NaN values is not set.
+ */
+class SegmentColumns
+{
+	final Table table;
+	private final int[] labels;
+	private final int[] timePoints;
+	private final String[] sources;
+	private final double[] positions;
+	private double[] bbMins;
+	private double[] bbMaxs;
+
+	private SegmentColumns( Table table, int numRows )
+	{
+		this.table = table;
+		labels = new int[ numRows ];
+		timePoints = new int[ numRows ];
+		sources = new String[ numRows ];
+		positions = new double[ 3 * numRows ];
+	}
+
+	static SegmentColumns create(
+			Table table,
+			int labelIdColumnIndex,
+			int labelImageColumnIndex,
+			int timePointColumnIndex,
+			boolean timePointsAreOneBased,
+			int[] anchorColumnIndices,
+			int[] bbMinColumnIndices,
+			int[] bbMaxColumnIndices,
+			boolean is3D,
+			boolean hasBoundingBox )
+	{
+		final int numRows = table.rowCount();
+		final SegmentColumns columns = new SegmentColumns( table, numRows );
+
+		for ( int row = 0; row < numRows; row++ )
+			columns.labels[ row ] = table.intColumn( labelIdColumnIndex ).getInt( row );
+
+		if ( timePointColumnIndex > -1 )
+		{
+			final int offset = timePointsAreOneBased ? 1 : 0;
+			for ( int row = 0; row < numRows; row++ )
+				columns.timePoints[ row ] = table.intColumn( timePointColumnIndex ).getInt( row ) - offset;
+		}
+
+		if ( labelImageColumnIndex > -1 )
+		{
+			// share one String per distinct source
+			final HashMap< String, String > distinctSources = new HashMap<>();
+			for ( int row = 0; row < numRows; row++ )
+			{
+				final String source = table.stringColumn( labelImageColumnIndex ).get( row );
+				columns.sources[ row ] = distinctSources.computeIfAbsent( source, s -> s );
+			}
+		}
+		else
+		{
+			Arrays.fill( columns.sources, table.name() );
+		}
+
+		// TODO do we want to support missing anchor columns?
+		readXYZ( table, anchorColumnIndices, is3D, columns.positions );
+
+		if ( hasBoundingBox )
+		{
+			// TODO: if we want to support this for IJ ParticleAnalyzer ResultsTable
+			//  we need to do some math, because it is given as min and size.
+			columns.bbMins = new double[ 3 * numRows ];
+			columns.bbMaxs = new double[ 3 * numRows ];
+			readXYZ( table, bbMinColumnIndices, is3D, columns.bbMins );
+			readXYZ( table, bbMaxColumnIndices, is3D, columns.bbMaxs );
+		}
+
+		return columns;
+	}
+
+	private static void readXYZ( Table table, int[] columnIndices, boolean is3D, double[] target )
+	{
+		final int numRows = table.rowCount();
+		for ( int d = 0; d < ( is3D ? 3 : 2 ); d++ )
+		{
+			final NumericColumn< ? > column = table.numberColumn( columnIndices[ d ] );
+			for ( int row = 0; row < numRows; row++ )
+				target[ 3 * row + d ] = column.getDouble( row );
+		}
+	}
+
+	int label( int row )
+	{
+		return labels[ row ];
+	}
+
+	int timePoint( int row )
+	{
+		return timePoints[ row ];
+	}
+
+	String source( int row )
+	{
+		return sources[ row ];
+	}
+
+	double position( int row, int d )
+	{
+		return positions[ 3 * row + d ];
+	}
+
+	double[] position( int row )
+	{
+		return Arrays.copyOfRange( positions, 3 * row, 3 * row + 3 );
+	}
+
+	synchronized RealInterval boundingBox( int row )
+	{
+		if ( bbMins == null || Double.isNaN( bbMins[ 3 * row ] ) )
+			return null;
+
+		return new FinalRealInterval(
+				Arrays.copyOfRange( bbMins, 3 * row, 3 * row + 3 ),
+				Arrays.copyOfRange( bbMaxs, 3 * row, 3 * row + 3 ) );
+	}
+
+	synchronized void setBoundingBox( int row, RealInterval boundingBox )
+	{
+		if ( bbMins == null )
+		{
+			if ( boundingBox == null ) return;
+			bbMins = new double[ positions.length ];
+			bbMaxs = new double[ positions.length ];
+			Arrays.fill( bbMins, Double.NaN );
+			Arrays.fill( bbMaxs, Double.NaN );
+		}
+
+		for ( int d = 0; d < 3; d++ )
+		{
+			bbMins[ 3 * row + d ] = boundingBox == null ? Double.NaN : boundingBox.realMin( d );
+			bbMaxs[ 3 * row + d ] = boundingBox == null ? Double.NaN : boundingBox.realMax( d );
+		}
+	}
+
+	void transform( int row, AffineTransform3D affineTransform3D )
+	{
+		final double[] position = position( row );
+		affineTransform3D.apply( position, position );
+		System.arraycopy( position, 0, positions, 3 * row, 3 );
+
+		final RealInterval boundingBox = boundingBox( row );
+		if ( boundingBox != null )
+			setBoundingBox( row, affineTransform3D.estimateBounds( boundingBox ) );
+	}
+}
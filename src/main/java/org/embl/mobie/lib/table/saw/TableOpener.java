@@ -107,18 +107,20 @@ public class TableOpener
 			// allocate twice the memory and the GC has some
 			// work to do, which can become a bottleneck.
 			final long start = System.currentTimeMillis();
-			final InputStream inputStream = IOHelper.getInputStream( path );
-			// final String string = IOHelper.read( path );
-			// https://jtablesaw.github.io/tablesaw/userguide/importing_data.html
-			CsvReadOptions.Builder builder = CsvReadOptions.builder( inputStream )
-					.separator( separator )
-					.missingValueIndicator( "na", "none", "nan" )
-					.sample( numSamples > 0 )
-					.sampleSize( numSamples )
-					.columnTypesPartial( nameToType );
-			final Table rows = Table.read().usingOptions( builder );
-			//System.out.println("Read table " + path + " with " + rows.rowCount() + " rows in " + ( System.currentTimeMillis() - start ) + " ms." );
-			return rows;
+			try ( InputStream inputStream = IOHelper.getInputStream( path ) )
+			{
+				// final String string = IOHelper.read( path );
+				// https://jtablesaw.github.io/tablesaw/userguide/importing_data.html
+				CsvReadOptions.Builder builder = CsvReadOptions.builder( inputStream )
+						.separator( separator )
+						.missingValueIndicator( "na", "none", "nan" )
+						.sample( numSamples > 0 )
+						.sampleSize( numSamples )
+						.columnTypesPartial( nameToType );
+				final Table rows = Table.read().usingOptions( builder );
+				//System.out.println("Read table " + path + " with " + rows.rowCount() + " rows in " + ( System.currentTimeMillis() - start ) + " ms." );
+				return rows;
+			}
 		}
 		catch ( Exception e )
 		{
@@ -207,31 +209,24 @@ public class TableOpener
 
 	public static Table openDelimitedTextFile( String path, char separator )
 	{
-		String content = readContent( path );
-
 		// FIXME: This is brittle; don't always do this, this is only for CellProfiler!
 		// content = dealWithTwoHeaderRowsIfNeeded( separator, content );
 
-		CsvReadOptions.Builder builder =
-				CsvReadOptions.builderFromString( content )
-						.separator( separator )
-						.missingValueIndicator( "na", "none", "nan" );
-
-		return Table.read().usingOptions( builder );
-	}
-
-	private static String readContent( String path )
-	{
-		String content = null;
-		try
+		// parse directly from the stream, avoiding a copy
+		// of the whole file content in memory
+		try ( InputStream inputStream = IOHelper.getInputStream( path ) )
 		{
-			content = IOHelper.read( path );
+			CsvReadOptions.Builder builder =
+					CsvReadOptions.builder( inputStream )
+							.separator( separator )
+							.missingValueIndicator( "na", "none", "nan" );
+
+			return Table.read().usingOptions( builder );
 		}
 		catch ( IOException e )
 		{
 			throw new RuntimeException( e );
 		}
-		return content;
 	}
 
 	private static String dealWithTwoHeaderRowsIfNeeded( char separator, String content )
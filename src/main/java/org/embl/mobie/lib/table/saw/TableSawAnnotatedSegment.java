@@ -30,40 +30,26 @@ package org.embl.mobie.lib.table.saw;
 
 import net.imglib2.realtransform.AffineTransform3D;
 import org.embl.mobie.lib.annotation.AnnotatedSegment;
-import net.imglib2.FinalRealInterval;
 import net.imglib2.RealInterval;
-import org.embl.mobie.lib.table.ColumnNames;
 import org.embl.mobie.lib.volume.MeshTransformer;
 
 public class TableSawAnnotatedSegment extends AbstractTableSawAnnotation implements AnnotatedSegment
 {
-	private final int timePoint;
-	private final int labelId;
-	private final double[] position;
-	private RealInterval boundingBox;
+	// label, time point, source, position and bounding box
+	// are stored per table in columns, to keep this object small,
+	// because there may be millions of segments
+	private final SegmentColumns columns;
 	private float[] mesh;
-	private String source;
-	private String uuid;
 
 	// TODO only the model is TableSaw specific
 	//   all the other code is generic and could be reused to open other tables
-	public TableSawAnnotatedSegment(
+	TableSawAnnotatedSegment(
 			TableSawAnnotationTableModel< TableSawAnnotatedSegment > model,
 			int rowIndex,
-			String source,
-			String uuid,
-			Integer labelId,
-			int timePoint,
-			double[] position,
-			FinalRealInterval boundingBox )
+			SegmentColumns columns )
 	{
 		super( model, rowIndex );
-		this.source = source;
-		this.uuid = uuid;
-		this.labelId = labelId;
-		this.timePoint = timePoint;
-		this.position = position;
-		this.boundingBox = boundingBox;
+		this.columns = columns;
 	}
 
 	@Override
@@ -75,37 +61,38 @@ public class TableSawAnnotatedSegment extends AbstractTableSawAnnotation impleme
 	@Override
 	public int label()
 	{
-		return labelId;
+		return columns.label( rowIndex );
 	}
 
 	@Override
 	public Integer timePoint()
 	{
-		return timePoint;
+		return columns.timePoint( rowIndex );
 	}
 
 	@Override
 	public double[] positionAsDoubleArray()
 	{
-		return position;
+		// a copy, because the position is stored in the columns
+		return columns.position( rowIndex );
 	}
 
 	@Override
 	public double getDoublePosition( int d )
 	{
-		return position[ d ];
+		return columns.position( rowIndex, d );
 	}
 
 	@Override
 	public RealInterval boundingBox()
 	{
-		return boundingBox;
+		return columns.boundingBox( rowIndex );
 	}
 
 	@Override
 	public void setBoundingBox( RealInterval boundingBox )
 	{
-		this.boundingBox = boundingBox;
+		columns.setBoundingBox( rowIndex, boundingBox );
 	}
 
 	@Override
@@ -123,23 +110,19 @@ public class TableSawAnnotatedSegment extends AbstractTableSawAnnotation impleme
 	@Override
 	public String uuid()
 	{
-		return uuid;
+		return source() + ";" + timePoint() + ";" + label();
 	}
 
 	@Override
 	public String source()
 	{
-		return source;
+		return columns.source( rowIndex );
 	}
 
 	@Override
 	public void transform( AffineTransform3D affineTransform3D )
 	{
-		if ( position != null )
-			affineTransform3D.apply( position, position );
-
-		if ( boundingBox != null )
-			boundingBox = affineTransform3D.estimateBounds( boundingBox );
+		columns.transform( rowIndex, affineTransform3D );
 
 		if ( mesh != null )
 			mesh = MeshTransformer.transform( mesh, affineTransform3D );
@@ -148,6 +131,6 @@ public class TableSawAnnotatedSegment extends AbstractTableSawAnnotation impleme
 	@Override
 	public int numDimensions()
 	{
-		return positionAsDoubleArray().length;
+		return 3;
 	}
 }
@@ -28,7 +28,6 @@
  */
 package org.embl.mobie.lib.table.saw;
 
-import net.imglib2.FinalRealInterval;
 import org.embl.mobie.lib.table.TableDataFormat;
 import org.embl.mobie.lib.table.columns.MicrogliaSegmentColumnNames;
 import org.embl.mobie.lib.table.columns.SegmentColumnNames;
@@ -54,6 +53,7 @@ public class TableSawAnnotatedSegmentCreator implements TableSawAnnotationCreato
 	private boolean is3D;
 	private boolean hasBoundingBox;
 	private ArrayList< String > idColumns;
+	private SegmentColumns columns;
 
 	public TableSawAnnotatedSegmentCreator( @Nullable Table table )
 	{
@@ -108,27 +108,21 @@ public class TableSawAnnotatedSegmentCreator implements TableSawAnnotationCreato
 		if ( ! columnsInitialised.get() )
 			initColumns( table );
 
-		Integer labelId = table.intColumn( labelIdColumnIndex ).get( rowIndex );
-
-		String source = labelImageColumnIndex > -1 ? table.stringColumn( labelImageColumnIndex ).get( rowIndex ) : table.name();
-
-		int timePoint = timePointColumnIndex > -1 ? table.intColumn( timePointColumnIndex ).get( rowIndex ) : 0;
-
-		if ( timePointColumnIndex > -1 && segmentColumnNames.timePointsAreOneBased()  )
-			timePoint -= 1;
-
-		final FinalRealInterval boundingBox = boundingBox( table, rowIndex );
-
-		// TODO do we want to support missing anchor columns?
-		double[] position = new double[]{
-				table.numberColumn( anchorColumnIndices[ 0 ] ).getDouble( rowIndex ),
-				table.numberColumn( anchorColumnIndices[ 1 ] ).getDouble( rowIndex ),
-				is3D ? table.numberColumn( anchorColumnIndices[ 2 ] ).getDouble( rowIndex ) : 0
-		};
-
-		final String uuid = source + ";" + timePoint + ";" + labelId;
-
-		return new TableSawAnnotatedSegment( model, rowIndex, source, uuid, labelId, timePoint, position, boundingBox );
+		// read all rows at once, column by column
+		if ( columns == null || columns.table != table )
+			columns = SegmentColumns.create(
+					table,
+					labelIdColumnIndex,
+					labelImageColumnIndex,
+					timePointColumnIndex,
+					segmentColumnNames.timePointsAreOneBased(),
+					anchorColumnIndices,
+					bbMinColumnIndices,
+					bbMaxColumnIndices,
+					is3D,
+					hasBoundingBox );
+
+		return new TableSawAnnotatedSegment( model, rowIndex, columns );
 	}
 
 	@Override
@@ -137,30 +131,6 @@ public class TableSawAnnotatedSegmentCreator implements TableSawAnnotationCreato
 		return new int[ 0 ];
 	}
 
-	private FinalRealInterval boundingBox( Table table, int rowIndex )
-	{
-		if ( ! hasBoundingBox ) return null;
-
-		// TODO: if we want to support this for IJ ParticleAnalyzer ResultsTable
-		//  we need to do some math, because it is given as min and size.
-
-		final double[] min = {
-				table.numberColumn( bbMinColumnIndices[ 0 ] ).getDouble( rowIndex ),
-				table.numberColumn( bbMinColumnIndices[ 1 ] ).getDouble( rowIndex ),
-				is3D ? table.numberColumn( bbMinColumnIndices[ 2 ] ).getDouble( rowIndex ) : 0
-		};
-
-		final double[] max = {
-				table.numberColumn( bbMaxColumnIndices[ 0 ] ).getDouble( rowIndex ),
-				table.numberColumn( bbMaxColumnIndices[ 1 ] ).getDouble( rowIndex ),
-				is3D ? table.numberColumn( bbMaxColumnIndices[ 2 ] ).getDouble( rowIndex ) : 0
-		};
-
-		final FinalRealInterval boundingBox = new FinalRealInterval( min, max );
-
-		return boundingBox;
-	}
-
 	@Override
 	public List< String > getIDColumns()
 	{
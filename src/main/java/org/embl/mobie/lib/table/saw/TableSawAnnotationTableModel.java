@@ -37,21 +37,25 @@ import org.embl.mobie.lib.io.Status;
 import org.embl.mobie.lib.io.StorageLocation;
 import org.embl.mobie.lib.table.AbstractAnnotationTableModel;
 import org.embl.mobie.lib.table.AnnotationListener;
+import org.embl.mobie.lib.table.ColumnAccessor;
 import org.embl.mobie.lib.table.DefaultValues;
 import org.embl.mobie.lib.table.TableDataFormat;
 import tech.tablesaw.api.ColumnType;
 import tech.tablesaw.api.DoubleColumn;
 import tech.tablesaw.api.StringColumn;
 import tech.tablesaw.api.Table;
+import tech.tablesaw.columns.Column;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -70,6 +74,8 @@ public class TableSawAnnotationTableModel< A extends Annotation > extends Abstra
 	private boolean updateTransforms = false;
 	private final StorageLocation storageLocation;
 	private final TableDataFormat tableDataFormat;
+	private volatile int modificationCount = 0;
+	private volatile ColumnIndex columnIndex;
 
 	public TableSawAnnotationTableModel(
 			String name,
@@ -101,37 +107,43 @@ public class TableSawAnnotationTableModel< A extends Annotation > extends Abstra
 			initTable( openTableChunk( storageLocation.defaultChunk ) );
 		}
 
-		// load and join internal table chunks
+		// load internal and external table chunks
 		//
-		boolean columnsAdded = false;
-
 		final List< String > tableChunks = chunkToStatus.entrySet().stream()
 				.filter( chunk -> chunk.getValue().equals( Status.Closed ) )
 				.map( chunk -> chunk.getKey() )
 				.collect( Collectors.toList() );
 
-		for ( String tableChunk : tableChunks )
-		{
-			joinTable( openTableChunk( tableChunk ) );
-			columnsAdded = true;
-		}
-
-		// load and join external table chunks
-		//
 		final List< StorageLocation > storageLocations = externalChunkToStatus
 				.entrySet().stream()
 				.filter( chunk -> chunk.getValue().equals( Status.Closed ) )
 				.map( chunk -> chunk.getKey() )
 				.collect( Collectors.toList() );
 
-		for ( StorageLocation storageLocation : storageLocations )
-		{
-			joinTable( openExternalTableChunk( storageLocation ) );
-			columnsAdded = true;
-		}
+		final boolean columnsAdded = ! tableChunks.isEmpty() || ! storageLocations.isEmpty();
 
 		if ( columnsAdded )
 		{
+			tableChunks.forEach( chunk -> chunkToStatus.put( chunk, Status.Opening ) );
+			storageLocations.forEach( location -> externalChunkToStatus.put( location, Status.Opening ) );
+
+			// open the chunks in parallel;
+			// a parallel stream is used rather than the IO executor service,
+			// because this method may itself be called from an IO thread,
+			// and waiting there for other IO tasks could deadlock
+			final List< Table > additionalTables = new ArrayList<>();
+			additionalTables.addAll( tableChunks.parallelStream()
+					.map( chunk -> TableOpener.open( storageLocation, chunk, tableDataFormat ) )
+					.collect( Collectors.toList() ) );
+			additionalTables.addAll( storageLocations.parallelStream()
+					.map( this::openExternalTableChunk )
+					.collect( Collectors.toList() ) );
+
+			joinTables( additionalTables );
+
+			tableChunks.forEach( chunk -> chunkToStatus.put( chunk, Status.Open ) );
+			storageLocations.forEach( location -> externalChunkToStatus.put( location, Status.Open ) );
+
 			for ( AnnotationListener< A > listener : listeners.list )
 				listener.columnsAdded( null );
 		}
@@ -160,17 +172,14 @@ public class TableSawAnnotationTableModel< A extends Annotation > extends Abstra
 
 	private Table openExternalTableChunk( StorageLocation storageLocation )
 	{
-		externalChunkToStatus.put( storageLocation, Status.Opening );
 		final String chunk = storageLocation.defaultChunk;
 		final TableDataFormat format = TableDataFormat.fromPath( IOHelper.combinePath( storageLocation.absolutePath, chunk ) );
-		final Table table = TableOpener.open( storageLocation, chunk, format );
-		externalChunkToStatus.put( storageLocation, Status.Open );
-		return table;
+		return TableOpener.open( storageLocation, chunk, format );
 	}
 
-	private void joinTable( Table additionalTable )
+	private void joinTables( List< Table > additionalTables )
 	{
-		// join additional table
+		// join additional tables
 		// some columns, e.g. timepoint, are optional and thus
 		// may be missing in the parent table;
 		// thus we only use columns for merging that are actually present
@@ -184,16 +193,32 @@ public class TableSawAnnotationTableModel< A extends Annotation > extends Abstra
 		// need to retrieve the new table using {@code getTable()}
 		try
 		{
-			final List< String > additionalColumnNames = additionalTable.columnNames().stream().filter( col -> ! mergeByColumnNames.contains( col ) ).collect( Collectors.toList() );
-			final List< String > duplicateColumnNames = additionalColumnNames.stream().filter( col -> columnNames.contains( col ) ).collect( Collectors.toList() );
-			if ( duplicateColumnNames.size() > 0 )
+			// columns that are present in several tables are taken
+			// from the table that has been loaded last
+			for ( int i = 0; i < additionalTables.size(); i++ )
 			{
-				final String[] duplicateColumnsArray = duplicateColumnNames.toArray( new String[ 0 ] );
-				IJ.log( "There are duplicate columns: " + Arrays.toString( duplicateColumnsArray ) );
-				IJ.log( "Those columns will be replaced by the columns in the newly loaded table." );
-				table.removeColumns( duplicateColumnsArray );
+				final List< String > additionalColumnNames = additionalTables.get( i ).columnNames().stream().filter( col -> ! mergeByColumnNames.contains( col ) ).collect( Collectors.toList() );
+				final List< String > duplicateColumnNames = additionalColumnNames.stream().filter( col -> table.containsColumn( col ) ).collect( Collectors.toList() );
+				if ( duplicateColumnNames.size() > 0 )
+				{
+					final String[] duplicateColumnsArray = duplicateColumnNames.toArray( new String[ 0 ] );
+					IJ.log( "There are duplicate columns: " + Arrays.toString( duplicateColumnsArray ) );
+					IJ.log( "Those columns will be replaced by the columns in the newly loaded table." );
+					table.removeColumns( duplicateColumnsArray );
+				}
+
+				for ( int j = 0; j < i; j++ )
+				{
+					final Table previousTable = additionalTables.get( j );
+					final String[] duplicates = additionalColumnNames.stream().filter( previousTable::containsColumn ).toArray( String[]::new );
+					if ( duplicates.length > 0 )
+						previousTable.removeColumns( duplicates );
+				}
 			}
-			table = table.joinOn( mergeByColumnNames.toArray( new String[ 0 ] ) ).leftOuter( additionalTable  );
+
+			// join all tables at once on the ID columns
+			table = table.joinOn( mergeByColumnNames.toArray( new String[ 0 ] ) ).leftOuter( additionalTables.toArray( new Table[ 0 ] ) );
+			columnsChanged();
 		}
 		catch ( Exception e )
 		{
@@ -227,6 +252,7 @@ public class TableSawAnnotationTableModel< A extends Annotation > extends Abstra
 		// view them in the table.
 		// Currently, this only concerns the SpotAnnotations.
 		table.removeColumns( annotationCreator.removeColumns() );
+		columnsChanged();
 	}
 
 	public Table getTable()
@@ -234,6 +260,59 @@ public class TableSawAnnotationTableModel< A extends Annotation > extends Abstra
 		return table;
 	}
 
+	/**
+	 * The modification count is increased whenever the content
+	 * of the table changes, such that classes that cache values
+	 * derived from the table know when to recompute them.
+	 *
+	 * @return the current modification count
+	 */
+	public int getModificationCount()
+	{
+		return modificationCount;
+	}
+
+	void modified()
+	{
+		modificationCount++;
+	}
+
+	private void columnsChanged()
+	{
+		columnIndex = null;
+		modified();
+	}
+
+	/**
+	 * Returns the column with the given name, using a lookup
+	 * that is rebuilt whenever the columns of the table change.
+	 *
+	 * @param columnName name of the column
+	 * @return the column
+	 */
+	public Column< ? > column( String columnName )
+	{
+		ColumnIndex columnIndex = this.columnIndex;
+		if ( columnIndex == null || columnIndex.table != table )
+		{
+			columnIndex = new ColumnIndex( table );
+			this.columnIndex = columnIndex;
+		}
+
+		final Column< ? > column = columnIndex.columns.get( columnName );
+		if ( column == null )
+			throw new IllegalArgumentException( "Column " + columnName + " does not exist in table " + dataSourceName );
+		return column;
+	}
+
+	@Override
+	public ColumnAccessor< A > columnAccessor( String columnName )
+	{
+		update();
+
+		return new TableSawColumnAccessor<>( this, columnName );
+	}
+
 	@Override
 	public List< String > columnNames()
 	{
@@ -348,6 +427,7 @@ public class TableSawAnnotationTableModel< A extends Annotation > extends Abstra
 		Arrays.fill( strings, DefaultValues.NONE );
 		final StringColumn stringColumn = StringColumn.create( columnName, strings );
 		table.addColumns( stringColumn );
+		columnsChanged();
 
 		for ( AnnotationListener< A > listener : listeners.list )
 			listener.columnsAdded( Collections.singleton( columnName ) );
@@ -365,6 +445,7 @@ public class TableSawAnnotationTableModel< A extends Annotation > extends Abstra
 		Arrays.fill( doubles, 0.0 );
 		final DoubleColumn doubleColumn = DoubleColumn.create( columnName, doubles );
 		table.addColumns( doubleColumn );
+		columnsChanged();
 
 		for ( AnnotationListener< A > listener : listeners.list )
 			listener.columnsAdded( Collections.singleton( columnName ) );
@@ -394,4 +475,17 @@ public class TableSawAnnotationTableModel< A extends Annotation > extends Abstra
 		if ( table != null )
 			listener.annotationsAdded( annotations() );
 	}
+
+	private static class ColumnIndex
+	{
+		private final Table table;
+		private final Map< String, Column< ? > > columns = new HashMap<>();
+
+		ColumnIndex( Table table )
+		{
+			this.table = table;
+			for ( Column< ? > column : table.columns() )
+				columns.put( column.name(), column );
+		}
+	}
 }
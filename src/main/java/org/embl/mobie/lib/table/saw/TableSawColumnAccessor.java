@@ -0,0 +1,118 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.table.saw;
+
+import org.embl.mobie.lib.annotation.Annotation;
+import org.embl.mobie.lib.table.ColumnAccessor;
+import tech.tablesaw.api.NumericColumn;
+import tech.tablesaw.api.Table;
+import tech.tablesaw.columns.Column;
+
+/**
+ * Reads the values of the annotations of one {@code TableSawAnnotationTableModel}
+ * directly from the resolved column, by row index.
+ *
+ * Annotations that do not belong to the model, e.g. transformed copies,
+ * are read via the annotation itself.
+ */
+public class TableSawColumnAccessor< A extends Annotation > implements ColumnAccessor< A >
+{
+	private final TableSawAnnotationTableModel< A > model;
+	private final String columnName;
+	private volatile Resolved resolved;
+
+	public TableSawColumnAccessor( TableSawAnnotationTableModel< A > model, String columnName )
+	{
+		this.model = model;
+		this.columnName = columnName;
+	}
+
+	@Override
+	public String getColumnName()
+	{
+		return columnName;
+	}
+
+	@Override
+	public Object getValue( A annotation )
+	{
+		if ( isRowOfModel( annotation ) )
+			return resolve().column.get( ( ( AbstractTableSawAnnotation ) annotation ).rowIndex );
+
+		return annotation.getValue( columnName );
+	}
+
+	@Override
+	public double getDouble( A annotation )
+	{
+		if ( isRowOfModel( annotation ) )
+			return resolve().numericColumn().getDouble( ( ( AbstractTableSawAnnotation ) annotation ).rowIndex );
+
+		return annotation.getNumber( columnName );
+	}
+
+	private boolean isRowOfModel( A annotation )
+	{
+		return annotation instanceof AbstractTableSawAnnotation
+				&& ( ( AbstractTableSawAnnotation ) annotation ).model == model;
+	}
+
+	private Resolved resolve()
+	{
+		// the model replaces its table when joining table chunks
+		Resolved resolved = this.resolved;
+		final Table table = model.getTable();
+		if ( resolved == null || resolved.table != table )
+		{
+			resolved = new Resolved( table, model.column( columnName ) );
+			this.resolved = resolved;
+		}
+		return resolved;
+	}
+
+	private static class Resolved
+	{
+		private final Table table;
+		private final Column< ? > column;
+
+		Resolved( Table table, Column< ? > column )
+		{
+			this.table = table;
+			this.column = column;
+		}
+
+		NumericColumn< ? > numericColumn()
+		{
+			if ( column instanceof NumericColumn )
+				return ( NumericColumn< ? > ) column;
+
+			throw new UnsupportedOperationException( "Column " + column.name() + " is not numeric." );
+		}
+	}
+}
@@ -0,0 +1,246 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.view;
+
+import com.google.gson.reflect.TypeToken;
+import org.embl.mobie.DataStore;
+import org.embl.mobie.lib.cache.BoundedCache;
+import org.embl.mobie.lib.image.Image;
+import org.embl.mobie.lib.serialize.DataSource;
+import org.embl.mobie.lib.serialize.JsonHelper;
+import org.embl.mobie.lib.serialize.View;
+import org.embl.mobie.lib.serialize.transformation.GridTransformation;
+import org.embl.mobie.lib.serialize.transformation.MergedGridTransformation;
+import org.embl.mobie.lib.serialize.transformation.Transformation;
+
+import javax.annotation.Nullable;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Keeps the images of previously shown views, such that switching between
+ * views that share data does not re-open images and re-read tables.
+ *
+ * Two levels are cached:
+ * <ul>
+ *     <li>the untransformed image of each data source, which is shared by
+ *     all views that do not transform images in place; transformations
+ *     always create new images that wrap it, thus it is never transformed twice</li>
+ *     <li>all images of a view after applying its transformations, keyed by
+ *     its data sources and transformations, such that showing a view with the
+ *     same data, e.g. with a different coloring, does not apply the
+ *     transformations again</li>
+ * </ul>
+ *
+ * Images that are currently displayed are not handed out again, because
+ * an image can only be associated with one {@code SourceAndConverter}.
+ *
+ * The images, including their tables and image loaders, are only softly
+ * referenced, such that they are freed before the memory runs out.
+ * The number of entries is limited, but not their size, because the
+ * size of an image's tables is not known before they are loaded.
+ */
+public class ViewDataCache
+{
+	private final BoundedCache< DataSource, SoftReference< Image< ? > > > sourceImages;
+
+	private final BoundedCache< String, ViewData > viewData;
+
+	public ViewDataCache( long maxSourceImages, long maxViews, long maxViewImages )
+	{
+		sourceImages = new BoundedCache<>( maxSourceImages );
+		viewData = new BoundedCache<>(
+				maxViews,
+				maxViewImages,
+				( key, data ) -> data.numImages,
+				( key, data ) -> {} );
+	}
+
+	/**
+	 * @return the untransformed image of the data source,
+	 * 			or null if it is not cached or currently displayed
+	 */
+	@Nullable
+	public Image< ? > getSourceImage( DataSource dataSource )
+	{
+		final Image< ? > image = getCachedSourceImage( dataSource );
+		if ( image == null || isDisplayed( image ) )
+			return null;
+
+		return image;
+	}
+
+	public boolean containsSourceImage( DataSource dataSource )
+	{
+		return getCachedSourceImage( dataSource ) != null;
+	}
+
+	public void putSourceImage( DataSource dataSource, Image< ? > image )
+	{
+		sourceImages.put( dataSource, new SoftReference<>( image ) );
+	}
+
+	/**
+	 * @return the images that were created for a view with the same
+	 * 			data sources and transformations, or null if there are none
+	 */
+	@Nullable
+	public Collection< Image< ? > > getViewImages( View view, List< DataSource > dataSources )
+	{
+		final String key = getKey( view );
+		if ( key == null ) return null;
+
+		final ViewData data = viewData.get( key );
+		if ( data == null || ! data.hasSameDataSources( dataSources ) )
+			return null;
+
+		final List< Image< ? > > images = data.images.get();
+		if ( images == null )
+		{
+			// freed by the garbage collector
+			viewData.invalidate( key );
+			return null;
+		}
+
+		for ( Image< ? > image : images )
+			if ( isDisplayed( image ) )
+				return null;
+
+		return images;
+	}
+
+	public void putViewImages( View view, List< DataSource > dataSources, Collection< ? extends Image< ? > > images )
+	{
+		final String key = getKey( view );
+		if ( key == null ) return;
+
+		viewData.put( key, new ViewData( dataSources, images ) );
+	}
+
+	/**
+	 * Drops all cached images, such that the data is read again
+	 * when it is shown next, e.g. after it has been changed on disk.
+	 */
+	public void invalidateAll()
+	{
+		sourceImages.invalidateAll();
+		viewData.invalidateAll();
+	}
+
+	/**
+	 * Grid transformations without new image names translate the
+	 * images themselves; the untransformed images of such a view
+	 * must thus neither come from nor go into the cache.
+	 */
+	public static boolean transformsImagesInPlace( @Nullable List< Transformation > transformations )
+	{
+		if ( transformations == null ) return false;
+
+		for ( Transformation transformation : transformations )
+		{
+			if ( transformation instanceof MergedGridTransformation )
+				return true;
+
+			if ( transformation instanceof GridTransformation
+					&& ( ( GridTransformation ) transformation ).transformedNames == null )
+				return true;
+		}
+
+		return false;
+	}
+
+	@Nullable
+	private Image< ? > getCachedSourceImage( DataSource dataSource )
+	{
+		final SoftReference< Image< ? > > reference = sourceImages.get( dataSource );
+		if ( reference == null ) return null;
+
+		final Image< ? > image = reference.get();
+		if ( image == null )
+			sourceImages.invalidate( dataSource ); // freed by the garbage collector
+
+		return image;
+	}
+
+	private static boolean isDisplayed( Image< ? > image )
+	{
+		return DataStore.sourceToImage().containsValue( image );
+	}
+
+	@Nullable
+	private static String getKey( View view )
+	{
+		try
+		{
+			final List< Transformation > transformations = view.transformations() == null ? Collections.emptyList() : view.transformations();
+			final String transformationsJson = JsonHelper.buildGson( false ).toJson( transformations, new TypeToken< List< Transformation > >() {}.getType() );
+			return new TreeSet<>( view.getSources().keySet() ) + "\n" + transformationsJson;
+		}
+		catch ( Exception e )
+		{
+			// views whose transformations cannot be serialised are not cached
+			return null;
+		}
+	}
+
+	private static class ViewData
+	{
+		private final List< DataSource > dataSources;
+		private final SoftReference< List< Image< ? > > > images;
+		private final int numImages;
+
+		ViewData( List< DataSource > dataSources, Collection< ? extends Image< ? > > images )
+		{
+			this.dataSources = new ArrayList<>( dataSources );
+			this.images = new SoftReference<>( Collections.unmodifiableList( new ArrayList<>( images ) ) );
+			this.numImages = images.size();
+		}
+
+		boolean hasSameDataSources( List< DataSource > dataSources )
+		{
+			if ( dataSources.size() != this.dataSources.size() ) return false;
+
+			final Map< String, DataSource > nameToDataSource = new HashMap<>();
+			for ( DataSource dataSource : this.dataSources )
+				nameToDataSource.put( dataSource.getName(), dataSource );
+
+			for ( DataSource dataSource : dataSources )
+				if ( nameToDataSource.get( dataSource.getName() ) != dataSource )
+					return false;
+
+			return true;
+		}
+	}
+}
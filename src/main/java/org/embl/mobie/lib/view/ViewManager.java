@@ -88,6 +88,8 @@ public class ViewManager
 	private final UniverseManager universeManager;
 	private final AdditionalViewsLoader additionalViewsLoader;
 	private final ViewSaver viewSaver;
+	private final ViewDataCache viewDataCache;
+	private final ViewPrefetcher viewPrefetcher;
 
 	public ViewManager( MoBIE moBIE, UserInterface userInterface, boolean is2D )
 	{
@@ -98,6 +100,8 @@ public class ViewManager
 		universeManager = new UniverseManager();
 		additionalViewsLoader = new AdditionalViewsLoader( moBIE );
 		viewSaver = new ViewSaver( moBIE );
+		viewDataCache = new ViewDataCache( 1024, 16, 100000 );
+		viewPrefetcher = new ViewPrefetcher( moBIE, viewDataCache, moBIE.getSettings().values.getPrefetchMemory() );
 		sacService = ( SourceAndConverterService ) SourceAndConverterServices.getSourceAndConverterService();
 	}
 
@@ -241,6 +245,9 @@ public class ViewManager
 
 		IJ.log("Opening view \"" + view.getName() + "\"..." );
 
+		// give way to loading the data of this view
+		viewPrefetcher.cancel();
+
 		if ( view.isExclusive() )
 		{
 			removeAllSourceDisplays( true );
@@ -251,10 +258,8 @@ public class ViewManager
 		final boolean viewerWasEmpty = currentDisplays.size() == 0;
 
 		// Init and transform the data of this view.
-		// Currently, data is reloaded every time a view is shown.
-		// This is a bit expensive, but simpler and has the
-		// advantage that one could change the data on disk
-		// and use MoBIE to interactively view changes
+		// Images that are shared with previously shown views
+		// are taken from the viewDataCache (see there)
 		initData( view );
 
 		// set the viewer transform *after* initialising the data
@@ -312,6 +317,9 @@ public class ViewManager
 		if ( view.getDescription() != null )
 			IJ.log( "View description: \"" + view.getDescription() + "\"" );
 
+		// open the data of the views that are likely shown next
+		viewPrefetcher.prefetchAdjacentViews( view );
+
 	}
 
 	// initialize and transform
@@ -326,17 +334,39 @@ public class ViewManager
 		// (other sources may be created later,
 		// by a display or transformation)
 		List< DataSource > dataSources = moBIE.getDataSources( sourceToTransformOrDisplay.keySet() );
+		viewPrefetcher.shown( dataSources );
 
-		// if a view is created on the fly in a running project, e.g. due to an image registration
-		// the data sources may already be present and thus do not need to be instantiated
-		// HOWEVER: the issue here is that then an image may exist already and a transformation is applied twice (see below)
-		//    example: public class OpenPaoloFirstTable  => view the first image twice
-		// Thus, currently we reload the data
-		// dataSources = dataSources.stream()
-		//		.filter( ds -> ! DataStore.containsImage( ds.getName() ) )
-		//		.collect( Collectors.toList() );
+		// a view with the same data and transformations has been shown before
+		final Collection< Image< ? > > viewImages = viewDataCache.getViewImages( view, dataSources );
+		if ( viewImages != null )
+		{
+			IJ.log( "Reusing " + viewImages.size() + " image(s) of a previous view." );
+			DataStore.putImages( viewImages );
+			initRegionImages( view );
+			return;
+		}
 
+		// Reuse the untransformed images of data sources that have been opened before.
+		// This does not apply a transformation twice (example: OpenPaoloFirstTable),
+		// because all transformations below create new images that wrap these.
+		// Views that transform images in place always open their own images.
+		final boolean transformsImagesInPlace = ViewDataCache.transformsImagesInPlace( view.transformations() );
+		final Set< Image< ? > > imagesBefore = Collections.newSetFromMap( new IdentityHashMap<>() );
+		imagesBefore.addAll( DataStore.getImages() );
+		final List< DataSource > openedDataSources = new ArrayList<>();
 		for ( DataSource dataSource : dataSources )
+		{
+			final Image< ? > image = transformsImagesInPlace ? null : viewDataCache.getSourceImage( dataSource );
+			if ( image != null )
+				DataStore.addImage( image );
+			else
+				openedDataSources.add( dataSource );
+		}
+
+		if ( openedDataSources.size() < dataSources.size() )
+			IJ.log( "Reusing " + ( dataSources.size() - openedDataSources.size() ) + " already opened data source(s)." );
+
+		for ( DataSource dataSource : openedDataSources )
 		{
 			String dataSourceName = dataSource.getName();
 
@@ -360,8 +390,15 @@ public class ViewManager
 			}
 		}
 
-		if ( ! dataSources.isEmpty() )
-			moBIE.initDataSources( dataSources );
+		if ( ! openedDataSources.isEmpty() )
+			moBIE.initDataSources( openedDataSources );
+
+		if ( ! transformsImagesInPlace )
+		{
+			for ( DataSource dataSource : openedDataSources )
+				if ( DataStore.containsImage( dataSource.getName() ) )
+					viewDataCache.putSourceImage( dataSource, DataStore.getImage( dataSource.getName() ) );
+		}
 
 		// transform images
 		// this may create new images with new names
@@ -374,7 +411,6 @@ public class ViewManager
 		final List< Transformation > transformations = view.transformations();
 		if ( transformations != null )
 		{
-			// FIXME: the issue here is that then an image may exist already and a transformation is applied twice (see above)
 			for ( Transformation transformation : transformations )
 			{
 				if ( transformation instanceof ImageTransformation )
@@ -534,6 +570,19 @@ public class ViewManager
 			}
 		}
 
+		// remember the images of this view, i.e. the ones of its data
+		// sources and the ones that have been created by its transformations
+		final List< Image< ? > > images = new ArrayList<>();
+		for ( Image< ? > image : DataStore.getImages() )
+			if ( ! imagesBefore.contains( image ) || sourceToTransformOrDisplay.containsKey( image.getName() ) )
+				images.add( image );
+		viewDataCache.putViewImages( view, dataSources, images );
+
+		initRegionImages( view );
+	}
+
+	private void initRegionImages( View view )
+	{
 		// Instantiate {@code RegionDisplay}s
 		// This cannot be done already in MoBIE.initData()
 		// because we need to wait until all images are initialised
@@ -792,8 +841,20 @@ public class ViewManager
 				.collect( Collectors.toList() );
 	}
 
+	/**
+	 * Drops the data of previously shown views, such that showing
+	 * a view again re-reads its data, e.g. after it has been changed on disk.
+	 */
+	public void clearCache()
+	{
+		viewPrefetcher.clear();
+		viewDataCache.invalidateAll();
+		DataStore.clearSpimDataCache();
+	}
+
 	public void close()
 	{
+		viewPrefetcher.close();
 		IJ.log( "Closing BDV..." );
 		removeAllSourceDisplays( true );
 		sliceViewer.getBdvHandle().close();
@@ -804,5 +865,6 @@ public class ViewManager
 		// see also https://github.com/mobie/mobie-viewer-fiji/issues/857
 		IJ.log( "Clearing SpimData cache..." );
 		DataStore.clearSpimDataCache();
+		viewDataCache.invalidateAll();
 	}
 }
@@ -0,0 +1,292 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.view;
+
+import bdv.viewer.Source;
+import net.imglib2.Cursor;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.util.Intervals;
+import net.imglib2.view.Views;
+import org.embl.mobie.DataStore;
+import org.embl.mobie.MoBIE;
+import org.embl.mobie.lib.image.AnnotationImage;
+import org.embl.mobie.lib.image.Image;
+import org.embl.mobie.lib.serialize.DataSource;
+import org.embl.mobie.lib.serialize.ImageDataSource;
+import org.embl.mobie.lib.serialize.RegionTableSource;
+import org.embl.mobie.lib.serialize.SpotDataSource;
+import org.embl.mobie.lib.serialize.View;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opens the data of the views that are next to the currently shown view
+ * in the view selection menu in the background, such that showing them
+ * does not need to wait for image metadata and tables.
+ *
+ * Prefetching runs on a single low priority thread and is cancelled as
+ * soon as the user shows a view. The data that has been prefetched, but
+ * not yet shown, may occupy at most {@code maxBytes} (estimated).
+ */
+public class ViewPrefetcher
+{
+	private static final int MAX_NUM_VIEWS = 4;
+
+	// rough estimates of the memory that is needed
+	// for an image loader and for one table row
+	private static final long LOADER_BYTES = 64 * 1024;
+	private static final long ROW_BYTES = 256;
+
+	// the number of voxels of the coarsest level that
+	// are loaded between two checks for cancellation
+	private static final long VOXELS_PER_CHECK = 64 * 1024;
+
+	private final MoBIE moBIE;
+	private final ViewDataCache viewDataCache;
+	private final long maxBytes;
+
+	private final ExecutorService executorService;
+	private final AtomicInteger generation = new AtomicInteger();
+
+	// data sources that have been prefetched, but not yet shown
+	private final Map< DataSource, Long > prefetchedBytes = new ConcurrentHashMap<>();
+	private final AtomicLong numBytes = new AtomicLong();
+
+	public ViewPrefetcher( MoBIE moBIE, ViewDataCache viewDataCache, long maxBytes )
+	{
+		this.moBIE = moBIE;
+		this.viewDataCache = viewDataCache;
+		this.maxBytes = maxBytes;
+		this.executorService = Executors.newSingleThreadExecutor( runnable ->
+		{
+			final Thread thread = new Thread( runnable, "MoBIE view prefetcher" );
+			thread.setDaemon( true );
+			thread.setPriority( Thread.MIN_PRIORITY );
+			return thread;
+		} );
+	}
+
+	/**
+	 * Stops prefetching, such that the data of the view that
+	 * the user requested is opened as fast as possible.
+	 */
+	public void cancel()
+	{
+		generation.incrementAndGet();
+	}
+
+	/**
+	 * Frees the prefetching budget of data sources that are now shown.
+	 */
+	public void shown( Collection< DataSource > dataSources )
+	{
+		for ( DataSource dataSource : dataSources )
+		{
+			final Long bytes = prefetchedBytes.remove( dataSource );
+			if ( bytes != null )
+				numBytes.addAndGet( -bytes );
+		}
+	}
+
+	public void prefetchAdjacentViews( View view )
+	{
+		if ( maxBytes <= 0 ) return;
+
+		final List< View > views = getAdjacentViews( view );
+		if ( views.isEmpty() ) return;
+
+		final int currentGeneration = generation.incrementAndGet();
+		executorService.submit( () ->
+		{
+			for ( View adjacentView : views )
+			{
+				if ( ! prefetch( adjacentView, currentGeneration ) )
+					return;
+			}
+		} );
+	}
+
+	/**
+	 * Stops prefetching and frees the whole prefetching budget,
+	 * e.g. because the prefetched data has been dropped from the cache.
+	 */
+	public void clear()
+	{
+		cancel();
+		prefetchedBytes.clear();
+		numBytes.set( 0 );
+	}
+
+	public void close()
+	{
+		clear();
+		executorService.shutdownNow();
+	}
+
+	/**
+	 * @return the views of the same selection group as the given view,
+	 * 			ordered by their distance to it in the menu
+	 */
+	private List< View > getAdjacentViews( View view )
+	{
+		final String group = view.getUiSelectionGroup();
+		if ( group == null ) return new ArrayList<>();
+
+		final List< View > groupViews = new ArrayList<>();
+		for ( View candidate : moBIE.getViews().values() )
+			if ( group.equals( candidate.getUiSelectionGroup() ) )
+				groupViews.add( candidate );
+
+		final int index = groupViews.indexOf( view );
+		if ( index == -1 ) return new ArrayList<>();
+
+		final List< View > adjacentViews = new ArrayList<>( groupViews );
+		adjacentViews.remove( index );
+		adjacentViews.sort( Comparator.comparingInt( v -> distance( groupViews.indexOf( v ), index ) ) );
+
+		return adjacentViews.subList( 0, Math.min( MAX_NUM_VIEWS, adjacentViews.size() ) );
+	}
+
+	// the next view comes before the previous one
+	private static int distance( int index, int reference )
+	{
+		return index > reference ? 2 * ( index - reference ) - 1 : 2 * ( reference - index );
+	}
+
+	/**
+	 * @return false if prefetching should stop, because
+	 * 			it was cancelled or the budget is used up
+	 */
+	private boolean prefetch( View view, int currentGeneration )
+	{
+		final List< DataSource > dataSources = moBIE.getDataSources( view.getSources().keySet() );
+
+		// such images are not shared between views,
+		// but their image loaders and tables are still cached
+		final boolean cacheImages = ! ViewDataCache.transformsImagesInPlace( view.transformations() );
+
+		for ( DataSource dataSource : dataSources )
+		{
+			if ( isCancelled( currentGeneration ) ) return false;
+			if ( numBytes.get() >= maxBytes ) return false;
+
+			if ( prefetchedBytes.containsKey( dataSource )
+					|| viewDataCache.containsSourceImage( dataSource ) )
+				continue;
+
+			long bytes;
+			try
+			{
+				bytes = prefetch( dataSource, cacheImages, currentGeneration );
+			}
+			catch ( Exception e )
+			{
+				// prefetching is only an optimisation, the error
+				// will show up when the user opens the view
+				bytes = 0;
+			}
+
+			prefetchedBytes.put( dataSource, bytes );
+			numBytes.addAndGet( bytes );
+		}
+
+		return true;
+	}
+
+	private boolean isCancelled( int currentGeneration )
+	{
+		return generation.get() != currentGeneration;
+	}
+
+	private long prefetch( DataSource dataSource, boolean cacheImage, int currentGeneration )
+	{
+		if ( dataSource instanceof RegionTableSource )
+		{
+			if ( DataStore.containsRawData( dataSource.getName() ) ) return 0;
+
+			final RegionTableSource regionTableSource = ( RegionTableSource ) dataSource;
+			moBIE.loadRegionTable( regionTableSource );
+			return ROW_BYTES * regionTableSource.table.rowCount();
+		}
+
+		if ( ! ( dataSource instanceof ImageDataSource || dataSource instanceof SpotDataSource ) )
+			return 0;
+
+		final Image< ? > image = moBIE.createImage( dataSource, false );
+
+		// opens the image metadata
+		final Source< ? > source = image.getSourcePair().getSource();
+		long bytes = LOADER_BYTES;
+
+		if ( image instanceof AnnotationImage && ! isCancelled( currentGeneration ) )
+		{
+			// loads the default table
+			bytes += ROW_BYTES * ( ( AnnotationImage< ? > ) image ).getAnnData().getTable().numAnnotations();
+		}
+
+		final RandomAccessibleInterval< ? > coarsestLevel = source.getSource( 0, source.getNumMipmapLevels() - 1 );
+		final long coarsestLevelBytes = Intervals.numElements( coarsestLevel ) * bytesPerVoxel( source.getType() );
+		if ( numBytes.get() + bytes + coarsestLevelBytes <= maxBytes )
+		{
+			// loads the data of the coarsest level,
+			// unless the user meanwhile requested another view
+			final Cursor< ? > cursor = Views.flatIterable( coarsestLevel ).cursor();
+			long numVoxels = 0;
+			while ( cursor.hasNext() )
+			{
+				if ( ++numVoxels % VOXELS_PER_CHECK == 0 && isCancelled( currentGeneration ) )
+					break;
+				cursor.next();
+			}
+			bytes += ( coarsestLevelBytes * numVoxels ) / Math.max( 1, Intervals.numElements( coarsestLevel ) );
+		}
+
+		if ( cacheImage )
+			viewDataCache.putSourceImage( dataSource, image );
+
+		return bytes;
+	}
+
+	private static int bytesPerVoxel( Object type )
+	{
+		return type instanceof RealType
+				? Math.max( 1, ( ( RealType< ? > ) type ).getBitsPerPixel() / 8 )
+				: 4;
+	}
+}
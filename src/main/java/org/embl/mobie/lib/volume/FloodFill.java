@@ -33,23 +33,47 @@ import net.imglib2.FinalInterval;
 import net.imglib2.RandomAccess;
 import net.imglib2.RandomAccessible;
 import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.neighborhood.DiamondShape;
 import net.imglib2.algorithm.neighborhood.Neighborhood;
+import net.imglib2.algorithm.neighborhood.RectangleShape;
 import net.imglib2.algorithm.neighborhood.Shape;
 import net.imglib2.cache.img.DiskCachedCellImgFactory;
+import net.imglib2.img.array.ArrayImg;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.img.basictypeaccess.array.LongArray;
 import net.imglib2.type.Type;
 import net.imglib2.type.logic.BitType;
 import net.imglib2.util.Intervals;
 import net.imglib2.view.ExtendedRandomAccessibleInterval;
 import net.imglib2.view.Views;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 
+/**
+ * Flood fill starting from a seed voxel, collecting all connected voxels
+ * that have the same value as the seed.
+ *
+ * For 6- and 26-connectivity ({@code DiamondShape(1)} and {@code RectangleShape(1, ..)})
+ * the visited voxels are recorded in an in-memory, paged bitset and the
+ * voxels that still need to be visited in a paged queue of linear indices.
+ * Other shapes, and source intervals with more than {@code maxInMemoryVoxels} voxels,
+ * use a disk-cached region mask.
+ *
+ * @param <T> pixel type
+ */
 public class FloodFill< T extends Type< T > >
 {
+	// 2^18 bits per page of the visited bitset
+	private static final int PAGE_BITS = 18;
+	private static final int WORDS_PER_PAGE = 1 << ( PAGE_BITS - 6 );
+
 	// input
 	private final RandomAccessibleInterval< T > source;
 	private final Shape shape;
 	private final long maxRegionSize;
+	// by default, the visited bitset uses at most a quarter of the heap
+	private long maxInMemoryVoxels = Runtime.getRuntime().maxMemory() / 4 * 8;
 
 	// other
 	private int n;
@@ -64,6 +88,9 @@ public class FloodFill< T extends Type< T > >
 	private T seedValue;
 	private ArrayList< long[] > coordinates;
 	private RandomAccessibleInterval< BitType > regionMask;
+	private long[][] visitedPages;
+	private long[] sourceMin;
+	private long[] strides;
 
 	// output
 	private boolean maxRegionSizeReached;
@@ -78,21 +105,53 @@ public class FloodFill< T extends Type< T > >
 		n = source.numDimensions();
 	}
 
+	/**
+	 * Sets the number of voxels of the source interval above which
+	 * a disk-cached region mask is used instead of an in-memory bitset.
+	 *
+	 * @param maxInMemoryVoxels maximal number of voxels for the in-memory bitset
+	 */
+	public void setMaxInMemoryVoxels( long maxInMemoryVoxels )
+	{
+		this.maxInMemoryVoxels = maxInMemoryVoxels;
+	}
+
 	public void run( long[] seedCoordinate )
 	{
 		maxRegionSizeReached = false;
+		regionMask = null;
+		visitedPages = null;
 
 		setSeedValue( seedCoordinate );
 
-		initCoordinates( seedCoordinate );
-
 		initBoundingBox();
 
-		floodFill();
+		final int connectivity = getConnectivity();
+
+		if ( connectivity > 0 && Intervals.numElements( source ) <= maxInMemoryVoxels )
+		{
+			floodFillInMemory( seedCoordinate, connectivity == 6 );
+		}
+		else
+		{
+			initCoordinates( seedCoordinate );
+			floodFill();
+		}
+	}
+
+	/**
+	 * @return the bounding box of the filled region
+	 */
+	public FinalInterval getBoundingBox()
+	{
+		return new FinalInterval( min, max );
 	}
 
 	public RandomAccessibleInterval< BitType > getCroppedRegionMask()
 	{
+		if ( regionMask == null )
+			regionMask = createRegionMaskFromBitset();
+
 		RandomAccessibleInterval< BitType > croppedMask = Views.interval( regionMask, new FinalInterval( min, max ) );
 
 		return croppedMask;
@@ -103,6 +162,190 @@ public class FloodFill< T extends Type< T > >
 		return maxRegionSizeReached;
 	}
 
+	// 6 or 26 connectivity, or -1 for any other shape
+	private int getConnectivity()
+	{
+		if ( shape instanceof DiamondShape && ( ( DiamondShape ) shape ).getRadius() == 1 )
+			return 6;
+
+		if ( shape instanceof RectangleShape && ( ( RectangleShape ) shape ).getSpan() == 1 )
+			return 26;
+
+		return -1;
+	}
+
+	private void floodFillInMemory( long[] seedCoordinate, boolean faceConnected )
+	{
+		sourceMin = Intervals.minAsLongArray( source );
+		final long[] sourceMax = Intervals.maxAsLongArray( source );
+		strides = new long[ n ];
+		long numVoxels = 1;
+		for ( int d = 0; d < n; d++ )
+		{
+			strides[ d ] = numVoxels;
+			numVoxels *= source.dimension( d );
+		}
+		visitedPages = new long[ ( int ) ( ( numVoxels >> PAGE_BITS ) + 1 ) ][];
+
+		final long[][] offsets = faceConnected ? null : createNeighborOffsets();
+		final RandomAccess< T > access = source.randomAccess();
+		final long[] position = new long[ n ];
+		final long[] neighbor = new long[ n ];
+
+		final PagedLongQueue queue = new PagedLongQueue();
+		final long seedIndex = toIndex( seedCoordinate );
+		setVisited( seedIndex );
+		queue.add( seedIndex );
+		updateBoundingBox( seedCoordinate );
+
+		long numVisited = 0;
+		while ( ! queue.isEmpty() )
+		{
+			if ( numVisited++ > maxRegionSize )
+			{
+				maxRegionSizeReached = true;
+				break;
+			}
+
+			toPosition( queue.remove(), position );
+
+			if ( faceConnected )
+			{
+				for ( int d = 0; d < n; d++ )
+				{
+					if ( position[ d ] > sourceMin[ d ] )
+						visit( access, position, d, -1, queue );
+
+					if ( position[ d ] < sourceMax[ d ] )
+						visit( access, position, d, 1, queue );
+				}
+			}
+			else
+			{
+				neighbors:
+				for ( long[] offset : offsets )
+				{
+					for ( int d = 0; d < n; d++ )
+					{
+						neighbor[ d ] = position[ d ] + offset[ d ];
+						if ( neighbor[ d ] < sourceMin[ d ] || neighbor[ d ] > sourceMax[ d ] )
+							continue neighbors;
+					}
+
+					visit( access, neighbor, queue );
+				}
+			}
+		}
+	}
+
+	private void visit( RandomAccess< T > access, long[] position, int d, int step, PagedLongQueue queue )
+	{
+		position[ d ] += step;
+		visit( access, position, queue );
+		position[ d ] -= step;
+	}
+
+	private void visit( RandomAccess< T > access, long[] position, PagedLongQueue queue )
+	{
+		final long index = toIndex( position );
+		if ( isVisited( index ) )
+			return;
+
+		access.setPosition( position );
+		if ( ! access.get().valueEquals( seedValue ) )
+			return;
+
+		setVisited( index );
+		queue.add( index );
+		updateBoundingBox( position );
+	}
+
+	// all offsets in { -1, 0, 1 }^n, except the center
+	private long[][] createNeighborOffsets()
+	{
+		final int numOffsets = ( int ) Math.pow( 3, n ) - 1;
+		final long[][] offsets = new long[ numOffsets ][ n ];
+		int i = 0;
+		for ( int code = 0; code < numOffsets + 1; code++ )
+		{
+			final long[] offset = new long[ n ];
+			boolean isCenter = true;
+			int c = code;
+			for ( int d = 0; d < n; d++ )
+			{
+				offset[ d ] = c % 3 - 1;
+				c /= 3;
+				if ( offset[ d ] != 0 ) isCenter = false;
+			}
+			if ( ! isCenter )
+				offsets[ i++ ] = offset;
+		}
+		return offsets;
+	}
+
+	private long toIndex( long[] position )
+	{
+		long index = 0;
+		for ( int d = 0; d < n; d++ )
+			index += ( position[ d ] - sourceMin[ d ] ) * strides[ d ];
+		return index;
+	}
+
+	private void toPosition( long index, long[] position )
+	{
+		for ( int d = n - 1; d >= 0; d-- )
+		{
+			position[ d ] = index / strides[ d ] + sourceMin[ d ];
+			index %= strides[ d ];
+		}
+	}
+
+	private boolean isVisited( long index )
+	{
+		final long[] page = visitedPages[ ( int ) ( index >> PAGE_BITS ) ];
+		if ( page == null )
+			return false;
+
+		final int bit = ( int ) ( index & ( ( 1 << PAGE_BITS ) - 1 ) );
+		return ( page[ bit >> 6 ] & ( 1L << bit ) ) != 0;
+	}
+
+	private void setVisited( long index )
+	{
+		final int pageIndex = ( int ) ( index >> PAGE_BITS );
+		long[] page = visitedPages[ pageIndex ];
+		if ( page == null )
+		{
+			page = new long[ WORDS_PER_PAGE ];
+			visitedPages[ pageIndex ] = page;
+		}
+
+		final int bit = ( int ) ( index & ( ( 1 << PAGE_BITS ) - 1 ) );
+		page[ bit >> 6 ] |= 1L << bit;
+	}
+
+	private RandomAccessibleInterval< BitType > createRegionMaskFromBitset()
+	{
+		final long[] dimensions = new long[ n ];
+		for ( int d = 0; d < n; d++ )
+			dimensions[ d ] = max[ d ] - min[ d ] + 1;
+
+		final ArrayImg< BitType, LongArray > mask = ArrayImgs.bits( dimensions );
+		final Cursor< BitType > cursor = mask.localizingCursor();
+		final long[] position = new long[ n ];
+		while ( cursor.hasNext() )
+		{
+			cursor.fwd();
+			cursor.localize( position );
+			for ( int d = 0; d < n; d++ )
+				position[ d ] += min[ d ];
+			if ( isVisited( toIndex( position ) ) )
+				cursor.get().setOne();
+		}
+
+		return Views.translate( mask, min );
+	}
+
 	private void floodFill()
 	{
 		regionMask = new DiskCachedCellImgFactory<>( new BitType() ).create( source );
@@ -158,7 +401,7 @@ public class FloodFill< T extends Type< T > >
 	{
 		final RandomAccess< T > sourceAccess = source.randomAccess();
 		sourceAccess.setPosition( seed );
-		seedValue = sourceAccess.get();
+		seedValue = sourceAccess.get().copy();
 	}
 
 	private void initBoundingBox()
@@ -181,5 +424,47 @@ public class FloodFill< T extends Type< T > >
 			if ( coordinate[ d ] > max[ d ] ) max[ d ] = coordinate[ d ];
 		}
 	}
-}
 
+	/**
+	 * Unbounded FIFO queue of primitive longs, stored in pages
+	 * that are released once all their elements are removed.
+	 */
+	private static class PagedLongQueue
+	{
+		private static final int PAGE_SIZE = 1 << 16;
+
+		private final ArrayDeque< long[] > pages = new ArrayDeque<>();
+		private long[] tailPage = null;
+		private int headIndex = 0;
+		private int tailIndex = PAGE_SIZE;
+		private long size = 0;
+
+		void add( long element )
+		{
+			if ( tailIndex == PAGE_SIZE )
+			{
+				tailPage = new long[ PAGE_SIZE ];
+				pages.addLast( tailPage );
+				tailIndex = 0;
+			}
+			tailPage[ tailIndex++ ] = element;
+			size++;
+		}
+
+		long remove()
+		{
+			if ( headIndex == PAGE_SIZE )
+			{
+				pages.removeFirst();
+				headIndex = 0;
+			}
+			size--;
+			return pages.peekFirst()[ headIndex++ ];
+		}
+
+		boolean isEmpty()
+		{
+			return size == 0;
+		}
+	}
+}
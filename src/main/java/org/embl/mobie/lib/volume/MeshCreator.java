@@ -34,7 +34,7 @@ import de.embl.cba.tables.Utils;
 import isosurface.MeshEditor;
 import net.imglib2.Interval;
 import net.imglib2.RealPoint;
-import net.imglib2.type.logic.BitType;
+import org.embl.mobie.lib.cache.BoundedCache;
 import org.embl.mobie.lib.playground.BdvPlaygroundHelper;
 import org.embl.mobie.lib.annotation.Segment;
 import org.embl.mobie.lib.source.AnnotationType;
@@ -53,12 +53,22 @@ import sc.fiji.bdvpg.sourceandconverter.SourceAndConverterHelper;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
 
 public class MeshCreator< S extends Segment >
 {
 	private final int meshSmoothingIterations;
 	private final double maxNumSegmentVoxels;
 
+	// smoothed meshes, such that re-selecting segments does not recompute them
+	private final BoundedCache< MeshKey, float[] > meshCache = new BoundedCache<>(
+			10000,
+			Runtime.getRuntime().maxMemory() / 10,
+			( key, mesh ) -> 4L * mesh.length,
+			( key, mesh ) -> {} );
+
 	public MeshCreator( int meshSmoothingIterations, double maxNumSegmentVoxels )
 	{
 		this.meshSmoothingIterations = meshSmoothingIterations;
@@ -97,11 +107,11 @@ public class MeshCreator< S extends Segment >
 					1000 * 1000 * 1000L );
 
 			floodFill.run( voxelPositionInSource );
-			final RandomAccessibleInterval< BitType > mask = floodFill.getCroppedRegionMask();
+			final Interval voxelBoundingBox = floodFill.getBoundingBox();
 
 			// set segment bounding box in real space
 			//
-			final FinalRealInterval realBounds = sourceTransform.estimateBounds( mask );
+			final FinalRealInterval realBounds = sourceTransform.estimateBounds( voxelBoundingBox );
 			segment.setBoundingBox( realBounds );
 		}
 
@@ -127,10 +137,15 @@ public class MeshCreator< S extends Segment >
 				voxelBounds,
 				new AffineTransform3D(),
 				new int[]{ 1, 1, 1 },
-				() -> false );
+				() -> Thread.currentThread().isInterrupted() ); // allows cancelling the mesh computation
 
 		final float[] mesh = meshExtractor.extractMesh( new AnnotationType( segment ) );
 
+		// an interrupted extraction returns a partial mesh,
+		// which must neither be cached nor set on the segment
+		if ( Thread.interrupted() )
+			throw new CancellationException( "The mesh computation for segment " + segment.label() + " has been cancelled." );
+
 		if ( mesh.length == 0 )
 			throw new RuntimeException("The mesh has zero vertices.");
 
@@ -147,11 +162,39 @@ public class MeshCreator< S extends Segment >
 
 	public CustomTriangleMesh createSmoothCustomTriangleMesh( S segment, @Nullable double[] voxelSpacing, boolean recomputeMesh, Source< AnnotationType< S > > source )
 	{
+		final MeshKey key = createMeshKey( segment, voxelSpacing, source );
+
+		if ( recomputeMesh )
+		{
+			meshCache.invalidate( key );
+		}
+		else
+		{
+			final float[] cachedMesh = meshCache.get( key );
+			if ( cachedMesh != null )
+				return asCustomTriangleMesh( cachedMesh );
+		}
+
 		CustomTriangleMesh triangleMesh = createCustomTriangleMesh( segment, voxelSpacing, recomputeMesh, source );
 		MeshEditor.smooth2( triangleMesh, meshSmoothingIterations );
+		meshCache.put( key, asFloatArray( triangleMesh ) );
 		return triangleMesh;
 	}
 
+	private MeshKey createMeshKey( S segment, @Nullable double[] voxelSpacing, Source< AnnotationType< S > > source )
+	{
+		try
+		{
+			final int timePoint = segment.timePoint() == null ? 0 : segment.timePoint();
+			final int level = getLevel( segment, source, voxelSpacing );
+			return new MeshKey( source.getName(), timePoint, segment.label(), level, meshSmoothingIterations );
+		}
+		catch ( Exception e )
+		{
+			throw new RuntimeException( "Could not create mesh for segment " + segment.label() + " at time point " + segment.timePoint(), e );
+		}
+	}
+
 	private CustomTriangleMesh createCustomTriangleMesh( S segment, @Nullable double[] voxelSpacing, boolean recomputeMesh, Source< AnnotationType< S > >  source )
 	{
 		if ( segment.mesh() == null || recomputeMesh )
@@ -160,11 +203,15 @@ public class MeshCreator< S extends Segment >
 			{
 				segment.setMesh( createMesh( segment, voxelSpacing, source ) );
 			}
+			catch ( CancellationException e )
+			{
+				throw e;
+			}
 			catch ( Exception e )
 			{
 				final String msg = "Could not create mesh for segment " + segment.label() + " at time point " + segment.timePoint();
 				//IJ.showMessage( msg );
-				throw new RuntimeException( msg );
+				throw new RuntimeException( msg, e );
 			}
 		}
 
@@ -190,6 +237,20 @@ public class MeshCreator< S extends Segment >
 		return mesh;
 	}
 
+	private static float[] asFloatArray( CustomTriangleMesh triangleMesh )
+	{
+		final List< Point3f > points = triangleMesh.getMesh();
+		final float[] meshCoordinates = new float[ 3 * points.size() ];
+		int i = 0;
+		for ( Point3f point : points )
+		{
+			meshCoordinates[ i++ ] = point.x;
+			meshCoordinates[ i++ ] = point.y;
+			meshCoordinates[ i++ ] = point.z;
+		}
+		return meshCoordinates;
+	}
+
 	private Integer getLevel( S segment, Source< ? > labelSource, @Nullable double[] voxelSpacing )
 	{
 		if ( voxelSpacing != null ) // user determined resolution
@@ -258,4 +319,40 @@ public class MeshCreator< S extends Segment >
 		return new FinalInterval( min, max );
 	}
 
+	private static class MeshKey
+	{
+		private final String source;
+		private final int timePoint;
+		private final int label;
+		private final int level;
+		private final int smoothingIterations;
+
+		MeshKey( String source, int timePoint, int label, int level, int smoothingIterations )
+		{
+			this.source = source;
+			this.timePoint = timePoint;
+			this.label = label;
+			this.level = level;
+			this.smoothingIterations = smoothingIterations;
+		}
+
+		@Override
+		public boolean equals( Object o )
+		{
+			if ( this == o ) return true;
+			if ( ! ( o instanceof MeshKey ) ) return false;
+			final MeshKey meshKey = ( MeshKey ) o;
+			return timePoint == meshKey.timePoint
+					&& label == meshKey.label
+					&& level == meshKey.level
+					&& smoothingIterations == meshKey.smoothingIterations
+					&& Objects.equals( source, meshKey.source );
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash( source, timePoint, label, level, smoothingIterations );
+		}
+	}
 }
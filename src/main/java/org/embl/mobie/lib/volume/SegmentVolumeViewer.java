@@ -35,6 +35,7 @@ import ij3d.Content;
 import ij3d.Image3DUniverse;
 import ij3d.ImageWindow3D;
 import ij3d.UniverseListener;
+import org.embl.mobie.lib.ThreadHelper;
 import org.embl.mobie.lib.serialize.display.VisibilityListener;
 import org.embl.mobie.lib.annotation.Segment;
 import org.embl.mobie.lib.color.ColorHelper;
@@ -58,6 +59,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 
 public class SegmentVolumeViewer< S extends Segment > implements ColoringListener, SelectionListener< S >
 {
@@ -69,6 +71,7 @@ public class SegmentVolumeViewer< S extends Segment > implements ColoringListene
 	private final UniverseManager universeManager;
 	private ConcurrentHashMap< S, Content > segmentToContent;
 	private ConcurrentHashMap< Content, S > contentToSegment;
+	private final ConcurrentHashMap< S, Future< ? > > segmentToMeshFuture = new ConcurrentHashMap<>();
 	private double transparency;
 	private int meshSmoothingIterations;
 	private int segmentFocusAnimationDurationMillis;
@@ -169,10 +172,14 @@ public class SegmentVolumeViewer< S extends Segment > implements ColoringListene
 	private void removeUnselectedSegments( )
 	{
 		final Set< S > selectedSegments = selectionModel.getSelected();
-		final Set< S > currentSegments = segmentToContent.keySet();
 		final Set< S > remove = new HashSet<>();
 
-		for ( S segment : currentSegments )
+		for ( S segment : segmentToContent.keySet() )
+			if ( ! selectedSegments.contains( segment ) )
+				remove.add( segment );
+
+		// also cancel the mesh computations of deselected segments
+		for ( S segment : segmentToMeshFuture.keySet() )
 			if ( ! selectedSegments.contains( segment ) )
 				remove.add( segment );
 
@@ -190,12 +197,12 @@ public class SegmentVolumeViewer< S extends Segment > implements ColoringListene
 			{
 				if ( recomputeMeshes ) removeSegment( segment );
 
-				if ( ! segmentToContent.containsKey( segment ) )
+				if ( ! segmentToContent.containsKey( segment ) && ! segmentToMeshFuture.containsKey( segment ) )
 				{
-					final Source< AnnotationType< S > > source = getSource( segment );
-					final CustomTriangleMesh mesh = meshCreator.createSmoothCustomTriangleMesh( segment, voxelSpacing, recomputeMeshes, source );
-					mesh.setColor( getColor3f( segment ) );
-					addSegmentMeshToUniverse( segment, mesh );
+					// compute the meshes in parallel and add each one
+					// to the universe as soon as it is ready
+					final Future< ? > future = ThreadHelper.executorService.submit( () -> addSegmentMesh( segment, recomputeMeshes ) );
+					segmentToMeshFuture.put( segment, future );
 				}
 			}
 			else // segment is of another time point
@@ -205,6 +212,34 @@ public class SegmentVolumeViewer< S extends Segment > implements ColoringListene
 		}
 	}
 
+	private void addSegmentMesh( S segment, boolean recomputeMesh )
+	{
+		try
+		{
+			final Source< AnnotationType< S > > source = getSource( segment );
+			final CustomTriangleMesh mesh = meshCreator.createSmoothCustomTriangleMesh( segment, voxelSpacing, recomputeMesh, source );
+			mesh.setColor( getColor3f( segment ) );
+
+			synchronized ( this )
+			{
+				// the segment may have been deselected in the meantime
+				if ( segmentToMeshFuture.remove( segment ) == null || universe == null || ! showSegments )
+					return;
+
+				addSegmentMeshToUniverse( segment, mesh );
+			}
+		}
+		catch ( Exception e )
+		{
+			synchronized ( this )
+			{
+				// only report errors of computations that have not been cancelled
+				if ( segmentToMeshFuture.remove( segment ) != null )
+					e.printStackTrace();
+			}
+		}
+	}
+
 	private Source< AnnotationType< S > > getSource( S segment )
 	{
 		for ( Image< AnnotationType< S > > image : images )
@@ -216,8 +251,16 @@ public class SegmentVolumeViewer< S extends Segment > implements ColoringListene
 
 	private synchronized void removeSegment( S segment )
 	{
+		final Future< ? > future = segmentToMeshFuture.remove( segment );
+		if ( future != null )
+			future.cancel( true );
+
 		final Content content = segmentToContent.get( segment );
-		universe.removeContent( content.getName() );
+		if ( content == null )
+			return;
+
+		if ( universe != null )
+			universe.removeContent( content.getName() );
 		segmentToContent.remove( segment );
 		contentToSegment.remove( content );
 	}
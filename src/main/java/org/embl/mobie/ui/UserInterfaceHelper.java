@@ -869,6 +869,7 @@ public class UserInterfaceHelper
 		final JPanel panel = SwingUtils.horizontalLayoutPanel();
 
 		final JButton button = SwingHelper.createButton( "clear", new Dimension( 80, SwingHelper.TEXT_FIELD_HEIGHT ) );
+		button.setToolTipText( "Removes all displays and drops the cached data of previous views" );
 		button.addActionListener( e ->
 		{
 			SwingUtilities.invokeLater( () ->
@@ -876,6 +877,8 @@ public class UserInterfaceHelper
 				new Thread( () ->
 				{
 					moBIE.getViewManager().removeAllSourceDisplays( true );
+					// such that data that changed on disk is re-read
+					moBIE.getViewManager().clearCache();
 				}).start();
 			} );
 		} );
@@ -0,0 +1,117 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriorityExecutorServiceTest
+{
+	@Test
+	void servesQueuedTasksByPriority() throws Exception
+	{
+		final PriorityExecutorService executor = new PriorityExecutorService( "test", 1 );
+		final CountDownLatch blocker = new CountDownLatch( 1 );
+		final List< String > order = new CopyOnWriteArrayList<>();
+
+		// occupy the only thread, such that the following tasks are queued
+		final Future< ? > blocking = executor.submit( () -> await( blocker ) );
+		executor.submit( () -> order.add( "background" ), PriorityExecutorService.Priority.Background );
+		executor.submit( () -> order.add( "normal 1" ) );
+		executor.submit( () -> order.add( "normal 2" ) );
+		final Future< ? > last = executor.submit( () -> order.add( "interactive" ), PriorityExecutorService.Priority.Interactive );
+
+		blocker.countDown();
+		blocking.get();
+		last.get();
+		executor.shutdown();
+		assertTrue( executor.awaitTermination( 10, TimeUnit.SECONDS ) );
+
+		assertEquals( 4, order.size() );
+		assertEquals( "interactive", order.get( 0 ) );
+		assertEquals( "normal 1", order.get( 1 ) );
+		assertEquals( "normal 2", order.get( 2 ) );
+		assertEquals( "background", order.get( 3 ) );
+		assertEquals( 5, executor.stats().numCompleted );
+	}
+
+	@Test
+	void cancelsQueuedTasks() throws Exception
+	{
+		final PriorityExecutorService executor = new PriorityExecutorService( "test", 1 );
+		final CountDownLatch blocker = new CountDownLatch( 1 );
+
+		final Future< ? > blocking = executor.submit( () -> await( blocker ) );
+		final Future< Integer > queued = executor.submit( () -> 42, PriorityExecutorService.Priority.Background );
+
+		assertEquals( 1, executor.cancelQueued() );
+		assertTrue( queued.isCancelled() );
+
+		blocker.countDown();
+		blocking.get();
+		executor.shutdown();
+	}
+
+	@Test
+	void changesTheNumberOfThreads() throws Exception
+	{
+		final PriorityExecutorService executor = new PriorityExecutorService( "test", 1 );
+		executor.setNumThreads( 3 );
+		assertEquals( 3, executor.getNumThreads() );
+
+		// all three tasks must run concurrently to pass the latch
+		final CountDownLatch started = new CountDownLatch( 3 );
+		for ( int i = 0; i < 3; i++ )
+			executor.submit( () -> { started.countDown(); await( started ); } );
+		assertTrue( started.await( 10, TimeUnit.SECONDS ) );
+
+		executor.setNumThreads( 1 );
+		assertEquals( 1, executor.getNumThreads() );
+		executor.shutdown();
+	}
+
+	private static void await( CountDownLatch latch )
+	{
+		try
+		{
+			latch.await();
+		}
+		catch ( InterruptedException e )
+		{
+			throw new RuntimeException( e );
+		}
+	}
+}
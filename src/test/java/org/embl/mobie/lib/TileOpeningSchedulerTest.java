@@ -0,0 +1,93 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileOpeningSchedulerTest
+{
+	@Test
+	void opensTilesWithTheChangedNumberOfThreads() throws Exception
+	{
+		final TileOpeningScheduler scheduler = new TileOpeningScheduler( 1, 10000 );
+		scheduler.setNumThreads( 3 );
+		assertEquals( 3, scheduler.getNumThreads() );
+
+		// each tile only opens once all three are being opened at the same time
+		final CountDownLatch opening = new CountDownLatch( 3 );
+		final AtomicInteger numOpened = new AtomicInteger();
+		final CountDownLatch opened = new CountDownLatch( 3 );
+		for ( int i = 0; i < 3; i++ )
+		{
+			final TileOpeningScheduler.Request request = new TileOpeningScheduler.Request( () ->
+			{
+				opening.countDown();
+				if ( await( opening ) )
+					numOpened.incrementAndGet();
+				opened.countDown();
+			}, 0 );
+			scheduler.request( request, new double[]{ i, 0, 0 } );
+		}
+
+		assertTrue( opened.await( 10, TimeUnit.SECONDS ) );
+		assertEquals( 3, numOpened.get() );
+	}
+
+	@Test
+	void stillOpensTilesWithFewerThreads() throws Exception
+	{
+		final TileOpeningScheduler scheduler = new TileOpeningScheduler( 4, 10000 );
+		scheduler.setNumThreads( 1 );
+		assertEquals( 1, scheduler.getNumThreads() );
+
+		final CountDownLatch opened = new CountDownLatch( 5 );
+		for ( int i = 0; i < 5; i++ )
+			scheduler.request( new TileOpeningScheduler.Request( opened::countDown, 0 ), new double[]{ i, 0, 0 } );
+
+		assertTrue( opened.await( 10, TimeUnit.SECONDS ) );
+	}
+
+	private static boolean await( CountDownLatch latch )
+	{
+		try
+		{
+			return latch.await( 10, TimeUnit.SECONDS );
+		}
+		catch ( InterruptedException e )
+		{
+			throw new RuntimeException( e );
+		}
+	}
+}
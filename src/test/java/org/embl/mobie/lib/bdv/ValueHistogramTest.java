@@ -0,0 +1,89 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.bdv;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValueHistogramTest
+{
+	@Test
+	void mergedLimitsMatchSortedValues()
+	{
+		final Random random = new Random( 42 );
+		final int numChunks = 20;
+		final int chunkSize = 10000;
+		final float[] allValues = new float[ numChunks * chunkSize ];
+
+		final List< ValueHistogram > histograms = new ArrayList<>();
+		for ( int c = 0; c < numChunks; c++ )
+		{
+			final float[] values = new float[ chunkSize ];
+			for ( int i = 0; i < chunkSize; i++ )
+				values[ i ] = ( float ) ( 1000 + 100 * random.nextGaussian() + 10 * c );
+			System.arraycopy( values, 0, allValues, c * chunkSize, chunkSize );
+			histograms.add( ValueHistogram.of( values, chunkSize, 1024 ) );
+		}
+
+		final ValueHistogram histogram = ValueHistogram.merge( histograms, 4096 );
+		assertEquals( allValues.length, histogram.getCount() );
+
+		final double[] limits = histogram.saturatedLimits( 0.35 );
+		Arrays.sort( allValues );
+		final int tail = ( int ) ( allValues.length * 0.35 / 200 );
+		final double tolerance = ( histogram.getMax() - histogram.getMin() ) / 500;
+		assertEquals( allValues[ tail ], limits[ 0 ], tolerance );
+		assertEquals( allValues[ allValues.length - 1 - tail ], limits[ 1 ], tolerance );
+	}
+
+	@Test
+	void ignoresNaNAndHandlesConstantValues()
+	{
+		final float[] values = { 5, Float.NaN, 5, 5 };
+		final ValueHistogram histogram = ValueHistogram.of( values, values.length, 16 );
+		assertEquals( 3, histogram.getCount() );
+
+		final double[] limits = ValueHistogram.merge( Arrays.asList( histogram, histogram ), 16 ).saturatedLimits( 0.35 );
+		assertEquals( 5, limits[ 0 ], 1e-9 );
+		assertEquals( 5, limits[ 1 ], 1e-9 );
+	}
+
+	@Test
+	void emptyHistogramHasNoLimits()
+	{
+		final ValueHistogram histogram = ValueHistogram.of( new float[]{ Float.NaN }, 1, 16 );
+		assertNull( histogram.saturatedLimits( 0.35 ) );
+	}
+}
@@ -0,0 +1,143 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.bdv.blend;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlphaBlendingTest
+{
+	private static final int NUM_PIXELS = 10 * AlphaBlending.BLOCK_SIZE + 17;
+
+	@Test
+	void blocksMatchPixelwiseBlending()
+	{
+		final Random random = new Random( 42 );
+		final int numSources = 12;
+		final int[][] sources = new int[ numSources ][ NUM_PIXELS ];
+		final boolean[] alphaBlending = new boolean[ numSources ];
+		final int[] order = new int[ numSources ];
+		for ( int sourceIndex = 0; sourceIndex < numSources; sourceIndex++ )
+		{
+			alphaBlending[ sourceIndex ] = random.nextBoolean();
+			order[ sourceIndex ] = numSources - 1 - sourceIndex;
+			for ( int i = 0; i < NUM_PIXELS; i++ )
+			{
+				// mix transparent, opaque and translucent blocks
+				final int block = i / AlphaBlending.BLOCK_SIZE;
+				final int alpha = ( block + sourceIndex ) % 3 == 0 ? 0
+						: ( block + sourceIndex ) % 3 == 1 ? 255
+						: random.nextInt( 256 );
+				sources[ sourceIndex ][ i ] = ( alpha << 24 ) | random.nextInt( 1 << 24 );
+			}
+		}
+
+		final int[] target = blend( sources, order, alphaBlending );
+
+		for ( int i = 0; i < NUM_PIXELS; i++ )
+			assertEquals( blendPixel( sources, order, alphaBlending, i ), target[ i ], "pixel " + i );
+	}
+
+	@Test
+	void opaqueSourceHidesSourcesBelow()
+	{
+		final int[][] sources = {
+				filled( 0xff102030 ),
+				filled( 0xff405060 ),
+				filled( 0x00ffffff ) };
+		final int[] target = blend( sources, new int[]{ 0, 1, 2 }, new boolean[]{ true, true, true } );
+
+		for ( int value : target )
+			assertEquals( 0x405060, value );
+	}
+
+	@Test
+	void sumsAdditiveSources()
+	{
+		final int[][] sources = {
+				filled( 0xff800000 ),
+				filled( 0xffa00010 ) };
+		final int[] target = blend( sources, new int[]{ 0, 1 }, new boolean[]{ false, false } );
+
+		for ( int value : target )
+			assertEquals( 0xff0010, value );
+	}
+
+	@Test
+	void clearsTransparentPixels()
+	{
+		final int[][] sources = { filled( 0x00ffffff ) };
+		final int[] target = blend( sources, new int[]{ 0 }, new boolean[]{ true } );
+
+		for ( int value : target )
+			assertEquals( 0, value );
+	}
+
+	private static int[] blend( int[][] sources, int[] order, boolean[] alphaBlending )
+	{
+		final int[] target = filled( 0x12345678 );
+		AlphaBlending.blend( sources, order, alphaBlending, target, 0, NUM_PIXELS, new int[ sources.length ], new boolean[ sources.length ] );
+		return target;
+	}
+
+	private static int[] filled( int argb )
+	{
+		final int[] pixels = new int[ NUM_PIXELS ];
+		Arrays.fill( pixels, argb );
+		return pixels;
+	}
+
+	// blends all sources of one pixel, like AccumulateAlphaBlendingProjectorARGB.getArgbIndex
+	private static int blendPixel( int[][] sources, int[] order, boolean[] alphaBlending, int i )
+	{
+		int r = 0, g = 0, b = 0;
+		for ( int sourceIndex : order )
+		{
+			final int argb = sources[ sourceIndex ][ i ];
+			final int alpha = argb >>> 24;
+			if ( alpha == 0 ) continue;
+
+			if ( alphaBlending[ sourceIndex ] )
+			{
+				r = r * ( 255 - alpha ) / 255;
+				g = g * ( 255 - alpha ) / 255;
+				b = b * ( 255 - alpha ) / 255;
+			}
+
+			r += ( ( argb >> 16 ) & 0xff ) * alpha / 255;
+			g += ( ( argb >> 8 ) & 0xff ) * alpha / 255;
+			b += ( argb & 0xff ) * alpha / 255;
+		}
+		return ( Math.min( r, 255 ) << 16 ) | ( Math.min( g, 255 ) << 8 ) | Math.min( b, 255 );
+	}
+}
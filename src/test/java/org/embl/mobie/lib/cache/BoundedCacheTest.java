@@ -0,0 +1,101 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest
+{
+	@Test
+	void evictsLeastRecentlyUsedEntry()
+	{
+		final List< String > removed = new ArrayList<>();
+		final BoundedCache< String, Integer > cache = new BoundedCache<>( 2, Long.MAX_VALUE, ( k, v ) -> 1, ( k, v ) -> removed.add( k ) );
+
+		cache.put( "a", 1 );
+		cache.put( "b", 2 );
+		assertEquals( 1, cache.get( "a" ) ); // "b" is now the eldest
+		cache.put( "c", 3 );
+
+		assertNull( cache.get( "b" ) );
+		assertEquals( 1, cache.get( "a" ) );
+		assertEquals( 3, cache.get( "c" ) );
+		assertEquals( 1, removed.size() );
+		assertEquals( "b", removed.get( 0 ) );
+
+		final BoundedCache.Stats stats = cache.stats();
+		assertEquals( 3, stats.hits );
+		assertEquals( 1, stats.misses );
+		assertEquals( 1, stats.evictions );
+	}
+
+	@Test
+	void evictsByWeight()
+	{
+		final BoundedCache< String, Integer > cache = new BoundedCache<>( Long.MAX_VALUE, 10, ( k, v ) -> v, ( k, v ) -> {} );
+
+		cache.computeIfAbsent( "a", k -> 4 );
+		cache.computeIfAbsent( "b", k -> 4 );
+		assertEquals( 8, cache.weight() );
+		cache.computeIfAbsent( "c", k -> 4 );
+
+		assertEquals( 2, cache.size() );
+		assertEquals( 8, cache.weight() );
+		assertNull( cache.get( "a" ) );
+
+		// the most recent entry is kept even if it alone is too heavy
+		cache.put( "d", 20 );
+		assertEquals( 1, cache.size() );
+		assertEquals( 20, cache.get( "d" ) );
+	}
+
+	@Test
+	void invalidatesMatchingKeys()
+	{
+		final List< String > removed = new ArrayList<>();
+		final BoundedCache< String, Integer > cache = new BoundedCache<>( 10, Long.MAX_VALUE, ( k, v ) -> v, ( k, v ) -> removed.add( k ) );
+
+		cache.put( "a1", 1 );
+		cache.put( "b1", 2 );
+		cache.put( "a2", 3 );
+		cache.invalidateIf( key -> key.startsWith( "a" ) );
+
+		assertEquals( 1, cache.size() );
+		assertEquals( 2, cache.weight() );
+		assertEquals( 2, cache.get( "b1" ) );
+		assertEquals( 2, removed.size() );
+		assertTrue( removed.contains( "a1" ) );
+		assertTrue( removed.contains( "a2" ) );
+	}
+}
@@ -0,0 +1,98 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.hcs;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperettaMetadataTest
+{
+	private static final String INDEX_XML =
+			"<?xml version=\"1.0\" encoding=\"utf-8\"?>\n" +
+			"<EvaluationInputData xmlns=\"http://www.perkinelmer.com/PEHH/HarmonyV5\" Version=\"2\">\n" +
+			"  <Images>\n" +
+			"    <Image Version=\"1\">\n" +
+			"      <id>0101K1F1P1R1</id>\n" +
+			"      <URL>r01c01f01p01-ch1sk1fk1fl1.tiff</URL>\n" +
+			"      <ChannelID>1</ChannelID>\n" +
+			"      <ImageResolutionX Unit=\"m\">2.99E-07</ImageResolutionX>\n" +
+			"      <ImageResolutionY Unit=\"m\">2.99E-07</ImageResolutionY>\n" +
+			"      <PositionX Unit=\"m\">-0.000617</PositionX>\n" +
+			"      <PositionY Unit=\"m\">0.000617</PositionY>\n" +
+			"    </Image>\n" +
+			"    <Image Version=\"1\">\n" +
+			"      <id>0101K1F2P1R2</id>\n" +
+			"      <URL>r01c01f02p01-ch2sk1fk1fl1.tiff</URL>\n" +
+			"      <ChannelID>2</ChannelID>\n" +
+			"      <PositionX Unit=\"m\">0.0001</PositionX>\n" +
+			"      <PositionY Unit=\"m\">0.0002</PositionY>\n" +
+			"    </Image>\n" +
+			"  </Images>\n" +
+			"  <Maps>\n" +
+			"    <Map>\n" +
+			"      <Entry ChannelID=\"1\">\n" +
+			"        <ImageSizeX>2160</ImageSizeX>\n" +
+			"        <ImageSizeY>2160</ImageSizeY>\n" +
+			"        <MaxIntensity>65535</MaxIntensity>\n" +
+			"        <MainEmissionWavelength Unit=\"nm\">456</MainEmissionWavelength>\n" +
+			"      </Entry>\n" +
+			"      <Entry ChannelID=\"2\">\n" +
+			"        <MaxIntensity>4095</MaxIntensity>\n" +
+			"        <MainEmissionWavelength Unit=\"nm\">599</MainEmissionWavelength>\n" +
+			"      </Entry>\n" +
+			"    </Map>\n" +
+			"  </Maps>\n" +
+			"</EvaluationInputData>\n";
+
+	@Test
+	void parseIndexXml( @TempDir Path tempDir ) throws IOException
+	{
+		final File xml = tempDir.resolve( "Index.xml" ).toFile();
+		Files.write( xml.toPath(), INDEX_XML.getBytes() );
+
+		final OperettaMetadata metadata = new OperettaMetadata( xml );
+
+		final String path = "/plate/Images/r01c01f02p01-ch2sk1fk1fl1.tiff";
+		assertTrue( metadata.contains( path ) );
+		assertFalse( metadata.contains( "/plate/Images/r02c01f01p01-ch1sk1fk1fl1.tiff" ) );
+		assertEquals( 1, metadata.getImageIndex( path ) );
+		assertArrayEquals( new double[]{ 0.0001, -0.0002 }, metadata.getRealPosition( path ), 1e-12 );
+		assertArrayEquals( new int[]{ 2160, 2160 }, metadata.getSiteDimensions( path ) );
+		assertArrayEquals( new double[]{ 0, 65535 }, metadata.getContrastLimits( path ), 0 );
+		assertEquals( "m", metadata.getVoxelDimensions( path ).unit() );
+		assertEquals( 2.99E-07, metadata.getVoxelDimensions( path ).dimension( 0 ), 1e-15 );
+	}
+}
@@ -0,0 +1,91 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.hcs;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlateIndexTest
+{
+	@Test
+	void listPathsLikeFilesWalk( @TempDir Path plate ) throws IOException
+	{
+		final Path images = Files.createDirectories( plate.resolve( "TimePoint_1" ) );
+		Files.createFile( images.resolve( "MIP-2P-2sub_C05_s1_w1.tif" ) );
+		Files.createFile( images.resolve( "MIP-2P-2sub_C05_s1_w2.tif" ) );
+		Files.createDirectories( plate.resolve( "a/b/c/d" ) );
+		Files.createFile( plate.resolve( "a/b/c/d/too-deep.tif" ) );
+
+		final PlateIndex index = PlateIndex.open( plate.toString() );
+		assertEquals( walk( plate ), new HashSet<>( index.listPaths() ) );
+
+		// a new well, in an existing directory
+		final Path newImage = Files.createFile( images.resolve( "MIP-2P-2sub_C06_s1_w1.tif" ) );
+		Files.setLastModifiedTime( images, FileTime.fromMillis( Files.getLastModifiedTime( images ).toMillis() + 1000 ) );
+		final List< String > paths = index.listPaths();
+		assertTrue( paths.contains( newImage.toString() ) );
+		assertEquals( walk( plate ), new HashSet<>( paths ) );
+	}
+
+	@Test
+	void parseImageEntries( @TempDir Path plate )
+	{
+		final PlateIndex index = PlateIndex.open( plate.toString() );
+		index.setHcsPattern( HCSPattern.MolecularDevices );
+
+		final PlateIndex.ImageEntry entry = index.getImageEntry( "/plate/MIP-2P-2sub_C05_s1_w2.tif", HCSPattern.MolecularDevices );
+		assertNotNull( entry );
+		assertEquals( "C05", entry.well );
+		assertEquals( "1", entry.site );
+		assertEquals( "2", entry.channels.get( 0 ) );
+
+		assertNull( index.getImageEntry( "/plate/.DS_Store", HCSPattern.MolecularDevices ) );
+	}
+
+	private static HashSet< String > walk( Path plate ) throws IOException
+	{
+		try ( Stream< Path > paths = Files.walk( plate, 3 ) )
+		{
+			return paths.filter( path -> ! path.equals( plate ) )
+					.map( Path::toString )
+					.collect( Collectors.toCollection( HashSet::new ) );
+		}
+	}
+}
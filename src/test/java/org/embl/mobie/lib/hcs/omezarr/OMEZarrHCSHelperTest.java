@@ -0,0 +1,82 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.hcs.omezarr;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OMEZarrHCSHelperTest
+{
+	@Test
+	void updatesCachedImagePathsWhenWellsChange( @TempDir Path plate, @TempDir Path cache ) throws Exception
+	{
+		final File previousCacheDirectory = OMEZarrHCSHelper.cacheDirectory;
+		OMEZarrHCSHelper.cacheDirectory = cache.toFile();
+		try
+		{
+			write( plate.resolve( ".zattrs" ), "{\"plate\":{\"wells\":[{\"path\":\"A/1\"}]}}" );
+			final Path well = plate.resolve( "A/1/.zattrs" );
+			write( well, "{\"well\":{\"images\":[{\"path\":\"0\"}]}}" );
+
+			final List< String > imagePaths = OMEZarrHCSHelper.imagePathsFromMetadata( plate.toString() );
+			assertEquals( 1, imagePaths.size() );
+			assertTrue( imagePaths.get( 0 ).endsWith( "0" ) );
+
+			// a new site is acquired, the plate metadata stays the same
+			write( well, "{\"well\":{\"images\":[{\"path\":\"0\"},{\"path\":\"1\"}]}}" );
+
+			// the cached image paths are returned, and checked in the background...
+			assertEquals( imagePaths, OMEZarrHCSHelper.imagePathsFromMetadata( plate.toString() ) );
+			OMEZarrHCSHelper.revalidation.get();
+
+			// ...such that the next time the new site is found
+			final List< String > updatedImagePaths = OMEZarrHCSHelper.imagePathsFromMetadata( plate.toString() );
+			assertEquals( 2, updatedImagePaths.size() );
+			assertTrue( updatedImagePaths.get( 1 ).endsWith( "1" ) );
+		}
+		finally
+		{
+			OMEZarrHCSHelper.cacheDirectory = previousCacheDirectory;
+		}
+	}
+
+	private static void write( Path path, String content ) throws Exception
+	{
+		Files.createDirectories( path.getParent() );
+		Files.write( path, content.getBytes( StandardCharsets.UTF_8 ) );
+	}
+}
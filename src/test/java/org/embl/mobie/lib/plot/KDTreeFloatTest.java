@@ -0,0 +1,98 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.plot;
+
+import net.imglib2.RealPoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KDTreeFloatTest
+{
+	@Test
+	void searchesMatchBruteForce()
+	{
+		final Random random = new Random( 42 );
+		final int numPoints = 2000;
+		final List< RealPoint > points = new ArrayList<>();
+		final List< Integer > values = new ArrayList<>();
+		for ( int i = 0; i < numPoints; i++ )
+		{
+			// integer coordinates to also test duplicates
+			points.add( new RealPoint( random.nextInt( 50 ), random.nextInt( 50 ), random.nextFloat() * 50 ) );
+			values.add( i );
+		}
+
+		final KDTreeFloat< Integer > kdTree = new KDTreeFloat<>( values, points );
+		final KDTreeFloat< Integer >.NearestNeighborSearch nearest = kdTree.createNearestNeighborSearch();
+		final KDTreeFloat< Integer >.RadiusNeighborSearch radius = kdTree.createRadiusNeighborSearch();
+		final KDTreeFloat< Integer >.WithinDistancesSearch withinDistances = kdTree.createWithinDistancesSearch();
+		final double[] distances = { 3, 5, 7 };
+
+		for ( int q = 0; q < 200; q++ )
+		{
+			final RealPoint query = new RealPoint( random.nextFloat() * 60 - 5, random.nextFloat() * 60 - 5, random.nextFloat() * 60 - 5 );
+			final double searchRadius = random.nextDouble() * 10;
+
+			double minSquDistance = Double.MAX_VALUE;
+			int numWithinRadius = 0;
+			int numWithinDistances = 0;
+			for ( final RealPoint point : points )
+			{
+				double squDistance = 0;
+				boolean withinDistance = true;
+				for ( int d = 0; d < 3; d++ )
+				{
+					final double diff = ( double ) query.getFloatPosition( d ) - point.getFloatPosition( d );
+					squDistance += diff * diff;
+					if ( Math.abs( diff ) > distances[ d ] ) withinDistance = false;
+				}
+				minSquDistance = Math.min( minSquDistance, squDistance );
+				if ( squDistance <= searchRadius * searchRadius ) numWithinRadius++;
+				if ( withinDistance ) numWithinDistances++;
+			}
+
+			assertTrue( nearest.search( query ) );
+			assertEquals( minSquDistance, nearest.getSquareDistance(), 1e-6 );
+			assertEquals( numWithinRadius > 0, nearest.search( query, searchRadius ) );
+
+			radius.search( query, searchRadius, true );
+			assertEquals( numWithinRadius, radius.numNeighbors() );
+			for ( int i = 1; i < radius.numNeighbors(); i++ )
+				assertTrue( radius.getSquareDistance( i - 1 ) <= radius.getSquareDistance( i ) );
+
+			withinDistances.search( query, distances, false );
+			assertEquals( numWithinDistances, withinDistances.numNeighbors() );
+		}
+	}
+}
@@ -0,0 +1,137 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.select;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoBIESelectionModelTest
+{
+	@Test
+	void selectionMatchesHashSet()
+	{
+		final MoBIESelectionModel< String > selectionModel = new MoBIESelectionModel<>();
+		final Set< String > expected = new HashSet<>();
+		final Random random = new Random( 42 );
+
+		for ( int i = 0; i < 10000; i++ )
+		{
+			final String object = "" + random.nextInt( 500 );
+			switch ( random.nextInt( 4 ) )
+			{
+				case 0:
+					selectionModel.setSelected( object, true );
+					expected.add( object );
+					break;
+				case 1:
+					selectionModel.setSelected( object, false );
+					expected.remove( object );
+					break;
+				case 2:
+					selectionModel.toggle( object );
+					if ( ! expected.remove( object ) ) expected.add( object );
+					break;
+				default:
+					if ( random.nextInt( 100 ) == 0 )
+					{
+						selectionModel.clearSelection();
+						expected.clear();
+					}
+			}
+
+			assertEquals( expected.contains( object ), selectionModel.isSelected( object ) );
+		}
+
+		assertEquals( expected, new HashSet<>( selectionModel.getSelected() ) );
+		assertEquals( expected.size(), selectionModel.getSelected().size() );
+		assertEquals( expected.isEmpty(), selectionModel.isEmpty() );
+	}
+
+	@Test
+	void snapshotIsNotAffectedByLaterChanges()
+	{
+		final MoBIESelectionModel< String > selectionModel = new MoBIESelectionModel<>();
+		selectionModel.setSelected( Arrays.asList( "a", "b" ), true );
+
+		final Set< String > snapshot = selectionModel.getSelected();
+		selectionModel.setSelected( "c", true );
+		selectionModel.setSelected( "a", false );
+
+		assertEquals( new HashSet<>( Arrays.asList( "a", "b" ) ), new HashSet<>( snapshot ) );
+		assertTrue( snapshot.contains( "a" ) );
+		assertFalse( snapshot.contains( "c" ) );
+	}
+
+	@Test
+	void batchSelectionIsOneEvent() throws InterruptedException
+	{
+		final MoBIESelectionModel< Integer > selectionModel = new MoBIESelectionModel<>();
+		final List< String > events = new ArrayList<>();
+		selectionModel.listeners().add( new SelectionListener()
+		{
+			@Override
+			public void selectionChanged()
+			{
+				synchronized ( events )
+				{
+					events.add( "changed" );
+				}
+			}
+
+			@Override
+			public void focusEvent( Object selection, Object initiator )
+			{
+			}
+		} );
+
+		final List< Integer > objects = new ArrayList<>();
+		for ( int i = 0; i < 100000; i++ )
+			objects.add( i );
+
+		assertTrue( selectionModel.setSelected( objects, true ) );
+		assertFalse( selectionModel.setSelected( objects, true ) );
+
+		Thread.sleep( 500 );
+		synchronized ( events )
+		{
+			assertEquals( 1, events.size() );
+		}
+		assertEquals( 100000, selectionModel.getSelected().size() );
+		assertTrue( selectionModel.isSelected( 99999 ) );
+		assertFalse( selectionModel.isSelected( 100000 ) );
+	}
+}
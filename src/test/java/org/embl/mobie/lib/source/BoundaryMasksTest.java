@@ -0,0 +1,94 @@
+/*-
+ * #%L
+ * Fiji viewer for MoBIE projects
+ * %%
+ * Copyright (C) 2018 - 2024 EMBL
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package org.embl.mobie.lib.source;
+
+import bdv.util.RandomAccessibleIntervalSource;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.img.array.ArrayImg;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.img.basictypeaccess.array.IntArray;
+import net.imglib2.type.numeric.integer.IntType;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundaryMasksTest
+{
+	@Test
+	void masksTheBoundariesOfTheLabels()
+	{
+		final BoundaryMasks< IntType > boundaryMasks = new BoundaryMasks<>( createSquareLabelSource() );
+		final RandomAccessibleInterval< UnsignedByteType > mask = boundaryMasks.getMask( 0, 0, Arrays.asList( 0, 1 ), new double[]{ 1, 1, 1 } );
+
+		assertSquareBoundary( mask );
+
+		// the mask is cached
+		assertSame( mask, boundaryMasks.getMask( 0, 0, Arrays.asList( 0, 1 ), new double[]{ 1, 1, 1 } ) );
+	}
+
+	@Test
+	void masksTheBoundariesForSubVoxelWidths()
+	{
+		// e.g. at a coarse resolution level
+		final BoundaryMasks< IntType > boundaryMasks = new BoundaryMasks<>( createSquareLabelSource() );
+		final RandomAccessibleInterval< UnsignedByteType > mask = boundaryMasks.getMask( 0, 0, Arrays.asList( 0, 1 ), new double[]{ 0.2, 0.2, 0.2 } );
+
+		assertSquareBoundary( mask );
+	}
+
+	// a 5x5 square of label 1 in a 2D image
+	private static RandomAccessibleIntervalSource< IntType > createSquareLabelSource()
+	{
+		final ArrayImg< IntType, IntArray > labels = ArrayImgs.ints( 10, 10, 1 );
+		final RandomAccess< IntType > access = labels.randomAccess();
+		for ( int x = 2; x <= 6; x++ )
+			for ( int y = 2; y <= 6; y++ )
+				access.setPositionAndGet( x, y, 0 ).set( 1 );
+
+		return new RandomAccessibleIntervalSource<>( labels, new IntType(), "labels" );
+	}
+
+	private static void assertSquareBoundary( RandomAccessibleInterval< UnsignedByteType > mask )
+	{
+		final RandomAccess< UnsignedByteType > maskAccess = mask.randomAccess();
+		for ( int x = 0; x < 10; x++ )
+		{
+			for ( int y = 0; y < 10; y++ )
+			{
+				final boolean isLabel = x >= 2 && x <= 6 && y >= 2 && y <= 6;
+				final boolean isBoundary = isLabel && ( x == 2 || x == 6 || y == 2 || y == 6 );
+				assertEquals( isBoundary ? 1 : 0, maskAccess.setPositionAndGet( x, y, 0 ).get(), "voxel " + x + ", " + y );
+			}
+		}
+	}
+}